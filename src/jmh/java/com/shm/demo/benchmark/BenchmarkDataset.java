@@ -0,0 +1,203 @@
+package com.shm.demo.benchmark;
+
+import com.shm.demo.dto.CooperationPersonnelRequest;
+import com.shm.demo.entity.CooperationJobType;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试数据集：在 H2 (MySQL 兼容模式) 内存库中生成指定数量的合作，数据完全由序号推导，可重复生成。
+ * <ul>
+ *     <li>50 家送出企业 (北京) 和 50 家接收企业 (上海)；</li>
+ *     <li>人员数量为合作数的 1/10 (至少 1000 人)，平均分配到送出企业；</li>
+ *     <li>每条合作 2 名人员，第 k 个人员时段分配给人员 k % P，第 k / P 个 10 天时间窗，保证同一人员的时段互不重叠。</li>
+ * </ul>
+ * 新增基准使用 {@link #personnelItems(long)} 继续向后分配时段，同样不会与已有数据冲突。
+ */
+public class BenchmarkDataset {
+
+    public static final int ENTERPRISES_PER_SIDE = 50;
+    public static final int PERSONNEL_PER_COOPERATION = 2;
+    private static final LocalDate BASE_DATE = LocalDate.of(2020, 1, 1);
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2020, 1, 1, 0, 0);
+    private static final int BATCH = 10_000;
+
+    private static final String[] WORDS = {
+            "技术", "交流", "合作", "培训", "管理", "研发", "制造", "服务", "科技", "创新",
+            "数字", "智能", "物流", "能源", "医疗", "教育", "金融", "文化", "旅游", "农业",
+            "环保", "建设", "交通", "通信", "电子", "材料", "化工", "机械", "汽车", "航空"
+    };
+
+    private final int cooperations;
+    private final int personnel;
+
+    public BenchmarkDataset(int cooperations) {
+        this.cooperations = cooperations;
+        this.personnel = Math.max(1000, cooperations / 10);
+    }
+
+    public int getCooperations() {
+        return cooperations;
+    }
+
+    public static String jdbcUrl(String name) {
+        return "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    }
+
+    /**
+     * 建表并写入全部数据
+     */
+    public void load(String url) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("benchmark-schema.sql"));
+            connection.setAutoCommit(false);
+            insertEnterprises(connection);
+            insertPersonnel(connection);
+            insertCooperations(connection);
+            initializeStats(connection);
+            connection.commit();
+        }
+    }
+
+    /**
+     * 第 i 条合作 (从 1 开始) 的主题，不超过 20 个字符且全局唯一
+     */
+    public static String theme(long i) {
+        return WORDS[(int) (i * 31 % WORDS.length)] + WORDS[(int) (i * 17 / 7 % WORDS.length)] + Long.toString(i, 36);
+    }
+
+    /**
+     * 第 i 条合作 (从 1 开始) 的人员明细；i 大于数据集规模时继续向后分配时段，可用于新增
+     */
+    public List<CooperationPersonnelRequest> personnelItems(long i) {
+        List<CooperationPersonnelRequest> items = new ArrayList<>(PERSONNEL_PER_COOPERATION);
+        for (int j = 0; j < PERSONNEL_PER_COOPERATION; j++) {
+            long k = (i - 1) * PERSONNEL_PER_COOPERATION + j;
+            long personnelId = k % personnel + 1;
+            LocalDate start = BASE_DATE.plusDays(k / personnel * 10);
+            CooperationPersonnelRequest item = new CooperationPersonnelRequest();
+            item.setPersonnelId(personnelId);
+            item.setSendingEnterpriseId(sendingEnterpriseOf(personnelId));
+            item.setReceivingEnterpriseId(i % ENTERPRISES_PER_SIDE + ENTERPRISES_PER_SIDE + 1);
+            item.setCooperationJobType(j == 0 ? CooperationJobType.TECHNOLOGY : CooperationJobType.MANAGEMENT);
+            item.setPersonnelStartDate(start);
+            item.setPersonnelEndDate(start.plusDays(4));
+            items.add(item);
+        }
+        return items;
+    }
+
+    public static LocalDate startDateOf(List<CooperationPersonnelRequest> items) {
+        return items.stream().map(CooperationPersonnelRequest::getPersonnelStartDate).min(LocalDate::compareTo).orElseThrow();
+    }
+
+    public static LocalDate endDateOf(List<CooperationPersonnelRequest> items) {
+        return items.stream().map(CooperationPersonnelRequest::getPersonnelEndDate).max(LocalDate::compareTo).orElseThrow();
+    }
+
+    private static long sendingEnterpriseOf(long personnelId) {
+        return personnelId % ENTERPRISES_PER_SIDE + 1;
+    }
+
+    private void insertEnterprises(Connection connection) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO enterprise (id, name, cooperation_type, enterprise_type, region) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= ENTERPRISES_PER_SIDE * 2; i++) {
+                boolean sending = i <= ENTERPRISES_PER_SIDE;
+                insert.setLong(1, i);
+                insert.setString(2, (sending ? "送出企业" : "接收企业") + i);
+                insert.setString(3, sending ? "SEND" : "RECEIVE");
+                insert.setString(4, "TECHNOLOGY");
+                insert.setString(5, sending ? "北京" : "上海");
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private void insertPersonnel(Connection connection) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO personnel (id, name, gender, age, phone, education, start_work_date, enterprise_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (long id = 1; id <= personnel; id++) {
+                insert.setLong(1, id);
+                insert.setString(2, "人员" + id);
+                insert.setInt(3, (int) (id % 2 + 1));
+                insert.setInt(4, (int) (22 + id % 40));
+                insert.setString(5, String.valueOf(13_000_000_000L + id));
+                insert.setInt(6, (int) (id % 5 + 1));
+                insert.setObject(7, BASE_DATE.minusYears(id % 20));
+                insert.setLong(8, sendingEnterpriseOf(id));
+                insert.addBatch();
+                if (id % BATCH == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private void insertCooperations(Connection connection) throws SQLException {
+        try (PreparedStatement cooperation = connection.prepareStatement(
+                "INSERT INTO cooperation (id, cooperation_theme, initiator_region, receiver_region, cooperation_start_date, "
+                        + "cooperation_end_date, personnel_count, created_at, updated_at) VALUES (?, ?, '北京', '上海', ?, ?, ?, ?, ?)");
+             PreparedStatement item = connection.prepareStatement(
+                     "INSERT INTO cooperation_personnel (cooperation_id, sending_enterprise_id, personnel_id, cooperation_job_type, "
+                             + "receiving_enterprise_id, personnel_start_date, personnel_end_date) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (long i = 1; i <= cooperations; i++) {
+                List<CooperationPersonnelRequest> items = personnelItems(i);
+                Timestamp createdAt = Timestamp.valueOf(BASE_TIME.plusSeconds(i));
+                cooperation.setLong(1, i);
+                cooperation.setString(2, theme(i));
+                cooperation.setObject(3, startDateOf(items));
+                cooperation.setObject(4, endDateOf(items));
+                cooperation.setInt(5, items.size());
+                cooperation.setTimestamp(6, createdAt);
+                cooperation.setTimestamp(7, createdAt);
+                cooperation.addBatch();
+                for (CooperationPersonnelRequest personnelItem : items) {
+                    item.setLong(1, i);
+                    item.setLong(2, personnelItem.getSendingEnterpriseId());
+                    item.setLong(3, personnelItem.getPersonnelId());
+                    item.setString(4, personnelItem.getCooperationJobType().name());
+                    item.setLong(5, personnelItem.getReceivingEnterpriseId());
+                    item.setObject(6, personnelItem.getPersonnelStartDate());
+                    item.setObject(7, personnelItem.getPersonnelEndDate());
+                    item.addBatch();
+                }
+                if (i % BATCH == 0) {
+                    cooperation.executeBatch();
+                    item.executeBatch();
+                }
+            }
+            cooperation.executeBatch();
+            item.executeBatch();
+        }
+        // 自增列从数据集之后开始，新增基准生成的 ID 不与已有数据冲突
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE cooperation ALTER COLUMN id RESTART WITH " + (cooperations + 1));
+        }
+    }
+
+    // 与 CooperationStatsMapper 的全量重建语句相同
+    private static void initializeStats(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO cooperation_region_stats (initiator_region, receiver_region, slot, cooperation_count, personnel_count, person_days) "
+                    + "SELECT c.initiator_region, c.receiver_region, 0, COUNT(DISTINCT c.id), COUNT(cp.id), "
+                    + "COALESCE(SUM(TIMESTAMPDIFF(DAY, cp.personnel_start_date, cp.personnel_end_date) + 1), 0) "
+                    + "FROM cooperation c LEFT JOIN cooperation_personnel cp ON cp.cooperation_id = c.id "
+                    + "WHERE c.deleted = 0 GROUP BY c.initiator_region, c.receiver_region");
+            statement.execute("INSERT INTO cooperation_job_type_stats (initiator_region, receiver_region, cooperation_job_type, slot, "
+                    + "cooperation_count, personnel_count, person_days) "
+                    + "SELECT c.initiator_region, c.receiver_region, cp.cooperation_job_type, 0, COUNT(DISTINCT c.id), COUNT(*), "
+                    + "SUM(TIMESTAMPDIFF(DAY, cp.personnel_start_date, cp.personnel_end_date) + 1) "
+                    + "FROM cooperation c JOIN cooperation_personnel cp ON cp.cooperation_id = c.id "
+                    + "WHERE c.deleted = 0 GROUP BY c.initiator_region, c.receiver_region, cp.cooperation_job_type");
+        }
+    }
+}
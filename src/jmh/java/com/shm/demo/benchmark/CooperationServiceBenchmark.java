@@ -0,0 +1,214 @@
+package com.shm.demo.benchmark;
+
+import com.shm.demo.DemoApplication;
+import com.shm.demo.cache.CooperationDetailCache;
+import com.shm.demo.cache.CooperationThemeIndex;
+import com.shm.demo.dto.*;
+import com.shm.demo.entity.Cooperation;
+import com.shm.demo.service.CooperationService;
+import com.shm.demo.service.impl.EnterpriseServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 合作 Service 与 Mapper 热点路径基准：在 H2 (MySQL 兼容模式) 中生成数据集后启动完整的 Spring 上下文 (不启动 Web 服务器)。
+ * <p>
+ * 运行：
+ * <pre>
+ * mvn -Pbenchmark verify -Djmh.args="CooperationServiceBenchmark"
+ * mvn -Pbenchmark verify -Djmh.args="CooperationServiceBenchmark -p rows=10000,100000,1000000"
+ * mvn -Pbenchmark verify -Djmh.args="CooperationServiceBenchmark.list.*" -Djmh.result=target/jmh-baseline.json
+ * </pre>
+ * 结果以 JSON 写入 jmh.result (默认 target/jmh-result.json)，可用 jmh.morethan.io 等工具对比两次提交的结果。
+ * 每个基准方法在独立的 fork 中运行，写操作 (add/update) 不会影响其他基准的数据。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgs = {"-Xmx6g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CooperationServiceBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+
+    @Param({"10000"})
+    public int rows;
+
+    private BenchmarkDataset dataset;
+    private ConfigurableApplicationContext context;
+    private CooperationService cooperationService;
+    private Object cooperationServiceTarget; // 去掉事务代理后的实现类，用于调用私有校验方法
+    private CooperationDetailCache detailCache;
+    private final AtomicLong nextCooperation = new AtomicLong();
+    private String deepCursor;
+    private int deepPage;
+    private String themeKeyword;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dataset = new BenchmarkDataset(rows);
+        String url = BenchmarkDataset.jdbcUrl("cooperation_bench_" + rows);
+        dataset.load(url);
+
+        // 以命令行参数传入，优先级高于 application.properties
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + url,
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--mybatis.configuration.log-impl=org.apache.ibatis.logging.nologging.NoLoggingImpl",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.shm.demo.mapper=WARN",
+                        "--spring.flyway.enabled=false", // 表结构由 BenchmarkDataset 创建
+                        "--spring.main.banner-mode=off");
+        cooperationService = context.getBean(CooperationService.class);
+        cooperationServiceTarget = AopTestUtils.getUltimateTargetObject(cooperationService);
+        detailCache = context.getBean(CooperationDetailCache.class);
+
+        // 启动后的缓存与索引预热是异步的，这里等待完成，避免测到退化路径
+        context.getBean(EnterpriseServiceImpl.class).reloadCache();
+        CooperationThemeIndex themeIndex = context.getBean(CooperationThemeIndex.class);
+        long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(10);
+        while (!themeIndex.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+
+        // 新增基准从数据集之后继续分配人员时段 (跳过一轮人员，避免与最后几条合作相邻)
+        nextCooperation.set(rows + 1000L);
+
+        // 取数据集中某个主题的前两个词 (4 个字符)，保证能命中
+        themeKeyword = BenchmarkDataset.theme(rows / 2).substring(0, 4);
+
+        // 深分页：倒数第二页，以及定位到同一位置的游标
+        deepPage = Math.max(1, rows / PAGE_SIZE - 1);
+        PaginationRequest request = new PaginationRequest();
+        request.setPage(deepPage - 1);
+        request.setSize(PAGE_SIZE);
+        List<CooperationListItemDTO> previous = cooperationService.listCooperations(request).getContent();
+        deepCursor = PageCursor.of(previous.get(previous.size() - 1)).encode();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private long randomCooperationId() {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1);
+    }
+
+    @Benchmark
+    public Cooperation add() {
+        long i = nextCooperation.getAndIncrement();
+        List<CooperationPersonnelRequest> items = dataset.personnelItems(i);
+        CreateCooperationRequest request = new CreateCooperationRequest();
+        request.setCooperationTheme("新增" + Long.toString(i, 36));
+        request.setInitiatorRegion("北京");
+        request.setReceiverRegion("上海");
+        request.setCooperationStartDate(BenchmarkDataset.startDateOf(items));
+        request.setCooperationEndDate(BenchmarkDataset.endDateOf(items));
+        request.setCooperationPersonnelList(items);
+        return cooperationService.addCooperation(request);
+    }
+
+    // 用原有内容更新一条随机合作：完整执行校验、重叠检查与差异计算
+    @Benchmark
+    public Cooperation update() {
+        long id = randomCooperationId();
+        List<CooperationPersonnelRequest> items = dataset.personnelItems(id);
+        UpdateCooperationRequest request = new UpdateCooperationRequest();
+        request.setId(id);
+        request.setCooperationTheme(BenchmarkDataset.theme(id));
+        request.setInitiatorRegion("北京");
+        request.setReceiverRegion("上海");
+        request.setCooperationStartDate(BenchmarkDataset.startDateOf(items));
+        request.setCooperationEndDate(BenchmarkDataset.endDateOf(items));
+        request.setCooperationPersonnelList(items);
+        return cooperationService.updateCooperation(request);
+    }
+
+    // 详情 (缓存未命中)：主记录 + 四表关联查询
+    @Benchmark
+    public CooperationDetailDTO detail() {
+        long id = randomCooperationId();
+        detailCache.invalidate(id);
+        return cooperationService.getCooperationDetails(id);
+    }
+
+    // 详情 (缓存命中)
+    @Benchmark
+    public CooperationDetailDTO detailCached() {
+        return cooperationService.getCooperationDetails(1L);
+    }
+
+    @Benchmark
+    public void validatePersonnelList() {
+        long id = randomCooperationId();
+        List<CooperationPersonnelRequest> items = dataset.personnelItems(id);
+        ReflectionTestUtils.invokeMethod(cooperationServiceTarget, "validatePersonnelList", "北京", "上海",
+                BenchmarkDataset.startDateOf(items), BenchmarkDataset.endDateOf(items), items);
+    }
+
+    // 以更新场景检查重叠 (排除合作自身)，不会产生冲突
+    @Benchmark
+    public void checkForPersonnelTimeOverlap() {
+        long id = randomCooperationId();
+        ReflectionTestUtils.invokeMethod(cooperationServiceTarget, "checkForPersonnelTimeOverlap", dataset.personnelItems(id), id);
+    }
+
+    @Benchmark
+    public PageResponse<CooperationListItemDTO> listShallow() {
+        return cooperationService.listCooperations(page(1));
+    }
+
+    @Benchmark
+    public PageResponse<CooperationListItemDTO> listDeep() {
+        return cooperationService.listCooperations(page(deepPage));
+    }
+
+    // 与 listDeep 相同位置，使用游标分页
+    @Benchmark
+    public PageResponse<CooperationListItemDTO> listDeepCursor() {
+        PaginationRequest request = page(1);
+        request.setCursorMode(true);
+        request.setCursor(deepCursor);
+        return cooperationService.listCooperations(request);
+    }
+
+    // 4 个字符的主题关键字，命中多条记录 (三元组索引路径)
+    @Benchmark
+    public PageResponse<CooperationListItemDTO> searchTheme() {
+        SearchCooperationRequest request = new SearchCooperationRequest();
+        request.setCooperationTheme(themeKeyword);
+        request.setSize(PAGE_SIZE);
+        return cooperationService.searchCooperations(request);
+    }
+
+    // 只按地区过滤 (不使用主题索引)
+    @Benchmark
+    public PageResponse<CooperationListItemDTO> searchRegion() {
+        SearchCooperationRequest request = new SearchCooperationRequest();
+        request.setInitiatorRegion("北京");
+        request.setReceiverRegion("上海");
+        request.setSize(PAGE_SIZE);
+        return cooperationService.searchCooperations(request);
+    }
+
+    private static PaginationRequest page(int page) {
+        PaginationRequest request = new PaginationRequest();
+        request.setPage(page);
+        request.setSize(PAGE_SIZE);
+        return request;
+    }
+}
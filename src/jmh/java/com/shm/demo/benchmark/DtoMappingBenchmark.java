@@ -0,0 +1,135 @@
+package com.shm.demo.benchmark;
+
+import com.shm.demo.convert.CooperationConverter;
+import com.shm.demo.convert.CooperationConverterImpl;
+import com.shm.demo.convert.EnterpriseConverter;
+import com.shm.demo.convert.EnterpriseConverterImpl;
+import com.shm.demo.convert.PersonnelConverter;
+import com.shm.demo.convert.PersonnelConverterImpl;
+import com.shm.demo.dto.CooperationPersonnelRequest;
+import com.shm.demo.dto.CreateCooperationRequest;
+import com.shm.demo.dto.CreatePersonnelRequest;
+import com.shm.demo.entity.Cooperation;
+import com.shm.demo.entity.CooperationPersonnel;
+import com.shm.demo.entity.CooperationType;
+import com.shm.demo.entity.Enterprise;
+import com.shm.demo.entity.EnterpriseType;
+import com.shm.demo.entity.Personnel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.beans.BeanUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DTO 与实体转换：Spring BeanUtils.copyProperties (反射，按属性名查找 PropertyDescriptor) 与 MapStruct 编译期生成的转换器对比。
+ * 不启动 Spring 上下文，直接实例化生成的实现类。
+ * <p>
+ * 运行 (-prof gc 同时输出每次操作的分配字节数)：
+ * <pre>
+ * mvn -Pbenchmark verify -Djmh.args="DtoMappingBenchmark -prof gc"
+ * </pre>
+ * cooperation* 对应新增/导入合作时的转换：合作主记录 + 每条人员明细 (items 条)。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DtoMappingBenchmark {
+
+    @Param({"2", "50"})
+    public int items;
+
+    private final CooperationConverter cooperationConverter = new CooperationConverterImpl();
+    private final PersonnelConverter personnelConverter = new PersonnelConverterImpl();
+    private final EnterpriseConverter enterpriseConverter = new EnterpriseConverterImpl();
+
+    private CreateCooperationRequest cooperationRequest;
+    private CreatePersonnelRequest personnelRequest;
+    private Enterprise enterprise;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDataset dataset = new BenchmarkDataset(items);
+        List<CooperationPersonnelRequest> personnel = new ArrayList<>();
+        for (long i = 1; personnel.size() < items; i++) {
+            personnel.addAll(dataset.personnelItems(i));
+        }
+        personnel = new ArrayList<>(personnel.subList(0, items));
+        cooperationRequest = new CreateCooperationRequest();
+        cooperationRequest.setCooperationTheme(BenchmarkDataset.theme(1));
+        cooperationRequest.setInitiatorRegion("北京");
+        cooperationRequest.setReceiverRegion("上海");
+        cooperationRequest.setCooperationStartDate(BenchmarkDataset.startDateOf(personnel));
+        cooperationRequest.setCooperationEndDate(BenchmarkDataset.endDateOf(personnel));
+        cooperationRequest.setCooperationPersonnelList(personnel);
+
+        personnelRequest = new CreatePersonnelRequest();
+        personnelRequest.setName("人员1");
+        personnelRequest.setGender((byte) 1);
+        personnelRequest.setAge(30);
+        personnelRequest.setPhone("13800000001");
+        personnelRequest.setEducation((byte) 3);
+        personnelRequest.setStartWorkDate(LocalDate.of(2015, 7, 1));
+        personnelRequest.setEnterpriseId(1L);
+
+        enterprise = new Enterprise();
+        enterprise.setId(1L);
+        enterprise.setName("送出企业1");
+        enterprise.setCooperationType(CooperationType.SEND);
+        enterprise.setEnterpriseType(EnterpriseType.MANUFACTURING);
+        enterprise.setRegion("北京");
+        enterprise.setVersion(0);
+    }
+
+    @Benchmark
+    public void cooperationBeanUtils(Blackhole blackhole) {
+        Cooperation cooperation = new Cooperation();
+        BeanUtils.copyProperties(cooperationRequest, cooperation);
+        blackhole.consume(cooperation);
+        for (CooperationPersonnelRequest item : cooperationRequest.getCooperationPersonnelList()) {
+            CooperationPersonnel entity = new CooperationPersonnel();
+            BeanUtils.copyProperties(item, entity);
+            entity.setCooperationId(1L);
+            blackhole.consume(entity);
+        }
+    }
+
+    @Benchmark
+    public void cooperationConverter(Blackhole blackhole) {
+        blackhole.consume(cooperationConverter.toEntity(cooperationRequest));
+        for (CooperationPersonnelRequest item : cooperationRequest.getCooperationPersonnelList()) {
+            blackhole.consume(cooperationConverter.toEntity(item, 1L));
+        }
+    }
+
+    @Benchmark
+    public Personnel personnelBeanUtils() {
+        Personnel personnel = new Personnel();
+        BeanUtils.copyProperties(personnelRequest, personnel);
+        return personnel;
+    }
+
+    @Benchmark
+    public Personnel personnelConverter() {
+        return personnelConverter.toEntity(personnelRequest);
+    }
+
+    // 企业缓存每次读取都返回副本
+    @Benchmark
+    public Enterprise enterpriseCopyBeanUtils() {
+        Enterprise copy = new Enterprise();
+        BeanUtils.copyProperties(enterprise, copy);
+        return copy;
+    }
+
+    @Benchmark
+    public Enterprise enterpriseCopyConverter() {
+        return enterpriseConverter.copy(enterprise);
+    }
+}
@@ -0,0 +1,218 @@
+package com.shm.demo.benchmark;
+
+import com.shm.demo.DemoApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HTTP 压测：对比平台线程 (Tomcat 线程池) 与虚拟线程 (spring.threads.virtual.enabled=true) 两种请求执行方式。
+ * <p>
+ * 每种模式在 H2 (MySQL 兼容模式) 中生成数据集后启动完整应用 (随机端口)，由 N 个闭环客户端持续请求：
+ * 每个客户端收到响应后立即发出下一个请求，预热后统计吞吐量和延迟分位数。两种模式使用同一份连接池配置。
+ * <p>
+ * 运行 (虚拟线程需要 JDK 21 及以上，低版本 JDK 上会跳过虚拟线程模式)：
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec@load-test -Dload.java=/path/to/jdk21/bin/java
+ * mvn -Pbenchmark test-compile exec:exec@load-test -Dload.args="--clients=1000 --duration=60 --endpoint=search"
+ * </pre>
+ * 参数：--modes=platform,virtual  --clients=1000  --warmup=10 (秒)  --duration=30 (秒)  --rows=10000
+ * --endpoint=list|search|detail
+ */
+public class RequestLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        List<String> modes = Arrays.asList(options.getOrDefault("modes", "platform,virtual").split(","));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "1000"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int rows = Integer.parseInt(options.getOrDefault("rows", "10000"));
+        String endpoint = options.getOrDefault("endpoint", "list");
+
+        BenchmarkDataset dataset = new BenchmarkDataset(rows);
+        List<Result> results = new ArrayList<>();
+        for (String mode : modes) {
+            boolean virtual = "virtual".equals(mode);
+            if (virtual && Runtime.version().feature() < 21) {
+                System.out.println("当前 JDK " + Runtime.version() + " 不支持虚拟线程，跳过 virtual 模式 (使用 -Dload.java 指定 JDK 21)");
+                continue;
+            }
+            String url = BenchmarkDataset.jdbcUrl("load_" + mode);
+            dataset.load(url);
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class)
+                    .run("--server.port=0",
+                            "--spring.threads.virtual.enabled=" + virtual,
+                            "--spring.datasource.url=" + url,
+                            "--spring.datasource.driver-class-name=org.h2.Driver",
+                            "--spring.datasource.username=sa",
+                            "--spring.datasource.password=",
+                            "--logging.level.root=WARN",
+                            "--spring.flyway.enabled=false", // 表结构由 BenchmarkDataset 创建
+                            "--spring.main.banner-mode=off")) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                System.out.printf("%s 模式：%d 个客户端，预热 %d 秒，测量 %d 秒 ...%n", mode, clients, warmupSeconds, durationSeconds);
+                results.add(new LoadRun(mode, port, endpoint, rows, clients).run(warmupSeconds, durationSeconds));
+            }
+        }
+
+        System.out.println();
+        System.out.printf("%-10s %8s %12s %10s %10s %10s %10s %8s%n",
+                "mode", "clients", "req/s", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)", "errors");
+        for (Result result : results) {
+            System.out.printf("%-10s %8d %12.1f %10.1f %10.1f %10.1f %10.1f %8d%n",
+                    result.mode, clients, result.throughput, result.p50, result.p99, result.p999, result.max, result.errors);
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("无效参数: " + arg + " (格式为 --name=value)");
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    private record Result(String mode, double throughput, double p50, double p99, double p999, double max, long errors) {
+    }
+
+    /**
+     * 一次压测：闭环客户端基于 HttpClient 异步请求，不为每个客户端占用一个线程
+     */
+    private static final class LoadRun {
+        private final String mode;
+        private final String baseUrl;
+        private final String endpoint;
+        private final int rows;
+        private final HttpClient http;
+        private final ClientState[] states;
+        private volatile boolean running = true;
+        private volatile boolean measuring;
+
+        private LoadRun(String mode, int port, String endpoint, int rows, int clients) {
+            this.mode = mode;
+            this.baseUrl = "http://localhost:" + port + "/api/cooperations";
+            this.endpoint = endpoint;
+            this.rows = rows;
+            this.http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            this.states = new ClientState[clients];
+            for (int i = 0; i < clients; i++) {
+                states[i] = new ClientState();
+            }
+        }
+
+        private Result run(int warmupSeconds, int durationSeconds) throws InterruptedException {
+            CountDownLatch stopped = new CountDownLatch(states.length);
+            for (ClientState state : states) {
+                next(state, stopped);
+            }
+            TimeUnit.SECONDS.sleep(warmupSeconds);
+            measuring = true;
+            long start = System.nanoTime();
+            TimeUnit.SECONDS.sleep(durationSeconds);
+            measuring = false;
+            long elapsed = System.nanoTime() - start;
+            running = false;
+            stopped.await(60, TimeUnit.SECONDS);
+
+            long errors = 0;
+            int count = 0;
+            for (ClientState state : states) {
+                errors += state.errors.get();
+                count += state.size;
+            }
+            long[] latencies = new long[count];
+            int offset = 0;
+            for (ClientState state : states) {
+                System.arraycopy(state.latencies, 0, latencies, offset, state.size);
+                offset += state.size;
+            }
+            Arrays.sort(latencies);
+            double seconds = elapsed / 1e9;
+            return new Result(mode, (count + errors) / seconds,
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                    count == 0 ? 0 : latencies[count - 1] / 1e6, errors);
+        }
+
+        private void next(ClientState state, CountDownLatch stopped) {
+            if (!running) {
+                stopped.countDown();
+                return;
+            }
+            long start = System.nanoTime();
+            http.sendAsync(request(), HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                long latency = System.nanoTime() - start;
+                if (measuring) {
+                    if (error != null || response.statusCode() >= 400) {
+                        state.errors.incrementAndGet();
+                    } else {
+                        state.record(latency);
+                    }
+                }
+                next(state, stopped);
+            });
+        }
+
+        private HttpRequest request() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            return switch (endpoint) {
+                case "list" -> HttpRequest.newBuilder(URI.create(baseUrl + "/list?page=" + random.nextInt(1, rows / 10 + 1) + "&size=10"))
+                        .timeout(Duration.ofSeconds(60))
+                        .GET()
+                        .build();
+                case "search" -> HttpRequest.newBuilder(URI.create(baseUrl + "/search"))
+                        .timeout(Duration.ofSeconds(60))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"initiatorRegion\":\"北京\",\"receiverRegion\":\"上海\",\"page\":" + random.nextInt(1, 101) + ",\"size\":10}"))
+                        .build();
+                case "detail" -> HttpRequest.newBuilder(URI.create(baseUrl + "/getCooperationDetails"))
+                        .timeout(Duration.ofSeconds(60))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(String.valueOf(random.nextInt(1, rows + 1))))
+                        .build();
+                default -> throw new IllegalArgumentException("未知的 endpoint: " + endpoint + " (可选 list、search、detail)");
+            };
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+
+    // 单个客户端的请求是串行的，回调之间通过 CompletableFuture 建立 happens-before，无需额外同步
+    private static final class ClientState {
+        private long[] latencies = new long[1024];
+        private int size;
+        private final AtomicLong errors = new AtomicLong();
+
+        private void record(long latency) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latency;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.shm.demo.cache;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 主题模糊搜索：三元组索引 vs LIKE '%关键字%' 全表扫描 (H2 MySQL 兼容模式)。
+ * <p>
+ * 运行：mvn -Pbenchmark verify -Djmh.args="CooperationThemeSearchBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CooperationThemeSearchBenchmark {
+
+    private static final String[] WORDS = {
+            "技术", "交流", "合作", "培训", "管理", "研发", "制造", "服务", "科技", "创新",
+            "数字", "智能", "物流", "能源", "医疗", "教育", "金融", "文化", "旅游", "农业",
+            "环保", "建设", "交通", "通信", "电子", "材料", "化工", "机械", "汽车", "航空",
+            "海洋", "生物", "软件", "数据", "安全", "质量", "标准", "人才", "市场", "品牌",
+            "产业", "园区", "港口", "电力", "水利", "钢铁", "纺织", "食品", "医药", "设计",
+            "咨询", "法律", "会展", "体育", "传媒", "出版", "艺术", "影视", "零售", "电商"
+    };
+
+    @Param({"1000000"})
+    public int rows;
+
+    // 4 个字符约匹配数百条；6 个字符只匹配少量记录
+    @Param({"智能物流", "软件数据安全"})
+    public String keyword;
+
+    private Connection connection;
+    private PreparedStatement likeStatement;
+    private CooperationThemeIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:theme_bench;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS cooperation");
+            ddl.execute("CREATE TABLE cooperation (id BIGINT PRIMARY KEY, cooperation_theme VARCHAR(20) NOT NULL, deleted TINYINT NOT NULL DEFAULT 0)");
+        }
+
+        index = new CooperationThemeIndex();
+        Random random = new Random(42);
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO cooperation (id, cooperation_theme, deleted) VALUES (?, ?, 0)")) {
+            for (long id = 1; id <= rows; id++) {
+                String theme = theme(random, id);
+                insert.setLong(1, id);
+                insert.setString(2, theme);
+                insert.addBatch();
+                index.put(id, theme);
+                if (id % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        index.markReady();
+
+        likeStatement = connection.prepareStatement("SELECT id FROM cooperation WHERE deleted = 0 AND cooperation_theme LIKE CONCAT('%', ?, '%')");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        likeStatement.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public List<Long> likeScan() throws SQLException {
+        likeStatement.setString(1, keyword);
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet rs = likeStatement.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    @Benchmark
+    public Set<Long> trigramIndex() {
+        return index.search(keyword);
+    }
+
+    // 三个随机词 + ID 后缀，保证主题唯一且不超过 20 个字符
+    private static String theme(Random random, long id) {
+        String theme = WORDS[random.nextInt(WORDS.length)]
+                + WORDS[random.nextInt(WORDS.length)]
+                + WORDS[random.nextInt(WORDS.length)]
+                + Long.toString(id, 36);
+        return theme.length() > 20 ? theme.substring(0, 20) : theme;
+    }
+}
@@ -0,0 +1,105 @@
+-- 基准测试使用的 H2 (MySQL 兼容模式) 表结构，列与索引与 db/migration 中的 MySQL 迁移脚本保持一致
+DROP TABLE IF EXISTS cooperation_region_stats;
+DROP TABLE IF EXISTS cooperation_job_type_stats;
+DROP TABLE IF EXISTS cooperation_archive;
+DROP TABLE IF EXISTS cooperation_personnel_archive;
+DROP TABLE IF EXISTS enterprise_archive;
+DROP TABLE IF EXISTS personnel_archive;
+DROP TABLE IF EXISTS cooperation_personnel;
+DROP TABLE IF EXISTS cooperation;
+DROP TABLE IF EXISTS personnel;
+DROP TABLE IF EXISTS enterprise;
+
+CREATE TABLE enterprise (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(20) NOT NULL,
+    cooperation_type VARCHAR(20) NOT NULL,
+    enterprise_type VARCHAR(20) NOT NULL,
+    region VARCHAR(10),
+    deleted TINYINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version INT NOT NULL DEFAULT 0
+);
+CREATE INDEX idx_enterprise_name ON enterprise (name);
+
+CREATE TABLE personnel (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(10) NOT NULL,
+    gender TINYINT NOT NULL,
+    age INT NOT NULL,
+    phone VARCHAR(11) NOT NULL,
+    education TINYINT NOT NULL,
+    start_work_date DATE NOT NULL,
+    enterprise_id BIGINT NOT NULL,
+    deleted TINYINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version INT NOT NULL DEFAULT 0
+);
+CREATE INDEX idx_personnel_phone ON personnel (phone);
+
+CREATE TABLE cooperation (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    cooperation_theme VARCHAR(20) NOT NULL,
+    initiator_region VARCHAR(10) NOT NULL,
+    receiver_region VARCHAR(10) NOT NULL,
+    cooperation_start_date DATE NOT NULL,
+    cooperation_end_date DATE NOT NULL,
+    personnel_count INT NOT NULL DEFAULT 0,
+    deleted TINYINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version INT NOT NULL DEFAULT 0,
+    active_theme VARCHAR(20) GENERATED ALWAYS AS (CASE WHEN deleted = 0 THEN cooperation_theme END)
+);
+CREATE INDEX idx_cooperation_deleted_created ON cooperation (deleted, created_at, id);
+CREATE INDEX idx_cooperation_region_created ON cooperation (initiator_region, receiver_region, deleted, created_at, id);
+CREATE UNIQUE INDEX uk_cooperation_active_theme ON cooperation (active_theme);
+
+CREATE TABLE cooperation_personnel (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    cooperation_id BIGINT NOT NULL,
+    sending_enterprise_id BIGINT NOT NULL,
+    personnel_id BIGINT NOT NULL,
+    cooperation_job_type VARCHAR(20) NOT NULL,
+    receiving_enterprise_id BIGINT NOT NULL,
+    personnel_start_date DATE NOT NULL,
+    personnel_end_date DATE NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX idx_cp_cooperation ON cooperation_personnel (cooperation_id);
+CREATE INDEX idx_cp_personnel_period ON cooperation_personnel (personnel_id, personnel_start_date, personnel_end_date);
+CREATE INDEX idx_cp_receiving_enterprise ON cooperation_personnel (receiving_enterprise_id);
+
+-- 归档表 (findRawById 会同时查询)
+CREATE TABLE cooperation_archive AS SELECT id, cooperation_theme, initiator_region, receiver_region, cooperation_start_date,
+    cooperation_end_date, personnel_count, deleted, created_at, updated_at FROM cooperation WITH NO DATA;
+CREATE TABLE cooperation_personnel_archive AS SELECT id, cooperation_id, sending_enterprise_id, personnel_id, cooperation_job_type,
+    receiving_enterprise_id, personnel_start_date, personnel_end_date, created_at, updated_at FROM cooperation_personnel WITH NO DATA;
+CREATE TABLE enterprise_archive AS SELECT id, name, cooperation_type, enterprise_type, region, deleted, created_at, updated_at
+    FROM enterprise WITH NO DATA;
+CREATE TABLE personnel_archive AS SELECT id, name, gender, age, phone, education, start_work_date, enterprise_id, deleted,
+    created_at, updated_at FROM personnel WITH NO DATA;
+
+-- 合作统计聚合表 (数据由 BenchmarkDataset 写入后按全量重建语句初始化)
+CREATE TABLE cooperation_region_stats (
+    initiator_region VARCHAR(10) NOT NULL,
+    receiver_region VARCHAR(10) NOT NULL,
+    slot TINYINT NOT NULL,
+    cooperation_count BIGINT NOT NULL DEFAULT 0,
+    personnel_count BIGINT NOT NULL DEFAULT 0,
+    person_days BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (initiator_region, receiver_region, slot)
+);
+CREATE TABLE cooperation_job_type_stats (
+    initiator_region VARCHAR(10) NOT NULL,
+    receiver_region VARCHAR(10) NOT NULL,
+    cooperation_job_type VARCHAR(20) NOT NULL,
+    slot TINYINT NOT NULL,
+    cooperation_count BIGINT NOT NULL DEFAULT 0,
+    personnel_count BIGINT NOT NULL DEFAULT 0,
+    person_days BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (initiator_region, receiver_region, cooperation_job_type, slot)
+);
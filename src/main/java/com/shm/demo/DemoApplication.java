@@ -3,9 +3,11 @@ package com.shm.demo;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = {"com.shm.demo"})
 @MapperScan("com.shm.demo.mapper")
+@EnableScheduling // 开启定时任务 (计数修复等后台作业)
 public class DemoApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,82 @@
+package com.shm.demo.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.shm.demo.dto.CacheStatsDTO;
+import com.shm.demo.dto.CooperationDetailDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * 合作详情 (CooperationDetailDTO) 的读穿透缓存，按合作 ID 缓存。
+ * <ul>
+ *     <li>按权重限制容量：每条详情的权重为 1 + 人员明细数量，人员多的合作占用更多额度；</li>
+ *     <li>写入后 TTL 过期，超出容量时按 W-TinyLFU (LRU 窗口 + LFU 主区) 淘汰；</li>
+ *     <li>合作、人员明细、被引用的企业或人员发生变更时由对应 Service 在事务提交后精确失效。</li>
+ * </ul>
+ * 同一 ID 并发未命中时只有一个线程加载，其余线程等待结果；加载过程中发生的失效会在加载完成后生效。
+ */
+@Component
+public class CooperationDetailCache {
+
+    private final Cache<Long, CooperationDetailDTO> cache;
+
+    @Autowired
+    public CooperationDetailCache(@Value("${cooperation.detail-cache.maximum-weight:100000}") long maximumWeight,
+                                  @Value("${cooperation.detail-cache.ttl:5m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((Long id, CooperationDetailDTO detail) ->
+                        1 + (detail.getPersonnelList() == null ? 0 : detail.getPersonnelList().size()))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 读取详情，未命中时调用 loader 加载并缓存 (loader 抛出的异常直接向上传播，不缓存)
+     */
+    public CooperationDetailDTO get(Long id, Function<Long, CooperationDetailDTO> loader) {
+        return cache.get(id, loader);
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            cache.invalidateAll(ids);
+        }
+    }
+
+    /**
+     * 供监控使用的底层缓存
+     */
+    public Cache<Long, CooperationDetailDTO> getNativeCache() {
+        return cache;
+    }
+
+    /**
+     * 命中、未命中和淘汰计数
+     */
+    public CacheStatsDTO stats() {
+        CacheStats stats = cache.stats();
+        CacheStatsDTO dto = new CacheStatsDTO();
+        dto.setHitCount(stats.hitCount());
+        dto.setMissCount(stats.missCount());
+        dto.setHitRate(stats.hitRate());
+        dto.setEvictionCount(stats.evictionCount());
+        dto.setEvictionWeight(stats.evictionWeight());
+        dto.setLoadFailureCount(stats.loadFailureCount());
+        dto.setEstimatedSize(cache.estimatedSize());
+        dto.setWeightedSize(cache.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L));
+        return dto;
+    }
+}
@@ -0,0 +1,309 @@
+package com.shm.demo.cache;
+
+import com.shm.demo.entity.Cooperation;
+import com.shm.demo.mapper.CooperationMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 合作主题的内存三元组 (trigram) 倒排索引，覆盖所有未删除的合作。
+ * <p>
+ * 主题模糊搜索原本使用 {@code cooperation_theme LIKE '%关键字%'}，无法利用 B-tree 索引，每次搜索都全表扫描。
+ * 本索引在启动时构建，由 CooperationServiceImpl 在新增、修改、删除提交后维护，并按 refresh-interval 定期全量重建，
+ * 兜底其他实例或直接修改数据库造成的不一致。关键字长度 >= 3 时取关键字所有三元组的倒排表求交集，再校验主题确实包含关键字。
+ * <p>
+ * 匹配与 MySQL 默认排序规则一致，不区分大小写。索引未就绪、关键字短于 3 个字符 (无法使用三元组，
+ * 中文主题常见) 或匹配数量超过阈值时返回 null，由调用方退回 LIKE 查询。
+ * 索引只包含本实例的写入和最近一次重建时的数据，没有命中不代表数据库中没有，调用方不应据此跳过查询。
+ * <p>
+ * 内存占用 (粗略)：主题不超过 20 个字符，每条合作约 18 个三元组，倒排表使用有序 long 数组，
+ * 每百万条合作约 150MB 倒排表 + 约 100MB 主题表；重建期间新旧两份索引同时存在。
+ */
+@Slf4j
+@Component
+public class CooperationThemeIndex {
+
+    private static final int GRAM = 3;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Entries entries = new Entries();
+    private Map<Long, String> writesDuringRebuild;  // 重建期间的写操作 (合作 ID -> 新主题，删除为 null)，非 null 表示正在重建
+    private volatile boolean ready;
+
+    @Autowired
+    private CooperationMapper cooperationMapper;
+
+    @Value("${cooperation.theme-index.enabled:true}")
+    private boolean enabled = true;
+
+    // 匹配结果超过该数量时不再使用索引 (IN 列表过长)，退回 LIKE 查询
+    @Value("${cooperation.theme-index.max-matches:1000}")
+    private int maxMatches = 1000;
+
+    /**
+     * 应用启动完成后在后台线程构建索引，构建完成前搜索自动退回 LIKE 查询
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpAsync() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::warmUp, "theme-index-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 定期全量重建，兜底其他实例或直接修改数据库造成的不一致
+     */
+    @Scheduled(initialDelayString = "${cooperation.theme-index.refresh-interval:10m}", fixedDelayString = "${cooperation.theme-index.refresh-interval:10m}")
+    public void refresh() {
+        if (enabled) {
+            warmUp();
+        }
+    }
+
+    /**
+     * 从数据库全量 (流式) 构建新索引，完成后替换当前索引；构建期间搜索继续使用当前索引，写操作同时记录并在替换前重放。
+     * 已有重建在进行时直接返回。
+     */
+    public void warmUp() {
+        lock.writeLock().lock();
+        try {
+            if (writesDuringRebuild != null) {
+                return;
+            }
+            writesDuringRebuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.currentTimeMillis();
+        Entries fresh = new Entries();
+        try {
+            cooperationMapper.scanActiveThemes(context -> {
+                Cooperation cooperation = context.getResultObject();
+                fresh.put(cooperation.getId(), cooperation.getCooperationTheme());
+            });
+            lock.writeLock().lock();
+            try {
+                // 扫描可能读到写操作之前的版本，以构建期间的写操作为准
+                writesDuringRebuild.forEach(fresh::put);
+                entries = fresh;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("合作主题索引构建完成，共 {} 条，耗时 {} ms", size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("合作主题索引构建失败，{}: {}", ready ? "继续使用上次构建的索引" : "主题搜索将使用 LIKE 查询", e.getMessage());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                writesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    void markReady() {
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.themes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 新增或更新合作主题 (应在事务提交后调用)
+     */
+    public void put(Long id, String theme) {
+        lock.writeLock().lock();
+        try {
+            entries.put(id, theme);
+            if (writesDuringRebuild != null) {
+                writesDuringRebuild.put(id, theme);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 移除已删除的合作 (应在事务提交后调用)
+     */
+    public void remove(Long id) {
+        put(id, null);
+    }
+
+    /**
+     * 查找主题包含关键字的未删除合作
+     * @param keyword 搜索关键字
+     * @return 匹配的合作 ID 集合 (可能为空)；索引不可用、关键字短于 3 个字符或匹配数量超过阈值时返回 null，调用方应退回 LIKE 查询
+     */
+    public Set<Long> search(String keyword) {
+        if (!ready || keyword == null) {
+            return null;
+        }
+        String needle = normalize(keyword);
+        if (needle.length() < GRAM) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            return lookup(needle);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<Long> lookup(String needle) {
+        Set<String> grams = trigrams(needle);
+        List<SortedLongSet> lists = new ArrayList<>(grams.size());
+        for (String gram : grams) {
+            SortedLongSet list = entries.postings.get(gram);
+            if (list == null) {
+                return Collections.emptySet();
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(SortedLongSet::size));
+
+        Set<Long> result = new HashSet<>();
+        SortedLongSet smallest = lists.get(0);
+        for (int i = 0; i < smallest.size(); i++) {
+            long id = smallest.get(i);
+            boolean inAll = true;
+            for (int j = 1; j < lists.size() && inAll; j++) {
+                inAll = lists.get(j).contains(id);
+            }
+            // 三元组全部命中只说明可能包含，仍需校验主题本身
+            if (inAll && entries.themes.get(id).contains(needle)) {
+                result.add(id);
+                if (result.size() > maxMatches) {
+                    return null;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 一份完整的索引数据：主题表和倒排表
+     */
+    private static final class Entries {
+        private final Map<Long, String> themes = new HashMap<>();             // 合作 ID -> 规范化后的主题
+        private final Map<String, SortedLongSet> postings = new HashMap<>();  // 三元组 -> 合作 ID 有序集合
+
+        // theme 为 null 时移除
+        void put(Long id, String theme) {
+            remove(id);
+            if (theme == null) {
+                return;
+            }
+            String normalized = normalize(theme);
+            themes.put(id, normalized);
+            for (String gram : trigrams(normalized)) {
+                postings.computeIfAbsent(gram, k -> new SortedLongSet()).add(id);
+            }
+        }
+
+        private void remove(Long id) {
+            String old = themes.remove(id);
+            if (old == null) {
+                return;
+            }
+            for (String gram : trigrams(old)) {
+                SortedLongSet list = postings.get(gram);
+                if (list != null) {
+                    list.remove(id);
+                    if (list.size() == 0) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    /**
+     * 紧凑的有序 long 集合，作为倒排表。合作 ID 自增，新增基本都是追加到末尾。
+     */
+    static final class SortedLongSet {
+        private long[] values = new long[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        long get(int index) {
+            return values[index];
+        }
+
+        boolean contains(long value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        void add(long value) {
+            if (size > 0 && values[size - 1] < value) {
+                ensureCapacity();
+                values[size++] = value;
+                return;
+            }
+            int pos = Arrays.binarySearch(values, 0, size, value);
+            if (pos >= 0) {
+                return;
+            }
+            int insertAt = -pos - 1;
+            ensureCapacity();
+            System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+            values[insertAt] = value;
+            size++;
+        }
+
+        void remove(long value) {
+            int pos = Arrays.binarySearch(values, 0, size, value);
+            if (pos < 0) {
+                return;
+            }
+            System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+            size--;
+        }
+
+        private void ensureCapacity() {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size + (size >> 1) + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.shm.demo.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shm.demo.dto.SearchCooperationRequest;
+import com.shm.demo.dto.TotalMode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * 合作列表 / 搜索的总记录数缓存，按规范化后的搜索条件作为键。
+ * <ul>
+ *     <li>精确缓存：任何合作写操作提交后整体失效，TTL 只用于兜底 (例如其他节点的写入)；</li>
+ *     <li>估算缓存：写操作不失效，在较长的 TTL 内容忍旧值，供 totalMode=estimated 使用。</li>
+ * </ul>
+ */
+@Component
+public class CooperationTotalsCache {
+
+    /**
+     * 总记录数及其实际的计算方式
+     */
+    public record Total(long value, TotalMode mode) {
+    }
+
+    private static final String ALL_KEY = "all";
+
+    private final Cache<String, Long> exactTotals;
+    private final Cache<String, Long> estimatedTotals;
+
+    @Autowired
+    public CooperationTotalsCache(@Value("${cooperation.totals-cache.maximum-size:1000}") long maximumSize,
+                                  @Value("${cooperation.totals-cache.exact-ttl:30s}") Duration exactTtl,
+                                  @Value("${cooperation.totals-cache.estimated-ttl:5m}") Duration estimatedTtl) {
+        this.exactTotals = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(exactTtl).build();
+        this.estimatedTotals = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(estimatedTtl).build();
+    }
+
+    /**
+     * 获取总记录数
+     * @param criteria 搜索条件，列表查询传 null
+     * @param mode     计算方式，NONE 时返回 null 且不访问数据库
+     * @param counter  缓存未命中时执行的精确计数查询
+     * @return 总记录数及实际使用的计算方式 (估算请求在没有可用旧值时会退化为精确计算)
+     */
+    public Total getTotal(SearchCooperationRequest criteria, TotalMode mode, LongSupplier counter) {
+        if (mode == TotalMode.NONE) {
+            return null;
+        }
+        String key = keyOf(criteria);
+        if (mode == TotalMode.ESTIMATED) {
+            Long estimated = estimatedTotals.getIfPresent(key);
+            if (estimated != null) {
+                return new Total(estimated, TotalMode.ESTIMATED);
+            }
+        }
+        long exact = exactTotals.get(key, k -> counter.getAsLong());
+        estimatedTotals.put(key, exact);
+        return new Total(exact, TotalMode.EXACT);
+    }
+
+    /**
+     * 合作数据发生变化时失效全部精确总数 (应在事务提交后调用)
+     */
+    public void invalidate() {
+        exactTotals.invalidateAll();
+    }
+
+    // 规范化搜索条件：null 与空字符串都视为未设置 (与 Mapper 中的动态条件一致)；没有任何条件的搜索与列表共用同一个键
+    private String keyOf(SearchCooperationRequest criteria) {
+        if (criteria == null) {
+            return ALL_KEY;
+        }
+        String theme = nullToEmpty(criteria.getCooperationTheme());
+        String initiator = nullToEmpty(criteria.getInitiatorRegion());
+        String receiver = nullToEmpty(criteria.getReceiverRegion());
+        if (theme.isEmpty() && initiator.isEmpty() && receiver.isEmpty()) {
+            return ALL_KEY;
+        }
+        return "search|" + theme.length() + ":" + theme + "|" + initiator + "|" + receiver;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,371 @@
+package com.shm.demo.cache;
+
+import com.shm.demo.dto.CooperationPersonnelRequest;
+import com.shm.demo.entity.CooperationPersonnel;
+import com.shm.demo.mapper.CooperationPersonnelMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 未删除合作的人员时段内存索引，就绪后直接回答新增/修改合作时的人员时间重叠检查，不再查询数据库。
+ * <p>
+ * 索引只反映本实例的写操作，因此只能在单实例部署 (只有一个应用实例写入合作数据，且不直接修改数据库) 时开启
+ * (cooperation.assignment-index.enabled=true，默认关闭)；多实例部署时保持关闭，重叠检查始终使用 SQL。
+ * 以下情况返回 null，由调用方退回 SQL 查询：未开启、启动后尚未构建完成、当前事务中已有尚未提交的合作写入
+ * (索引在提交后才更新，只有数据库能看到本事务的写入，如批量导入的后续记录)。
+ * <p>
+ * 每个人员的时段保存为按开始日期排序的原始数组 (日期以 epoch day 的 int 表示)，并附带前缀最大结束日期：
+ * 查询 [s, e] 时二分找到最后一个开始日期 &lt;= e 的位置，向前扫描到前缀最大结束日期 &lt; s 为止，
+ * 重叠判定与 SQL 一致 (现有结束 >= 新开始 且 现有开始 <= 新结束)。
+ * <p>
+ * 启动时在后台从数据库流式构建，由 CooperationServiceImpl 在新增、修改、删除提交后维护。
+ * 提交后的维护在人员锁释放之前执行 (afterCommit 先于 afterCompletion，PersonnelLocks 的进程内分段锁持有到 afterCompletion)，
+ * 因此等待同一人员锁的下一个请求一定能看到本次写入。
+ * <p>
+ * 内存占用 (粗略，64 位 JVM 开启压缩指针)：每条人员明细 20 字节 (开始、结束、前缀最大结束各 4 字节 + 合作 ID 8 字节)，
+ * 数组按 1.5 倍扩容，平均约 25 字节；每名人员约 150 字节 (HashMap 条目、Long 键、数组头)；
+ * 每条合作约 100 字节 (反查表)。每百万条明细 (50 万合作、5 万人员) 合计约 25 + 7.5 + 50 ≈ 83MB (估算值)。
+ */
+@Slf4j
+@Component
+public class PersonnelAssignmentIndex {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Intervals> byPersonnel = new HashMap<>();      // 人员 ID -> 时段
+    private final Map<Long, long[]> personnelByCooperation = new HashMap<>(); // 合作 ID -> 涉及的人员 ID (删除、修改时定位)
+    private final Set<Long> touchedDuringWarmUp = new HashSet<>();          // 构建期间已被写操作更新过的合作 ID，构建时跳过
+    private boolean warmingUp;
+    private long assignments;
+    private volatile boolean ready;
+
+    @Autowired
+    private CooperationPersonnelMapper cooperationPersonnelMapper;
+
+    @Value("${cooperation.assignment-index.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 应用启动完成后在后台线程构建索引，构建完成前重叠检查使用 SQL
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpAsync() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::warmUp, "assignment-index-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 从数据库全量 (流式) 构建索引
+     */
+    public void warmUp() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            warmingUp = true;
+            touchedDuringWarmUp.clear();
+            byPersonnel.clear();
+            personnelByCooperation.clear();
+            assignments = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            cooperationPersonnelMapper.scanActiveAssignments(context -> {
+                CooperationPersonnel row = context.getResultObject();
+                lock.writeLock().lock();
+                try {
+                    if (!touchedDuringWarmUp.contains(row.getCooperationId())) {
+                        addInternal(row.getCooperationId(), row.getPersonnelId(),
+                                toDay(row.getPersonnelStartDate()), toDay(row.getPersonnelEndDate()));
+                        long[] personnel = personnelByCooperation.get(row.getCooperationId());
+                        personnelByCooperation.put(row.getCooperationId(), appendDistinct(personnel, row.getPersonnelId()));
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            });
+            ready = true;
+            log.info("人员时段索引构建完成，共 {} 条明细、{} 名人员，耗时 {} ms", size(), personnelCount(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("人员时段索引构建失败，重叠检查将使用 SQL 查询: {}", e.getMessage());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                warmingUp = false;
+                touchedDuringWarmUp.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return assignments;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int personnelCount() {
+        lock.readLock().lock();
+        try {
+            return byPersonnel.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 用合作当前的人员明细替换索引中的旧时段 (新增或修改合作，应在事务提交后调用)
+     */
+    public void put(Long cooperationId, List<CooperationPersonnelRequest> items) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (warmingUp) {
+                touchedDuringWarmUp.add(cooperationId);
+            }
+            removeInternal(cooperationId);
+            long[] personnel = null;
+            for (CooperationPersonnelRequest item : items) {
+                addInternal(cooperationId, item.getPersonnelId(),
+                        toDay(item.getPersonnelStartDate()), toDay(item.getPersonnelEndDate()));
+                personnel = appendDistinct(personnel, item.getPersonnelId());
+            }
+            if (personnel != null) {
+                personnelByCooperation.put(cooperationId, personnel);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 移除已删除合作的全部时段 (应在事务提交后调用)
+     */
+    public void remove(Long cooperationId) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (warmingUp) {
+                touchedDuringWarmUp.add(cooperationId);
+            }
+            removeInternal(cooperationId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 记录当前事务写入了合作人员明细 (应在写入时调用)，事务结束前的重叠检查改为查询数据库
+     */
+    public void markUncommittedWrite() {
+        if (!enabled || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PersonnelAssignmentIndex.this);
+            }
+        });
+    }
+
+    /**
+     * 查找与请求中人员时段重叠的现有明细，语义与 CooperationPersonnelMapper.findOverlappingAssignmentsBatch 相同
+     * @param items 待检查的人员时间段
+     * @param excludedCooperationId 要排除的合作ID (更新场景)，新增场景传 null
+     * @return 重叠的现有明细 (只填充 cooperationId、personnelId、起止日期)，即检查结果；
+     *         索引未开启、未就绪或当前事务有未提交的合作写入时返回 null，调用方应退回 SQL 查询
+     */
+    public List<CooperationPersonnel> findOverlapping(List<CooperationPersonnelRequest> items, Long excludedCooperationId) {
+        if (!enabled || !ready || TransactionSynchronizationManager.hasResource(this)) {
+            return null;
+        }
+        long excluded = excludedCooperationId == null ? Long.MIN_VALUE : excludedCooperationId;
+        Map<Long, List<CooperationPersonnelRequest>> itemsByPersonnel = new LinkedHashMap<>();
+        for (CooperationPersonnelRequest item : items) {
+            itemsByPersonnel.computeIfAbsent(item.getPersonnelId(), k -> new ArrayList<>()).add(item);
+        }
+        List<CooperationPersonnel> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<Long, List<CooperationPersonnelRequest>> entry : itemsByPersonnel.entrySet()) {
+                Intervals intervals = byPersonnel.get(entry.getKey());
+                if (intervals != null) {
+                    intervals.collectOverlapping(entry.getKey(), entry.getValue(), excluded, result);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    private void addInternal(long cooperationId, long personnelId, int start, int end) {
+        byPersonnel.computeIfAbsent(personnelId, k -> new Intervals()).add(start, end, cooperationId);
+        assignments++;
+    }
+
+    private void removeInternal(Long cooperationId) {
+        long[] personnel = personnelByCooperation.remove(cooperationId);
+        if (personnel == null) {
+            return;
+        }
+        for (long personnelId : personnel) {
+            Intervals intervals = byPersonnel.get(personnelId);
+            if (intervals != null) {
+                assignments -= intervals.removeCooperation(cooperationId);
+                if (intervals.size == 0) {
+                    byPersonnel.remove(personnelId);
+                }
+            }
+        }
+    }
+
+    private static long[] appendDistinct(long[] values, long value) {
+        if (values == null) {
+            return new long[]{value};
+        }
+        for (long v : values) {
+            if (v == value) {
+                return values;
+            }
+        }
+        long[] grown = Arrays.copyOf(values, values.length + 1);
+        grown[values.length] = value;
+        return grown;
+    }
+
+    private static int toDay(LocalDate date) {
+        return (int) date.toEpochDay();
+    }
+
+    /**
+     * 单个人员的时段：按开始日期排序的并列数组，maxEnds[i] 为 ends[0..i] 的最大值
+     */
+    static final class Intervals {
+        private int[] starts = new int[2];
+        private int[] ends = new int[2];
+        private int[] maxEnds = new int[2];
+        private long[] cooperationIds = new long[2];
+        private int size;
+
+        void add(int start, int end, long cooperationId) {
+            if (size == starts.length) {
+                int capacity = size + (size >> 1) + 1;
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                maxEnds = Arrays.copyOf(maxEnds, capacity);
+                cooperationIds = Arrays.copyOf(cooperationIds, capacity);
+            }
+            int insertAt = upperBound(start);
+            int tail = size - insertAt;
+            System.arraycopy(starts, insertAt, starts, insertAt + 1, tail);
+            System.arraycopy(ends, insertAt, ends, insertAt + 1, tail);
+            System.arraycopy(cooperationIds, insertAt, cooperationIds, insertAt + 1, tail);
+            starts[insertAt] = start;
+            ends[insertAt] = end;
+            cooperationIds[insertAt] = cooperationId;
+            size++;
+            recomputeMaxEnds(insertAt);
+        }
+
+        // 删除该合作的全部时段，返回删除条数
+        int removeCooperation(long cooperationId) {
+            int kept = 0;
+            int firstChanged = -1;
+            for (int i = 0; i < size; i++) {
+                if (cooperationIds[i] == cooperationId) {
+                    if (firstChanged < 0) {
+                        firstChanged = i;
+                    }
+                    continue;
+                }
+                starts[kept] = starts[i];
+                ends[kept] = ends[i];
+                cooperationIds[kept] = cooperationIds[i];
+                kept++;
+            }
+            int removed = size - kept;
+            size = kept;
+            if (removed > 0) {
+                recomputeMaxEnds(firstChanged);
+            }
+            return removed;
+        }
+
+        // 同一条现有时段可能与请求中该人员的多条时段重叠，只返回一次 (与 SQL 结果一致)
+        void collectOverlapping(long personnelId, List<CooperationPersonnelRequest> items, long excludedCooperationId,
+                                List<CooperationPersonnel> result) {
+            BitSet hits = new BitSet(size);
+            for (CooperationPersonnelRequest item : items) {
+                int start = toDay(item.getPersonnelStartDate());
+                // 开始日期 <= 新结束的时段都在 [0, upperBound) 内；从后向前，前缀最大结束日期 < 新开始时更早的时段都不可能重叠
+                for (int i = upperBound(toDay(item.getPersonnelEndDate())) - 1; i >= 0 && maxEnds[i] >= start; i--) {
+                    if (ends[i] >= start && cooperationIds[i] != excludedCooperationId) {
+                        hits.set(i);
+                    }
+                }
+            }
+            for (int i = hits.nextSetBit(0); i >= 0; i = hits.nextSetBit(i + 1)) {
+                CooperationPersonnel existing = new CooperationPersonnel();
+                existing.setCooperationId(cooperationIds[i]);
+                existing.setPersonnelId(personnelId);
+                existing.setPersonnelStartDate(LocalDate.ofEpochDay(starts[i]));
+                existing.setPersonnelEndDate(LocalDate.ofEpochDay(ends[i]));
+                result.add(existing);
+            }
+        }
+
+        // 第一个开始日期 > value 的位置
+        private int upperBound(int value) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] <= value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void recomputeMaxEnds(int from) {
+            int max = from == 0 ? Integer.MIN_VALUE : maxEnds[from - 1];
+            for (int i = from; i < size; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnds[i] = max;
+            }
+        }
+    }
+}
@@ -3,17 +3,23 @@ package com.shm.demo.controller;
 import com.shm.demo.dto.*; // 引入 DTO 包
 // --- 新增导入 ---
 import com.shm.demo.exception.ResourceNotFoundException; // 导入自定义异常
+import com.shm.demo.exception.OptimisticLockConflictException;
 import java.util.List; // 导入 List
 // --- 结束新增导入 ---
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.shm.demo.entity.Cooperation;
+import com.shm.demo.importer.CooperationImportReader;
 import com.shm.demo.service.CooperationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.io.InputStream;
 // 移除未使用的 NotNull 导入 (如果确实未使用)
 // import javax.validation.constraints.NotNull;
 
@@ -25,10 +31,13 @@ public class CooperationController {
     @Autowired
     private CooperationService cooperationService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * 添加合作信息接口
      * @param request 包含合作主体和人员列表的请求 DTO
-     * @return 成功时返回创建的合作信息 (HTTP 201)，失败时返回错误信息 (HTTP 400 或 500)
+     * @return 成功时返回创建的合作信息 (HTTP 201)，失败时返回错误信息 (HTTP 400、409 或 500)
      */
     @PostMapping("/add")
     public ResponseEntity<?> addCooperation(@Valid @RequestBody CreateCooperationRequest request) {
@@ -37,22 +46,58 @@ public class CooperationController {
             return ResponseEntity.status(HttpStatus.CREATED).body(createdCooperation);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (PessimisticLockingFailureException e) { // 等待人员锁超时或数据库死锁，可重试
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("涉及的人员正在被其他操作修改，请稍后重试");
         } catch (Exception e) {
             // log.error("Error adding cooperation", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("添加合作信息时发生内部错误");
         }
     }
 
+    /**
+     * 批量导入合作信息接口 (POST /api/cooperations/import)
+     * 请求体为流式读取的 NDJSON (每行一个 CreateCooperationRequest) 或 CSV (每行一条人员明细，连续且主题相同的行组成一条合作)
+     * @param body 请求体
+     * @param contentType 请求体类型，未指定 format 时 text/csv 按 CSV 解析，其余按 NDJSON 解析
+     * @param format 导入格式：ndjson 或 csv
+     * @param chunkSize 每批记录数 (可选)
+     * @param commitMode 提交方式：all (默认，任意记录失败则全部回滚) 或 chunk (按批次提交，跳过失败记录)
+     * @return 每条记录的处理结果报告 (HTTP 200)，参数或格式错误时返回 400
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importCooperations(InputStream body,
+                                                @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                                @RequestParam(required = false) String format,
+                                                @RequestParam(required = false) Integer chunkSize,
+                                                @RequestParam(required = false) String commitMode) {
+        try {
+            ImportCommitMode mode = ImportCommitMode.fromValue(commitMode);
+            CooperationImportReader reader = new CooperationImportReader(body, CooperationImportReader.resolveFormat(format, contentType), objectMapper);
+            return ResponseEntity.ok(cooperationService.importCooperations(reader, chunkSize, mode));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (PessimisticLockingFailureException e) { // 等待人员锁超时或数据库死锁，可重试
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("涉及的人员正在被其他操作修改，请稍后重试");
+        } catch (Exception e) {
+            // log.error("Error importing cooperations", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("批量导入合作信息时发生内部错误");
+        }
+    }
+
     @PostMapping("/updateCooperation")
     public ResponseEntity<?> updateCooperation(@Valid @RequestBody UpdateCooperationRequest request) {
         try {
             Cooperation updatedCooperation = cooperationService.updateCooperation(request);
             return ResponseEntity.ok(updatedCooperation);
+        } catch (OptimisticLockConflictException e) { // 提交的版本号已过期
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (IllegalArgumentException e) {
              if (e.getMessage().contains("未找到") || e.getMessage().contains("已被删除")) {
                  return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
              }
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (PessimisticLockingFailureException e) { // 等待人员锁超时或数据库死锁，可重试
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("涉及的人员正在被其他操作修改，请稍后重试");
         } catch (Exception e) {
             // log.error("Error updating cooperation with id: {}", request.getId(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("修改合作信息时发生内部错误");
@@ -63,7 +108,8 @@ public class CooperationController {
     // --- 新增获取合作列表接口 ---
     /**
      * 获取合作信息列表 (分页)
-     * @param paginationRequest 包含页码 (page) 和每页数量 (size) 的查询参数
+     * @param paginationRequest 包含页码 (page) 和每页数量 (size) 的查询参数；
+     *                          传入 cursorMode=true 或上一页的 cursor 时使用游标分页，响应中的 nextCursor 用于获取下一页
      * @return 分页后的合作信息列表
      */
     @GetMapping("/list") // 使用 GET 请求获取列表
@@ -71,6 +117,8 @@ public class CooperationController {
         try {
             PageResponse<CooperationListItemDTO> pageResponse = cooperationService.listCooperations(paginationRequest);
             return ResponseEntity.ok(pageResponse); // 返回 200 OK 和分页结果
+        } catch (IllegalArgumentException e) { // 例如无效的分页游标
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             // log.error("Error listing cooperations", e); // 建议记录日志
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("获取合作列表时发生内部错误");
@@ -81,7 +129,7 @@ public class CooperationController {
     // --- 新增搜索合作信息接口 ---
     /**
      * 根据条件搜索合作信息列表 (分页)
-     * @param request 包含搜索条件 (cooperationTheme, initiatorRegion, receiverRegion) 和分页参数 (page, size) 的请求体
+     * @param request 包含搜索条件 (cooperationTheme, initiatorRegion, receiverRegion) 和分页参数 (page, size 或 cursorMode/cursor) 的请求体
      * @return 分页后的符合条件的合作信息列表
      */
     @PostMapping("/search") // 使用 POST 请求，将搜索条件放在请求体中
@@ -89,6 +137,8 @@ public class CooperationController {
         try {
             PageResponse<CooperationListItemDTO> pageResponse = cooperationService.searchCooperations(request);
             return ResponseEntity.ok(pageResponse); // 返回 200 OK 和分页结果
+        } catch (IllegalArgumentException e) { // 例如无效的分页游标
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             // log.error("Error searching cooperations", e); // 建议记录日志
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("搜索合作列表时发生内部错误");
@@ -119,6 +169,48 @@ public class CooperationController {
     // --- 结束新增获取合作详情接口 ---
 
 
+    /**
+     * 合作统计接口 (GET /api/cooperations/stats)：按地区对、地区对 + 合作类型、合作类型统计合作数、人次和人天
+     * @return 统计报表 (HTTP 200)
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<?> getCooperationStats() {
+        try {
+            return ResponseEntity.ok(cooperationService.getCooperationStats());
+        } catch (Exception e) {
+            // log.error("Error getting cooperation stats", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("获取合作统计时发生内部错误");
+        }
+    }
+
+    /**
+     * 查询人员空闲时段接口 (POST /api/cooperations/availability)
+     * 空闲时段内的任意区间作为合作人员时段提交时都不会与现有合作重叠，无需反复调用 /add 试探
+     * @param request 人员 ID 列表或企业 ID (二选一)、查询区间及最短空闲天数 (可选)
+     * @return 每个人员的空闲时段 (HTTP 200)，参数无效时返回 400
+     */
+    @PostMapping("/availability")
+    public ResponseEntity<?> getPersonnelAvailability(@Valid @RequestBody AvailabilityRequest request) {
+        try {
+            return ResponseEntity.ok(cooperationService.getPersonnelAvailability(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            // log.error("Error querying personnel availability", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("查询人员空闲时段时发生内部错误");
+        }
+    }
+
+    /**
+     * 获取合作详情缓存的统计信息 (命中、未命中、淘汰次数等)
+     * @return 缓存统计信息 (HTTP 200)
+     */
+    @GetMapping("/detailCacheStats")
+    public ResponseEntity<CacheStatsDTO> getDetailCacheStats() {
+        return ResponseEntity.ok(cooperationService.getDetailCacheStats());
+    }
+
+
     // --- 新增单个删除合作信息接口 ---
     /**
      * 根据 ID 逻辑删除单个合作信息
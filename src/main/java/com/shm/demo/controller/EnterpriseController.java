@@ -1,19 +1,23 @@
 package com.shm.demo.controller;
 
 import com.github.pagehelper.PageInfo; // 引入 PageInfo
+import com.shm.demo.convert.EnterpriseConverter;
+import com.shm.demo.dto.EnterpriseRequest;
 import com.shm.demo.dto.SearchEnterpriseRequest; // 引入请求 DTO
 import com.shm.demo.entity.Enterprise;
+import com.shm.demo.exception.OptimisticLockConflictException;
 import com.shm.demo.service.EnterpriseService;
+import com.shm.demo.util.JsonStreamWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid; // 注意：Spring Boot 3 使用 jakarta.validation
-import javax.validation.constraints.NotBlank;
-import javax.validation.constraints.NotNull;
-import javax.validation.constraints.Size;
 import java.util.List;
 
 @RestController
@@ -24,17 +28,19 @@ public class EnterpriseController {
     @Autowired
     private EnterpriseService enterpriseService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EnterpriseConverter enterpriseConverter;
+
     // ... EnterpriseRequest DTO, createEnterprise, getAllEnterprises, getEnterpriseById, updateEnterprise, deleteEnterprise 方法不变 ...
     // ... POST /api/enterprises/add (createEnterprise) ...
     @PostMapping("/add")
     public ResponseEntity<?> createEnterprise(@Valid @RequestBody EnterpriseRequest request) {
         // ... (代码不变) ...
         try {
-            Enterprise enterprise = new Enterprise();
-            enterprise.setName(request.getName());
-            enterprise.setCooperationType(request.getCooperationType());
-            enterprise.setEnterpriseType(request.getEnterpriseType());
-            enterprise.setRegion(request.getRegion());
+            Enterprise enterprise = enterpriseConverter.toNewEntity(request);
 
             Enterprise createdEnterprise = enterpriseService.addEnterprise(enterprise);
             return ResponseEntity.status(HttpStatus.CREATED).body(createdEnterprise);
@@ -54,6 +60,30 @@ public class EnterpriseController {
         return ResponseEntity.ok(enterprises);
     }
 
+    /**
+     * 流式导出所有企业 (GET /api/enterprises/exportAll?format=ndjson|json)
+     * 逐行读取并写出，内存占用与企业数量无关
+     * @param format 导出格式：ndjson (默认，每行一个 JSON 对象) 或 json (JSON 数组)
+     */
+    @GetMapping("/exportAll")
+    public ResponseEntity<?> exportAllEnterprises(@RequestParam(required = false) String format) {
+        String resolvedFormat;
+        try {
+            resolvedFormat = JsonStreamWriter.resolveFormat(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        StreamingResponseBody body = out -> {
+            try (JsonStreamWriter writer = new JsonStreamWriter(objectMapper, out, resolvedFormat)) {
+                enterpriseService.streamAllEnterprises(writer::write);
+                writer.finish();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(JsonStreamWriter.contentType(resolvedFormat)))
+                .body(body);
+    }
+
     // ... POST /api/enterprises/getId (getEnterpriseById) ...
      @PostMapping("/getId")
     public ResponseEntity<?> getEnterpriseById(@RequestBody Long id) {
@@ -88,18 +118,14 @@ public class EnterpriseController {
             //      return ResponseEntity.status(HttpStatus.NOT_FOUND).body("未找到ID为 " + id + " 的企业或已被删除");
             // }
 
-            // 创建要更新的对象
-            Enterprise enterpriseToUpdate = new Enterprise();
-            // 设置从 request 获取的 ID 和其他属性
-            enterpriseToUpdate.setId(id);
-            enterpriseToUpdate.setName(request.getName());
-            enterpriseToUpdate.setCooperationType(request.getCooperationType());
-            enterpriseToUpdate.setEnterpriseType(request.getEnterpriseType());
-            enterpriseToUpdate.setRegion(request.getRegion());
+            // 创建要更新的对象 (包含 request 中的 ID、版本号和其他属性)
+            Enterprise enterpriseToUpdate = enterpriseConverter.toEntity(request);
 
             // 调用 Service 层执行更新
             Enterprise updatedEnterprise = enterpriseService.updateEnterprise(enterpriseToUpdate);
             return ResponseEntity.ok(updatedEnterprise);
+        } catch (OptimisticLockConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (IllegalArgumentException e) {
             // Service 层抛出的异常 (包括校验失败、找不到等)
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -151,24 +177,4 @@ public class EnterpriseController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("搜索企业时发生内部错误");
         }
     }
-
-    // --- DTO for Request Body ---
-    @lombok.Data
-    static class EnterpriseRequest {
-        // @NotNull(message = "更新时ID不能为空") // 更新时 ID 从路径获取更符合 RESTful
-        private Long id; // ID 字段保留，用于从 RequestBody 接收
-
-        @NotBlank(message = "企业名称不能为空")
-        @Size(max = 20, message = "企业名称不能超过20个字符")
-        private String name;
-
-        @NotNull(message = "合作类型不能为空")
-        private com.shm.demo.entity.CooperationType cooperationType;
-
-        @NotNull(message = "企业类型不能为空")
-        private com.shm.demo.entity.EnterpriseType enterpriseType;
-
-        // 地区可以为空，但如果提供，Service 层会校验
-        private String region;
-    }
-}
\ No newline at end of file
+}
@@ -1,20 +1,30 @@
 package com.shm.demo.controller;
 
 import com.github.pagehelper.PageInfo; // 引入 PageInfo
+import com.shm.demo.convert.PersonnelConverter;
 import com.shm.demo.dto.CreatePersonnelRequest;
+import com.shm.demo.dto.ImportCommitMode;
 import com.shm.demo.dto.PersonnelResponse;
 import com.shm.demo.dto.SearchPersonnelRequest; // 引入请求 DTO
 import com.shm.demo.dto.UpdatePersonnelRequest;
 import com.shm.demo.entity.Personnel;
+import com.shm.demo.exception.OptimisticLockConflictException;
+import com.shm.demo.importer.PersonnelImportReader;
 import com.shm.demo.service.PersonnelService;
+import com.shm.demo.util.JsonStreamWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import javax.validation.Valid; // 使用 jakarta.validation
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -26,12 +36,17 @@ public class PersonnelController {
     @Autowired
     private PersonnelService personnelService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PersonnelConverter personnelConverter;
+
     // 创建人员
     @PostMapping("/add") // 保持和 EnterpriseController 风格一致
     public ResponseEntity<?> createPersonnel(@Valid @RequestBody CreatePersonnelRequest request) {
         try {
-            Personnel personnel = new Personnel();
-            BeanUtils.copyProperties(request, personnel); // DTO -> Entity
+            Personnel personnel = personnelConverter.toEntity(request); // DTO -> Entity
             Personnel createdPersonnel = personnelService.addPersonnel(personnel);
             return ResponseEntity.status(HttpStatus.CREATED).body(PersonnelResponse.fromEntity(createdPersonnel)); // Entity -> DTO
         } catch (IllegalArgumentException e) {
@@ -42,6 +57,26 @@ public class PersonnelController {
         }
     }
 
+    // 批量导入人员 (请求体为流式读取的 NDJSON 或 CSV)
+    // commitMode=all (默认) 任意记录失败则全部回滚；commitMode=chunk 按批次提交，跳过失败记录
+    @PostMapping("/import")
+    public ResponseEntity<?> importPersonnel(InputStream body,
+                                             @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                             @RequestParam(required = false) String format,
+                                             @RequestParam(required = false) Integer chunkSize,
+                                             @RequestParam(required = false) String commitMode) {
+        try {
+            ImportCommitMode mode = ImportCommitMode.fromValue(commitMode);
+            PersonnelImportReader reader = new PersonnelImportReader(body, PersonnelImportReader.resolveFormat(format, contentType), objectMapper);
+            return ResponseEntity.ok(personnelService.importPersonnel(reader, chunkSize, mode));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            // log.error("Error importing personnel", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("批量导入人员时发生内部错误");
+        }
+    }
+
     // 根据ID获取人员信息
     @PostMapping("/getId") // 保持风格一致，使用 POST + RequestBody 传 ID
     public ResponseEntity<?> getPersonnelById(@RequestBody Long id) {
@@ -71,14 +106,36 @@ public class PersonnelController {
         }
     }
 
+    // 流式导出所有人员 (format=ndjson 默认每行一个 JSON 对象，format=json 为 JSON 数组)
+    // 逐行读取并写出，内存占用与人员数量无关；写出开始后发生的错误只能中断响应
+    @GetMapping("/exportAll")
+    public ResponseEntity<?> exportAllPersonnel(@RequestParam(required = false) String format) {
+        String resolvedFormat;
+        try {
+            resolvedFormat = JsonStreamWriter.resolveFormat(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        StreamingResponseBody body = out -> {
+            try (JsonStreamWriter writer = new JsonStreamWriter(objectMapper, out, resolvedFormat)) {
+                personnelService.streamAllPersonnel(personnel -> writer.write(PersonnelResponse.fromEntity(personnel)));
+                writer.finish();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(JsonStreamWriter.contentType(resolvedFormat)))
+                .body(body);
+    }
+
     // 更新人员信息
     @PostMapping("/updateDataId") // 保持风格一致
     public ResponseEntity<?> updatePersonnel(@Valid @RequestBody UpdatePersonnelRequest request) {
         try {
-            Personnel personnelToUpdate = new Personnel();
-            BeanUtils.copyProperties(request, personnelToUpdate); // DTO -> Entity
+            Personnel personnelToUpdate = personnelConverter.toEntity(request); // DTO -> Entity
             Personnel updatedPersonnel = personnelService.updatePersonnel(personnelToUpdate);
             return ResponseEntity.ok(PersonnelResponse.fromEntity(updatedPersonnel)); // Entity -> DTO
+        } catch (OptimisticLockConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage()); // 包括 Not Found 或 Validation 错误
         } catch (Exception e) {
@@ -0,0 +1,48 @@
+package com.shm.demo.convert;
+
+import com.shm.demo.dto.CooperationDetailDTO;
+import com.shm.demo.dto.CooperationPersonnelDetailDTO;
+import com.shm.demo.dto.CooperationPersonnelRequest;
+import com.shm.demo.dto.CreateCooperationRequest;
+import com.shm.demo.dto.UpdateCooperationRequest;
+import com.shm.demo.entity.Cooperation;
+import com.shm.demo.entity.CooperationPersonnel;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+/**
+ * 合作相关 DTO 与实体之间的转换，由 MapStruct 在编译期生成实现 (普通 getter/setter 调用，不使用反射)。
+ * 目标对象中未映射的属性会导致编译失败，新增字段时必须在这里显式映射或忽略。
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface CooperationConverter {
+
+    // 人员数量、删除标记由 Service 设置，ID、时间戳和版本号由数据库生成
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "personnelCount", ignore = true)
+    @Mapping(target = "deleted", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    Cooperation toEntity(CreateCooperationRequest request);
+
+    // id 和 version (可选) 来自请求，用于条件更新
+    @Mapping(target = "personnelCount", ignore = true)
+    @Mapping(target = "deleted", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    Cooperation toEntity(UpdateCooperationRequest request);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    CooperationPersonnel toEntity(CooperationPersonnelRequest request, Long cooperationId);
+
+    // 详情中的人员数量以实际查询到的明细数量为准
+    @Mapping(target = "personnelCount", expression = "java(personnelList.size())")
+    CooperationDetailDTO toDetail(Cooperation cooperation, List<CooperationPersonnelDetailDTO> personnelList);
+}
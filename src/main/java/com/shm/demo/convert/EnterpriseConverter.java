@@ -0,0 +1,27 @@
+package com.shm.demo.convert;
+
+import com.shm.demo.dto.EnterpriseRequest;
+import com.shm.demo.entity.Enterprise;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * 企业请求 DTO 到实体的转换，以及企业缓存返回副本时的复制 (编译期生成)
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface EnterpriseConverter {
+
+    // 新增：ID 和版本号由数据库生成，deleted 保留实体默认值 0
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "deleted", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    Enterprise toNewEntity(EnterpriseRequest request);
+
+    // 修改：携带 id 和 version (可选)
+    @Mapping(target = "deleted", ignore = true)
+    Enterprise toEntity(EnterpriseRequest request);
+
+    Enterprise copy(Enterprise enterprise);
+}
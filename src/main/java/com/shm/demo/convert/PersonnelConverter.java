@@ -0,0 +1,29 @@
+package com.shm.demo.convert;
+
+import com.shm.demo.dto.CreatePersonnelRequest;
+import com.shm.demo.dto.UpdatePersonnelRequest;
+import com.shm.demo.entity.Personnel;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * 人员请求 DTO 到实体的转换 (编译期生成)。实体到响应的转换见 PersonnelResponse.fromEntity。
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface PersonnelConverter {
+
+    // deleted 保留实体默认值 0
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "deleted", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    Personnel toEntity(CreatePersonnelRequest request);
+
+    @Mapping(target = "deleted", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    Personnel toEntity(UpdatePersonnelRequest request);
+}
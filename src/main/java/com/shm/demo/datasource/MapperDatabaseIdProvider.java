@@ -0,0 +1,24 @@
+package com.shm.demo.datasource;
+
+import org.apache.ibatis.mapping.DatabaseIdProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * 为 Mapper 语句提供 databaseId：主库为 MySQL 时返回 "mysql"，标注了 databaseId = "mysql" 的语句优先于同一方法上的通用语句；
+ * 其他数据库 (测试和基准测试使用的 H2) 返回 null，只使用未标注 databaseId 的通用语句。
+ * 按 spring.datasource.url 判断，启动时不需要连接数据库 (读写分离时副本与主库为同一种数据库)。
+ */
+@Component
+public class MapperDatabaseIdProvider implements DatabaseIdProvider {
+
+    @Value("${spring.datasource.url:}")
+    private String url = "";
+
+    @Override
+    public String getDatabaseId(DataSource dataSource) {
+        return url.startsWith("jdbc:mysql:") ? "mysql" : null;
+    }
+}
@@ -0,0 +1,116 @@
+package com.shm.demo.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * 当前线程的读写分离路由意图，由 {@link ReadWriteRoutingDataSource} 在获取连接时读取。
+ * <p>
+ * 未声明时所有语句访问主库；只读事务 (@Transactional(readOnly = true)) 和 {@link #replica} 中的非事务读取可以访问只读副本。
+ * 嵌套时以更严格的意图为准：{@link #primary} 内的 {@link #replica} 仍访问主库。
+ * 未配置副本 (datasource.replica.enabled=false) 时这些声明不产生任何效果。
+ */
+public final class ReadRouting {
+
+    /**
+     * 路由意图，按严格程度从低到高排列
+     */
+    enum Route {
+        // 未声明：非事务读取和读写事务访问主库，只读事务访问副本
+        DEFAULT,
+        // 可以读取副本
+        REPLICA,
+        // 可以读取副本，但结果会写入共享缓存：本实例最近有写事务提交时改读主库，避免把复制延迟内的旧数据缓存整个 TTL
+        REPLICA_FOR_CACHE,
+        // 必须访问主库
+        PRIMARY
+    }
+
+    private static final ThreadLocal<Route> ROUTE = ThreadLocal.withInitial(() -> Route.DEFAULT);
+
+    // 发起当前请求的客户端 (由 ReadRoutingClientFilter 绑定)，用于读己之写窗口
+    private static final ThreadLocal<String> CLIENT = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    /**
+     * 作用域结束时恢复进入前的路由意图 (用于 try-with-resources)
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * 在副本上执行只读操作 (无健康副本、处于读写事务中或客户端处于读己之写窗口内时仍访问主库)
+     */
+    public static <T> T replica(Supplier<T> reads) {
+        try (Scope ignored = enter(Route.REPLICA)) {
+            return reads.get();
+        }
+    }
+
+    /**
+     * 同 {@link #replica}，用于加载会被其他客户端共享的缓存项
+     */
+    public static <T> T replicaForCache(Supplier<T> reads) {
+        try (Scope ignored = enter(Route.REPLICA_FOR_CACHE)) {
+            return reads.get();
+        }
+    }
+
+    /**
+     * 强制访问主库
+     */
+    public static <T> T primary(Supplier<T> action) {
+        try (Scope ignored = enter(Route.PRIMARY)) {
+            return action.get();
+        }
+    }
+
+    public static Scope primary() {
+        return enter(Route.PRIMARY);
+    }
+
+    /**
+     * 当前线程是否被要求访问主库 (例如客户端处于读己之写窗口内)。
+     * 此时不应与其他调用方共享同一次读取的结果 (其他调用方的读取可能来自落后的副本)
+     */
+    public static boolean isPrimaryRequired() {
+        return ROUTE.get() == Route.PRIMARY;
+    }
+
+    /**
+     * 绑定当前请求的客户端标识，作用域结束时解除
+     */
+    public static Scope bindClient(String client) {
+        String previous = CLIENT.get();
+        CLIENT.set(client);
+        return () -> {
+            if (previous == null) {
+                CLIENT.remove();
+            } else {
+                CLIENT.set(previous);
+            }
+        };
+    }
+
+    static String currentClient() {
+        return CLIENT.get();
+    }
+
+    static Route currentRoute() {
+        return ROUTE.get();
+    }
+
+    private static Scope enter(Route route) {
+        Route previous = ROUTE.get();
+        if (route.compareTo(previous) <= 0) {
+            // 外层的意图同样严格或更严格，保持不变
+            return () -> {
+            };
+        }
+        ROUTE.set(route);
+        return () -> ROUTE.set(previous);
+    }
+}
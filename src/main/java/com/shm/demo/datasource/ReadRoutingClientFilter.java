@@ -0,0 +1,39 @@
+package com.shm.demo.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 为每个请求绑定客户端标识 (请求头 client-id-header，未传时使用客户端地址)，供读写分离数据源实现读己之写：
+ * 客户端的写事务提交后记录该客户端，窗口内的后续请求全部访问主库，且不与其他客户端合并读取。
+ * 经过反向代理时客户端地址都相同，应由调用方传客户端标识或开启 server.forward-headers-strategy。
+ */
+public class ReadRoutingClientFilter extends OncePerRequestFilter {
+
+    private final ReadWriteRoutingDataSource routingDataSource;
+    private final String clientIdHeader;
+
+    public ReadRoutingClientFilter(ReadWriteRoutingDataSource routingDataSource, String clientIdHeader) {
+        this.routingDataSource = routingDataSource;
+        this.clientIdHeader = clientIdHeader;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String client = request.getHeader(clientIdHeader);
+        if (!StringUtils.hasText(client)) {
+            client = request.getRemoteAddr();
+        }
+        try (ReadRouting.Scope ignored = ReadRouting.bindClient(client);
+             ReadRouting.Scope route = routingDataSource.isRecentWriter(client) ? ReadRouting.primary() : null) {
+            chain.doFilter(request, response);
+        }
+    }
+}
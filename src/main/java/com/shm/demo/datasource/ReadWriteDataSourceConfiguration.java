@@ -0,0 +1,91 @@
+package com.shm.demo.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 开启读写分离 (datasource.replica.enabled=true) 时替换 Spring Boot 自动配置的数据源：
+ * <ul>
+ *     <li>primaryDataSource：主库连接池，仍使用 spring.datasource.* 和 spring.datasource.hikari.* 配置；</li>
+ *     <li>每个 datasource.replica.urls 对应一个只读连接池 (连接设置为只读，副本不可用时不影响启动)；</li>
+ *     <li>dataSource (@Primary)：延迟获取连接的代理 + {@link ReadWriteRoutingDataSource}，
+ *     MyBatis、事务管理器、JdbcTemplate 和 Flyway 都使用它 (Flyway 等未声明只读的访问始终落在主库)。</li>
+ * </ul>
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+public class ReadWriteDataSourceConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            MeterRegistry meterRegistry,
+            @Value("${datasource.replica.urls:}") List<String> urls,
+            @Value("${datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${datasource.replica.password:${spring.datasource.password:}}") String password,
+            @Value("${datasource.replica.maximum-pool-size:20}") int maximumPoolSize,
+            @Value("${datasource.replica.connection-timeout:1s}") Duration connectionTimeout,
+            @Value("${datasource.replica.selection:round-robin}") String selection,
+            @Value("${datasource.replica.read-your-writes-window:5s}") Duration readYourWritesWindow,
+            @Value("${datasource.replica.max-lag:0s}") Duration maxLag,
+            @Value("${datasource.replica.health-check-interval:5s}") Duration healthCheckInterval) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("已开启读写分离，但没有配置 datasource.replica.urls");
+        }
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + i);
+            config.setJdbcUrl(urls.get(i).trim());
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setDriverClassName(properties.determineDriverClassName());
+            config.setMaximumPoolSize(maximumPoolSize);
+            config.setConnectionTimeout(connectionTimeout.toMillis());
+            config.setReadOnly(true);
+            // 副本启动时不可用不阻止应用启动，由健康检查摘除
+            config.setInitializationFailTimeout(-1);
+            config.setMetricRegistry(meterRegistry);
+            replicas.add(new HikariDataSource(config));
+        }
+        ReadWriteRoutingDataSource.Selection strategy =
+                ReadWriteRoutingDataSource.Selection.valueOf(selection.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas, strategy,
+                readYourWritesWindow, maxLag, healthCheckInterval, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+
+    @Bean
+    public ReadRoutingClientFilter readRoutingClientFilter(
+            ReadWriteRoutingDataSource readWriteRoutingDataSource,
+            @Value("${datasource.replica.client-id-header:X-Client-Id}") String clientIdHeader) {
+        return new ReadRoutingClientFilter(readWriteRoutingDataSource, clientIdHeader);
+    }
+}
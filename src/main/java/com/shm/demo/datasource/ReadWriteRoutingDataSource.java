@@ -0,0 +1,301 @@
+package com.shm.demo.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 读写分离数据源：读写事务和未声明的语句访问主库，只读读取 (见 {@link ReadRouting}) 分发到只读副本。
+ * <ul>
+ *     <li>副本选择：round-robin 轮询，或 least-connections 选择连接池中活动连接最少的副本；</li>
+ *     <li>读己之写：客户端的写事务提交后，该客户端在 read-your-writes-window 内的读取都访问主库；
+ *     本实例任何写事务提交后的同一窗口内，会写入共享缓存的读取 ({@link ReadRouting#replicaForCache}) 也访问主库；</li>
+ *     <li>健康检查：后台定期探测每个副本 (可选检查复制延迟)，获取连接失败的副本立即摘除，全部不可用时回退到主库。</li>
+ * </ul>
+ * 路由在真正获取连接时决定，因此需要包装在 LazyConnectionDataSourceProxy 中使用
+ * (事务开始时 DataSourceTransactionManager 会先获取连接，之后才设置只读标记)。
+ * 读己之写窗口只记录本实例处理的写请求，多实例部署时需要按客户端粘性路由，或把窗口设置为不小于最大复制延迟。
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements DisposableBean {
+
+    public enum Selection {
+        ROUND_ROBIN, LEAST_CONNECTIONS
+    }
+
+    /**
+     * 一个只读副本及其健康状态
+     */
+    private static final class Replica {
+        final String name;
+        final HikariDataSource dataSource;
+        final Counter routed;
+        volatile boolean healthy = true;
+
+        Replica(String name, HikariDataSource dataSource, Counter routed) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.routed = routed;
+        }
+
+        int activeConnections() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections();
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Selection selection;
+    private final long windowNanos;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+
+    // 最近有写事务提交的客户端 (条目在窗口结束后过期)
+    private final Cache<String, Boolean> recentWriters;
+    // 本实例最近一次写事务提交的时间 (System.nanoTime)
+    private volatile long lastWriteCommitNanos;
+
+    private final ScheduledExecutorService healthChecker;
+
+    private final Counter primaryWrites;
+    private final Counter primaryReadYourWrites;
+    private final Counter primaryFallbacks;
+
+    /**
+     * @param primary             主库
+     * @param replicas            只读副本的连接池，由本数据源负责关闭
+     * @param selection           副本选择策略
+     * @param readYourWritesWindow 写事务提交后读取主库的时长
+     * @param maxLag              副本允许的最大复制延迟，为 null 或 0 时不检查 (仅 MySQL 8.0.22+，需要 REPLICATION CLIENT 权限)
+     * @param healthCheckInterval 健康检查间隔
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, List<HikariDataSource> replicas, Selection selection,
+                                      Duration readYourWritesWindow, Duration maxLag, Duration healthCheckInterval,
+                                      MeterRegistry registry) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("至少需要配置一个只读副本");
+        }
+        this.primary = primary;
+        this.selection = selection;
+        this.windowNanos = readYourWritesWindow.toNanos();
+        this.maxLag = maxLag;
+        this.lastWriteCommitNanos = System.nanoTime() - windowNanos;
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(readYourWritesWindow)
+                .build();
+        for (HikariDataSource dataSource : replicas) {
+            String name = dataSource.getPoolName();
+            this.replicas.add(new Replica(name, dataSource, routeCounter(registry, name, "read")));
+        }
+        this.primaryWrites = routeCounter(registry, "primary", "read-write");
+        this.primaryReadYourWrites = routeCounter(registry, "primary", "read-your-writes");
+        this.primaryFallbacks = routeCounter(registry, "primary", "fallback");
+
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = healthCheckInterval.toMillis();
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // 每次获取连接按目标和原因计数：/actuator/metrics/datasource.route?tag=target:primary
+    private static Counter routeCounter(MeterRegistry registry, String target, String reason) {
+        return Counter.builder("datasource.route")
+                .description("按目标数据源统计的连接获取次数")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!isReadOnlyRoute()) {
+            primaryWrites.increment();
+            trackWriteCommit();
+            return primary.getConnection();
+        }
+        if (isWithinReadYourWritesWindow()) {
+            primaryReadYourWrites.increment();
+            return primary.getConnection();
+        }
+        // 依次尝试健康的副本，获取连接失败的副本立即摘除，等待健康检查恢复
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Replica replica = selectReplica();
+            if (replica == null) {
+                break;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replica.routed.increment();
+                return connection;
+            } catch (SQLException e) {
+                markUnhealthy(replica, e.getMessage());
+            }
+        }
+        primaryFallbacks.increment();
+        return primary.getConnection();
+    }
+
+    // 指定用户名和密码获取连接 (如 Flyway 单独配置的迁移账号) 只用于主库，副本连接池的账号固定
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        primaryWrites.increment();
+        trackWriteCommit();
+        return primary.getConnection(username, password);
+    }
+
+    // 只读事务，或非事务且声明了可以读取副本
+    private boolean isReadOnlyRoute() {
+        ReadRouting.Route route = ReadRouting.currentRoute();
+        if (route == ReadRouting.Route.PRIMARY) {
+            return false;
+        }
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return true;
+        }
+        return route != ReadRouting.Route.DEFAULT && !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    /**
+     * 客户端是否处于读己之写窗口内
+     */
+    public boolean isRecentWriter(String client) {
+        return recentWriters.getIfPresent(client) != null;
+    }
+
+    private boolean isWithinReadYourWritesWindow() {
+        String client = ReadRouting.currentClient();
+        if (client != null && isRecentWriter(client)) {
+            return true;
+        }
+        return ReadRouting.currentRoute() == ReadRouting.Route.REPLICA_FOR_CACHE
+                && System.nanoTime() - lastWriteCommitNanos < windowNanos;
+    }
+
+    // 读写事务提交后记录写入时间和客户端 (在业务代码注册的提交后回调 (如缓存失效) 之前执行)
+    private void trackWriteCommit() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        String client = ReadRouting.currentClient();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lastWriteCommitNanos = System.nanoTime();
+                if (client != null) {
+                    recentWriters.put(client, Boolean.TRUE);
+                }
+            }
+        });
+    }
+
+    private Replica selectReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        Replica selected = null;
+        int selectedActive = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.healthy) {
+                continue;
+            }
+            if (selection == Selection.ROUND_ROBIN) {
+                return replica;
+            }
+            int active = replica.activeConnections();
+            if (active < selectedActive) {
+                selected = replica;
+                selectedActive = active;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * 探测所有副本并更新健康状态
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            String problem = probe(replica);
+            if (problem == null) {
+                if (!replica.healthy) {
+                    replica.healthy = true;
+                    log.info("只读副本 {} 已恢复", replica.name);
+                }
+            } else {
+                markUnhealthy(replica, problem);
+            }
+        }
+    }
+
+    // 返回不可用的原因，可用时返回 null
+    private String probe(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection()) {
+            if (!connection.isValid(2)) {
+                return "连接校验失败";
+            }
+            if (maxLag == null || maxLag.isZero()) {
+                return null;
+            }
+            Long lag = replicationLagSeconds(connection);
+            if (lag == null) {
+                return "复制未运行";
+            }
+            return lag > maxLag.toSeconds() ? "复制延迟 " + lag + " 秒" : null;
+        } catch (SQLException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static Long replicationLagSeconds(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SHOW REPLICA STATUS")) {
+            if (!rs.next()) {
+                return null;
+            }
+            long lag = rs.getLong("Seconds_Behind_Source");
+            return rs.wasNull() ? null : lag;
+        }
+    }
+
+    private void markUnhealthy(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("只读副本 {} 不可用，暂时改读主库: {}", replica.name, reason);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        healthChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.shm.demo.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 人员空闲时段查询：personnelIds 与 enterpriseId 二选一
+ */
+@Data
+public class AvailabilityRequest {
+
+    private List<Long> personnelIds; // 指定人员ID
+
+    private Long enterpriseId; // 或查询该企业下的全部未删除人员
+
+    @NotNull(message = "开始日期不能为空")
+    private LocalDate startDate; // 查询区间开始 (含)
+
+    @NotNull(message = "结束日期不能为空")
+    private LocalDate endDate; // 查询区间结束 (含)
+
+    private Integer minDays; // 只返回不少于该天数的空闲时段 (可选，默认 1)
+}
@@ -0,0 +1,15 @@
+package com.shm.demo.dto;
+
+import lombok.Data;
+
+@Data
+public class CacheStatsDTO {
+    private long hitCount;          // 命中次数
+    private long missCount;         // 未命中次数
+    private double hitRate;         // 命中率
+    private long evictionCount;     // 因容量或过期被淘汰的条目数
+    private long evictionWeight;    // 被淘汰条目的权重总和
+    private long loadFailureCount;  // 加载失败次数 (例如记录不存在)
+    private long estimatedSize;     // 当前条目数 (估计值)
+    private long weightedSize;      // 当前占用的权重
+}
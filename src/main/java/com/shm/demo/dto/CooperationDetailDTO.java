@@ -12,6 +12,7 @@ public class CooperationDetailDTO {
     private LocalDate cooperationStartDate; // 合作开始时间
     private LocalDate cooperationEndDate; // 拟合作结束时间
     private List<CooperationPersonnelDetailDTO> personnelList; // 合作人员列表
+    private Integer version; // 乐观锁版本号，修改时原样传回
 
     // Getters and Setters
     public Long getId() {
@@ -77,4 +78,12 @@ public class CooperationDetailDTO {
     public void setPersonnelList(List<CooperationPersonnelDetailDTO> personnelList) {
         this.personnelList = personnelList;
     }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.shm.demo.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 合作统计报表：读取聚合表，耗时只与分组数量有关，与合作总数无关
+ */
+@Data
+public class CooperationStatsDTO {
+
+    private List<CooperationStatsRowDTO> regionPairs; // 按 (发起方地区, 接收方地区)
+
+    private List<CooperationStatsRowDTO> regionPairJobTypes; // 按 (发起方地区, 接收方地区, 合作类型)
+
+    private List<CooperationStatsRowDTO> jobTypes; // 按合作类型 (各地区汇总)
+}
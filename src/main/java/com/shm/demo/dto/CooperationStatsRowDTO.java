@@ -0,0 +1,23 @@
+package com.shm.demo.dto;
+
+import com.shm.demo.entity.CooperationJobType;
+import lombok.Data;
+
+/**
+ * 一个统计分组的汇总值 (只含未删除合作)。未按某一维度分组时对应字段为 null
+ */
+@Data
+public class CooperationStatsRowDTO {
+
+    private String initiatorRegion; // 发起方地区
+
+    private String receiverRegion; // 接收方地区
+
+    private CooperationJobType cooperationJobType; // 合作类型
+
+    private long cooperationCount; // 合作数 (按合作类型分组时为包含该类型人员的合作数)
+
+    private long personnelCount; // 人次 (人员明细条数)
+
+    private long personDays; // 人天 (明细起止日期含首尾的天数之和)
+}
@@ -0,0 +1,22 @@
+package com.shm.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 日期区间 (首尾均包含)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DateWindowDTO {
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    private long days; // 区间天数
+}
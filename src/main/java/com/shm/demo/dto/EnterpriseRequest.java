@@ -0,0 +1,34 @@
+package com.shm.demo.dto;
+
+import com.shm.demo.entity.CooperationType;
+import com.shm.demo.entity.EnterpriseType;
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * 新增 / 修改企业的请求体 (新增时忽略 id 和 version)
+ */
+@Data
+public class EnterpriseRequest {
+    // @NotNull(message = "更新时ID不能为空") // 更新时 ID 从路径获取更符合 RESTful
+    private Long id; // ID 字段保留，用于从 RequestBody 接收
+
+    @NotBlank(message = "企业名称不能为空")
+    @Size(max = 20, message = "企业名称不能超过20个字符")
+    private String name;
+
+    @NotNull(message = "合作类型不能为空")
+    private CooperationType cooperationType;
+
+    @NotNull(message = "企业类型不能为空")
+    private EnterpriseType enterpriseType;
+
+    // 地区可以为空，但如果提供，Service 层会校验
+    private String region;
+
+    // 更新时可选：读取时得到的版本号，传入时仅当企业未被他人修改过才更新，否则返回 409
+    private Integer version;
+}
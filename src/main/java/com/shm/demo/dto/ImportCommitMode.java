@@ -0,0 +1,34 @@
+package com.shm.demo.dto;
+
+/**
+ * 批量导入的提交方式
+ */
+public enum ImportCommitMode {
+    ALL("all"),     // 全部成功才提交：任意一条记录失败则整体回滚
+    CHUNK("chunk"); // 按批次提交：每批中校验通过的记录随该批一起提交，失败的记录跳过
+
+    private final String value;
+
+    ImportCommitMode(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * 根据请求参数解析提交方式，为空时默认全部成功才提交
+     */
+    public static ImportCommitMode fromValue(String value) {
+        if (value == null || value.isBlank()) {
+            return ALL;
+        }
+        for (ImportCommitMode mode : values()) {
+            if (mode.value.equalsIgnoreCase(value.trim())) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("commitMode 只能是 all 或 chunk: " + value);
+    }
+}
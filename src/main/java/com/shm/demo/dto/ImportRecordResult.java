@@ -0,0 +1,27 @@
+package com.shm.demo.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 批量导入中单条记录的处理结果
+ */
+@Data
+@NoArgsConstructor
+public class ImportRecordResult {
+
+    public static final String IMPORTED = "IMPORTED";       // 已导入并提交
+    public static final String FAILED = "FAILED";           // 解析或校验失败，未导入
+    public static final String ROLLED_BACK = "ROLLED_BACK"; // 校验通过，但因同一事务中其他记录失败而回滚
+
+    private int index;      // 记录序号 (从 1 开始)
+    private long line;      // 记录在请求体中的起始行号
+    private String status;  // IMPORTED / FAILED / ROLLED_BACK
+    private Long id;        // 导入成功时生成的 ID
+    private String message; // 失败原因
+
+    public ImportRecordResult(int index, long line) {
+        this.index = index;
+        this.line = line;
+    }
+}
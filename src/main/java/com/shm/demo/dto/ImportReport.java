@@ -0,0 +1,41 @@
+package com.shm.demo.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量导入结果报告
+ */
+@Data
+public class ImportReport {
+    private String commitMode;      // 提交方式：all / chunk
+    private int chunkSize;          // 每批处理的记录数
+    private int total;              // 读取到的记录总数
+    private int imported;           // 成功导入并提交的记录数
+    private int failed;             // 解析或校验失败的记录数
+    private int rolledBack;         // 校验通过但被回滚的记录数
+    private long elapsedMillis;     // 总耗时 (毫秒)
+    private double rowsPerSecond;   // 吞吐量：每秒成功导入的记录数
+    private String error;           // 导致导入中止的错误 (例如数据库异常)，正常结束时为 null
+    private List<ImportRecordResult> results = new ArrayList<>(); // 每条记录的处理结果
+
+    /**
+     * 根据每条记录的状态重新统计数量
+     */
+    public void summarize() {
+        imported = 0;
+        failed = 0;
+        rolledBack = 0;
+        for (ImportRecordResult result : results) {
+            switch (result.getStatus()) {
+                case ImportRecordResult.IMPORTED -> imported++;
+                case ImportRecordResult.FAILED -> failed++;
+                case ImportRecordResult.ROLLED_BACK -> rolledBack++;
+                default -> { }
+            }
+        }
+        total = results.size();
+    }
+}
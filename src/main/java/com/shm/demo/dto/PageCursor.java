@@ -0,0 +1,64 @@
+package com.shm.demo.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 合作列表游标分页的位置 (created_at, id)，对外编码为不透明的 URL 安全令牌。
+ * 列表按 created_at DESC, id DESC 排序，下一页即严格排在该位置之后的记录。
+ */
+public final class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    public PageCursor(LocalDateTime createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    /**
+     * 以列表项 (通常是当前页最后一条) 的位置构造游标
+     */
+    public static PageCursor of(CooperationListItemDTO item) {
+        return new PageCursor(item.getCreatedAt(), item.getId());
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析客户端传回的游标令牌
+     * @param token 令牌，为空时返回 null (表示从第一页开始)
+     * @throws IllegalArgumentException 如果令牌格式无效
+     */
+    public static PageCursor decode(String token) throws IllegalArgumentException {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int idx = raw.lastIndexOf(SEPARATOR);
+            if (idx <= 0) {
+                throw new IllegalArgumentException("无效的分页游标: " + token);
+            }
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, idx)), Long.valueOf(raw.substring(idx + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("无效的分页游标: " + token);
+        }
+    }
+}
@@ -12,6 +12,12 @@ public class PageResponse<T> {
     private List<T> content; // 当前页数据列表
     private int page;        // 当前页码 (从1开始)
     private int size;        // 每页数量
-    private long totalElements; // 总记录数
-    private int totalPages;   // 总页数
-}
\ No newline at end of file
+    private long totalElements; // 总记录数 (totalMode 为 none 时为 -1)
+    private int totalPages;   // 总页数 (totalMode 为 none 时为 -1)
+    private String nextCursor; // 游标分页模式下获取下一页的令牌，没有下一页或非游标模式时为 null
+    private String totalMode = TotalMode.EXACT.getValue(); // 产生 totalElements 的计算方式: exact / estimated / none
+
+    public PageResponse(List<T> content, int page, int size, long totalElements, int totalPages) {
+        this(content, page, size, totalElements, totalPages, null, TotalMode.EXACT.getValue());
+    }
+}
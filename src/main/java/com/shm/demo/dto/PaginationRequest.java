@@ -1,6 +1,8 @@
 package com.shm.demo.dto;
 
 import lombok.Data;
+import org.springframework.util.StringUtils;
+
 import javax.validation.constraints.Min;
 
 @Data
@@ -12,4 +14,29 @@ public class PaginationRequest {
     // 每页数量
     @Min(value = 1, message = "每页数量必须大于等于1")
     private int size = 10; // 默认每页10条
-}
\ No newline at end of file
+
+    // 游标分页 (keyset) 模式：首次请求设置 cursorMode=true，之后传入上一页返回的 nextCursor 即可
+    // 游标模式下 page 参数被忽略，翻到任意深度的代价与第一页相同；不传则保持原有的 page/size (OFFSET) 分页
+    private boolean cursorMode = false;
+
+    // 上一页响应中的 nextCursor (不透明令牌)，传入时自动启用游标模式
+    private String cursor;
+
+    // 总记录数计算方式：exact (默认) / estimated / none (不区分大小写)，无限滚动的客户端可传 none 跳过计数
+    // 取值在 resolveTotalMode() 中校验，无效时抛出 IllegalArgumentException
+    private String totalMode = TotalMode.EXACT.getValue();
+
+    /**
+     * 解析总记录数计算方式
+     */
+    public TotalMode resolveTotalMode() {
+        return TotalMode.fromValue(totalMode);
+    }
+
+    /**
+     * 是否使用游标分页
+     */
+    public boolean usesCursor() {
+        return cursorMode || StringUtils.hasText(cursor);
+    }
+}
@@ -0,0 +1,22 @@
+package com.shm.demo.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 单个人员在查询区间内的空闲时段。
+ * 空闲时段内的任意 [开始, 结束] 作为新的合作人员时段提交时，都不会与现有合作发生时间重叠
+ */
+@Data
+public class PersonnelAvailabilityDTO {
+
+    private Long personnelId;
+
+    private String personnelName;
+
+    private long freeDays; // 查询区间内的空闲天数 (不受 minDays 过滤影响)
+
+    private List<DateWindowDTO> freeWindows = new ArrayList<>();
+}
@@ -17,6 +17,7 @@ public class PersonnelResponse {
     private Long enterpriseId;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Integer version; // 乐观锁版本号，修改时原样传回
 
     // 从 Entity 转换的静态工厂方法
     public static PersonnelResponse fromEntity(Personnel entity) {
@@ -34,6 +35,7 @@ public class PersonnelResponse {
         dto.setEnterpriseId(entity.getEnterpriseId());
         dto.setCreatedAt(entity.getCreatedAt());
         dto.setUpdatedAt(entity.getUpdatedAt());
+        dto.setVersion(entity.getVersion());
         return dto;
     }
 }
\ No newline at end of file
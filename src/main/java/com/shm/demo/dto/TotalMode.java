@@ -0,0 +1,35 @@
+package com.shm.demo.dto;
+
+/**
+ * 分页查询中总记录数 (totalElements) 的计算方式
+ */
+public enum TotalMode {
+    EXACT("exact"),         // 精确总数：读取写操作失效的缓存，未命中时执行 COUNT(*)
+    ESTIMATED("estimated"), // 估算总数：允许返回写操作之后尚未过期的旧值，减少 COUNT(*) 次数
+    NONE("none");           // 不计算总数 (无限滚动场景)，totalElements 和 totalPages 返回 -1
+
+    private final String value;
+
+    TotalMode(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * 根据请求参数解析计算方式，为空时默认精确计算
+     */
+    public static TotalMode fromValue(String value) {
+        if (value == null || value.isBlank()) {
+            return EXACT;
+        }
+        for (TotalMode mode : values()) {
+            if (mode.value.equalsIgnoreCase(value.trim())) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("totalMode 只能是 exact、estimated 或 none: " + value);
+    }
+}
@@ -36,4 +36,7 @@ public class UpdateCooperationRequest {
     private List<CooperationPersonnelRequest> cooperationPersonnelList;
 
     // 注意：CooperationPersonnelRequest DTO 可以复用创建时的那个
+
+    // 读取详情时得到的版本号 (可选)：传入时仅当记录未被他人修改过才更新，否则返回 409；不传则直接覆盖
+    private Integer version;
 }
\ No newline at end of file
@@ -32,4 +32,7 @@ public class UpdatePersonnelRequest {
     private LocalDate startWorkDate;
 
     private Long enterpriseId;
+
+    // 读取时得到的版本号 (可选)：传入时仅当记录未被他人修改过才更新，否则返回 409；不传则直接覆盖
+    private Integer version;
 }
\ No newline at end of file
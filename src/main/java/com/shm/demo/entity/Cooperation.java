@@ -12,7 +12,9 @@ public class Cooperation {
     private String receiverRegion;
     private LocalDate cooperationStartDate; // 日期
     private LocalDate cooperationEndDate;   // 日期
+    private Integer personnelCount; // 合作人数 (冗余字段，由写操作维护)
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private Integer deleted; // 0 or 1
+    private Integer version; // 乐观锁版本号，每次修改加 1
 }
\ No newline at end of file
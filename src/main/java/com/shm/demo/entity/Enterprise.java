@@ -12,4 +12,5 @@ public class Enterprise {
     private EnterpriseType enterpriseType; // 企业类型
     private String region; // 地区
     private Integer deleted = 0; 
+    private Integer version; // 乐观锁版本号，每次修改加 1
 }
\ No newline at end of file
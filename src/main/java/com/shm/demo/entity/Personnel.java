@@ -28,4 +28,6 @@ public class Personnel {
     private LocalDateTime updatedAt; // 更新时间
 
     private Integer deleted = 0; // 逻辑删除标记 (0=未删除, 1=已删除), 保持和 Enterprise 一致用 Integer
+
+    private Integer version; // 乐观锁版本号，每次修改加 1
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.shm.demo.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 乐观锁冲突：客户端提交的版本号与数据库中的当前版本不一致 (记录在读取之后已被他人修改)。
+ * 映射为 HTTP 409 Conflict，客户端应重新读取最新数据后再提交。
+ */
+@ResponseStatus(value = HttpStatus.CONFLICT) // 映射到 HTTP 409
+public class OptimisticLockConflictException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L; // 序列化版本号
+
+    private final String resourceName;   // 资源名称 (例如 "Cooperation")
+    private final Object id;             // 记录 ID
+    private final Integer expectedVersion; // 客户端提交的版本号
+    private final Integer currentVersion;  // 数据库中的当前版本号
+
+    public OptimisticLockConflictException(String resourceName, Object id, Integer expectedVersion, Integer currentVersion) {
+        super(String.format("%s (ID: %s) 已被其他操作修改：提交的版本为 %s，当前版本为 %s，请重新获取后再修改",
+                resourceName, id, expectedVersion, currentVersion));
+        this.resourceName = resourceName;
+        this.id = id;
+        this.expectedVersion = expectedVersion;
+        this.currentVersion = currentVersion;
+    }
+
+    // --- Getters ---
+
+    public String getResourceName() {
+        return resourceName;
+    }
+
+    public Object getId() {
+        return id;
+    }
+
+    public Integer getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    public Integer getCurrentVersion() {
+        return currentVersion;
+    }
+}
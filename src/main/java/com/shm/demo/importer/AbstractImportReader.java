@@ -0,0 +1,157 @@
+package com.shm.demo.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * 批量导入请求体的流式读取基类，不把请求体整体读入内存。
+ * <ul>
+ *     <li>ndjson：每行一个 JSON 对象，空行忽略；</li>
+ *     <li>csv：首行为表头，数据行如何组成记录由子类决定。</li>
+ * </ul>
+ * 单条记录解析失败不会中断读取，而是以 parseError 的形式返回，由调用方计入导入报告。
+ * @param <T> 请求类型
+ */
+public abstract class AbstractImportReader<T> implements Iterator<ImportRecord<T>> {
+
+    public static final String FORMAT_NDJSON = "ndjson";
+    public static final String FORMAT_CSV = "csv";
+
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private final Class<T> type;
+    private final boolean csv;
+    protected Map<String, Integer> csvColumns;
+
+    protected long lineNumber;
+    protected int recordIndex;
+    private ImportRecord<T> next;
+    private boolean finished;
+
+    protected AbstractImportReader(InputStream in, String format, ObjectMapper objectMapper, Class<T> type) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        this.objectMapper = objectMapper;
+        this.type = type;
+        this.csv = FORMAT_CSV.equals(format);
+    }
+
+    /**
+     * 校验导入格式
+     * @param format 请求参数中的格式，为空时根据 Content-Type 判断 (text/csv 为 CSV，其余为 NDJSON)
+     * @throws IllegalArgumentException 格式不是 ndjson 或 csv
+     */
+    public static String resolveFormat(String format, String contentType) {
+        if (format == null || format.isEmpty()) {
+            return contentType != null && contentType.startsWith("text/csv") ? FORMAT_CSV : FORMAT_NDJSON;
+        }
+        if (!FORMAT_NDJSON.equals(format) && !FORMAT_CSV.equals(format)) {
+            throw new IllegalArgumentException("导入格式无效，只允许: ndjson, csv");
+        }
+        return format;
+    }
+
+    /**
+     * CSV 必须包含的列
+     */
+    protected abstract List<String> csvColumns();
+
+    /**
+     * 读取下一条 CSV 记录 (表头已解析)，没有更多记录时返回 null
+     */
+    protected abstract ImportRecord<T> readCsvRecord();
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            next = csv ? readCsv() : readJsonRecord();
+            finished = next == null;
+        }
+        return next != null;
+    }
+
+    @Override
+    public ImportRecord<T> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ImportRecord<T> result = next;
+        next = null;
+        return result;
+    }
+
+    private ImportRecord<T> readJsonRecord() {
+        String line;
+        while ((line = readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            int index = ++recordIndex;
+            try {
+                return ImportRecord.parsed(index, lineNumber, objectMapper.readValue(line, type));
+            } catch (JsonProcessingException e) {
+                return ImportRecord.failed(index, lineNumber, "JSON 解析失败: " + e.getOriginalMessage());
+            }
+        }
+        return null;
+    }
+
+    private ImportRecord<T> readCsv() {
+        if (csvColumns == null) {
+            String header = readLine();
+            if (header == null) {
+                return null;
+            }
+            csvColumns = CsvLines.header(header, csvColumns());
+        }
+        return readCsvRecord();
+    }
+
+    protected String readLine() {
+        try {
+            String line = reader.readLine();
+            if (line != null) {
+                lineNumber++;
+            }
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    protected String value(List<String> fields, String column) {
+        return CsvLines.value(fields, csvColumns, column);
+    }
+
+    protected Long parseLong(List<String> fields, String column) {
+        String value = value(fields, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " 不是有效的数字: " + value);
+        }
+    }
+
+    protected LocalDate parseDate(List<String> fields, String column) {
+        String value = value(fields, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(column + " 不是有效的日期 (yyyy-MM-dd): " + value);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.shm.demo.importer;
+
+import com.shm.demo.dto.ImportCommitMode;
+import com.shm.demo.dto.ImportRecordResult;
+import com.shm.demo.dto.ImportReport;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * 分批导入的事务驱动：按 chunkSize 从记录流中取出一批交给 chunkHandler 处理，并按提交方式管理事务。
+ * <ul>
+ *     <li>ALL：整个导入一个事务，任意记录失败则回滚全部，但仍继续校验剩余记录以给出完整报告。
+ *     指定了 beforeAll 时先读取全部记录，在事务开始时交给 beforeAll (例如一次性按顺序锁定所有批次涉及的人员)；</li>
+ *     <li>CHUNK：每批一个事务，批内校验失败的记录跳过，其余记录随该批提交；写入异常只影响当前批次。</li>
+ * </ul>
+ * chunkHandler 负责为每条记录向报告追加一条结果，并把写入成功的记录标记为 IMPORTED。
+ */
+public final class ChunkedImport {
+
+    private ChunkedImport() {
+    }
+
+    public static <T> ImportReport run(Iterator<ImportRecord<T>> records, int chunkSize, ImportCommitMode commitMode,
+                                       TransactionTemplate transactionTemplate,
+                                       BiConsumer<List<ImportRecord<T>>, ImportReport> chunkHandler) {
+        return run(records, chunkSize, commitMode, transactionTemplate, null, chunkHandler);
+    }
+
+    /**
+     * @param beforeAll ALL 模式下在事务开始时接收全部记录，为 null 时不预先读取 (CHUNK 模式下忽略)
+     */
+    public static <T> ImportReport run(Iterator<ImportRecord<T>> records, int chunkSize, ImportCommitMode commitMode,
+                                       TransactionTemplate transactionTemplate,
+                                       Consumer<List<ImportRecord<T>>> beforeAll,
+                                       BiConsumer<List<ImportRecord<T>>, ImportReport> chunkHandler) {
+        ImportReport report = new ImportReport();
+        report.setCommitMode(commitMode.getValue());
+        report.setChunkSize(chunkSize);
+        long start = System.currentTimeMillis();
+
+        if (commitMode == ImportCommitMode.ALL) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Iterator<ImportRecord<T>> remaining = records;
+                    if (beforeAll != null) {
+                        List<ImportRecord<T>> all = new ArrayList<>();
+                        records.forEachRemaining(all::add);
+                        beforeAll.accept(all);
+                        remaining = all.iterator();
+                    }
+                    while (remaining.hasNext()) {
+                        chunkHandler.accept(nextChunk(remaining, chunkSize), report);
+                    }
+                    if (report.getResults().stream().anyMatch(r -> ImportRecordResult.FAILED.equals(r.getStatus()))) {
+                        status.setRollbackOnly();
+                        markImportedAs(report.getResults(), 0, ImportRecordResult.ROLLED_BACK, null);
+                    }
+                });
+            } catch (IllegalArgumentException e) {
+                throw e; // 请求体格式错误 (例如 CSV 表头缺列)，整体回滚并返回 400
+            } catch (RuntimeException e) {
+                report.setError("导入中止，已全部回滚: " + e.getMessage());
+                markImportedAs(report.getResults(), 0, ImportRecordResult.ROLLED_BACK, null);
+            }
+        } else {
+            while (records.hasNext()) {
+                List<ImportRecord<T>> chunk = nextChunk(records, chunkSize);
+                int firstResult = report.getResults().size();
+                try {
+                    transactionTemplate.executeWithoutResult(status -> chunkHandler.accept(chunk, report));
+                } catch (DataAccessException e) {
+                    markImportedAs(report.getResults(), firstResult, ImportRecordResult.FAILED, "批次写入失败，已回滚: " + e.getMessage());
+                }
+            }
+        }
+
+        report.summarize();
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        report.setRowsPerSecond(report.getElapsedMillis() == 0 ? report.getImported()
+                : report.getImported() * 1000.0 / report.getElapsedMillis());
+        return report;
+    }
+
+    /**
+     * 校验请求中的 chunkSize，为 null 时使用默认值
+     * @throws IllegalArgumentException chunkSize 超出 [1, maxChunkSize]
+     */
+    public static int resolveChunkSize(Integer chunkSize, int defaultChunkSize, int maxChunkSize) {
+        if (chunkSize == null) {
+            return defaultChunkSize;
+        }
+        if (chunkSize < 1 || chunkSize > maxChunkSize) {
+            throw new IllegalArgumentException("chunkSize 必须在 1 到 " + maxChunkSize + " 之间");
+        }
+        return chunkSize;
+    }
+
+    public static void reject(ImportRecordResult result, String message) {
+        result.setStatus(ImportRecordResult.FAILED);
+        result.setMessage(message);
+    }
+
+    private static <T> List<ImportRecord<T>> nextChunk(Iterator<ImportRecord<T>> records, int size) {
+        List<ImportRecord<T>> chunk = new ArrayList<>(size);
+        while (chunk.size() < size && records.hasNext()) {
+            chunk.add(records.next());
+        }
+        return chunk;
+    }
+
+    private static void markImportedAs(List<ImportRecordResult> results, int fromIndex, String status, String message) {
+        for (ImportRecordResult result : results.subList(fromIndex, results.size())) {
+            if (ImportRecordResult.IMPORTED.equals(result.getStatus())) {
+                result.setStatus(status);
+                result.setId(null);
+                if (message != null) {
+                    result.setMessage(message);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.shm.demo.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shm.demo.dto.CooperationPersonnelRequest;
+import com.shm.demo.dto.CreateCooperationRequest;
+import com.shm.demo.entity.CooperationJobType;
+
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * 逐条读取批量导入的合作记录。
+ * CSV 每行一条人员明细，连续且 cooperationTheme 相同的行组成一条合作记录。
+ */
+public class CooperationImportReader extends AbstractImportReader<CreateCooperationRequest> {
+
+    static final List<String> CSV_COLUMNS = Arrays.asList(
+            "cooperationTheme", "initiatorRegion", "receiverRegion", "cooperationStartDate", "cooperationEndDate",
+            "sendingEnterpriseId", "personnelId", "cooperationJobType", "receivingEnterpriseId",
+            "personnelStartDate", "personnelEndDate");
+
+    // CSV 预读的下一行 (属于下一条记录)
+    private List<String> pendingFields;
+    private long pendingLine;
+
+    public CooperationImportReader(InputStream in, String format, ObjectMapper objectMapper) {
+        super(in, format, objectMapper, CreateCooperationRequest.class);
+    }
+
+    @Override
+    protected List<String> csvColumns() {
+        return CSV_COLUMNS;
+    }
+
+    @Override
+    protected ImportRecord<CreateCooperationRequest> readCsvRecord() {
+        // 取得本条记录的首行 (可能已被上一条记录预读)
+        List<String> first = pendingFields;
+        long firstLine = pendingLine;
+        pendingFields = null;
+        String parseError = null;
+        while (first == null) {
+            String line = readLine();
+            if (line == null) {
+                return null;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            firstLine = lineNumber;
+            try {
+                first = CsvLines.split(line);
+            } catch (IllegalArgumentException e) {
+                return ImportRecord.failed(++recordIndex, firstLine, "第 " + firstLine + " 行: " + e.getMessage());
+            }
+        }
+
+        int index = ++recordIndex;
+        String theme = value(first, "cooperationTheme");
+        CreateCooperationRequest request = new CreateCooperationRequest();
+        request.setCooperationPersonnelList(new ArrayList<>());
+        try {
+            request.setCooperationTheme(theme);
+            request.setInitiatorRegion(value(first, "initiatorRegion"));
+            request.setReceiverRegion(value(first, "receiverRegion"));
+            request.setCooperationStartDate(parseDate(first, "cooperationStartDate"));
+            request.setCooperationEndDate(parseDate(first, "cooperationEndDate"));
+            request.getCooperationPersonnelList().add(parsePersonnel(first));
+        } catch (IllegalArgumentException e) {
+            parseError = "第 " + firstLine + " 行: " + e.getMessage();
+        }
+
+        // 连续且主题相同的行属于同一条合作记录
+        String line;
+        while ((line = readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> fields;
+            try {
+                fields = CsvLines.split(line);
+            } catch (IllegalArgumentException e) {
+                if (parseError == null) {
+                    parseError = "第 " + lineNumber + " 行: " + e.getMessage();
+                }
+                continue;
+            }
+            if (!Objects.equals(theme, value(fields, "cooperationTheme"))) {
+                pendingFields = fields;
+                pendingLine = lineNumber;
+                break;
+            }
+            try {
+                request.getCooperationPersonnelList().add(parsePersonnel(fields));
+            } catch (IllegalArgumentException e) {
+                if (parseError == null) {
+                    parseError = "第 " + lineNumber + " 行: " + e.getMessage();
+                }
+            }
+        }
+        return parseError == null
+                ? ImportRecord.parsed(index, firstLine, request)
+                : ImportRecord.failed(index, firstLine, parseError);
+    }
+
+    private CooperationPersonnelRequest parsePersonnel(List<String> fields) {
+        CooperationPersonnelRequest item = new CooperationPersonnelRequest();
+        item.setSendingEnterpriseId(parseLong(fields, "sendingEnterpriseId"));
+        item.setPersonnelId(parseLong(fields, "personnelId"));
+        String jobType = value(fields, "cooperationJobType");
+        if (jobType != null) {
+            try {
+                item.setCooperationJobType(CooperationJobType.valueOf(jobType));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("cooperationJobType 无效: " + jobType);
+            }
+        }
+        item.setReceivingEnterpriseId(parseLong(fields, "receivingEnterpriseId"));
+        item.setPersonnelStartDate(parseDate(fields, "personnelStartDate"));
+        item.setPersonnelEndDate(parseDate(fields, "personnelEndDate"));
+        return item;
+    }
+}
@@ -0,0 +1,82 @@
+package com.shm.demo.importer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 简单的 CSV 行解析：逗号分隔，支持双引号包裹字段及 "" 转义 (字段内不允许换行)
+ */
+public final class CsvLines {
+
+    private CsvLines() {
+    }
+
+    public static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("CSV 引号未闭合");
+        }
+        fields.add(current.toString().trim());
+        return fields;
+    }
+
+    /**
+     * 解析表头，返回列名 -> 列序号
+     * @throws IllegalArgumentException 缺少必需的列
+     */
+    public static Map<String, Integer> header(String line, List<String> requiredColumns) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = split(line.startsWith("\uFEFF") ? line.substring(1) : line);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i), i);
+        }
+        List<String> missing = new ArrayList<>();
+        for (String required : requiredColumns) {
+            if (!columns.containsKey(required)) {
+                missing.add(required);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("CSV 表头缺少列: " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    /**
+     * 按列名取值，空字符串视为 null
+     */
+    public static String value(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index);
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,25 @@
+package com.shm.demo.importer;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 批量导入中的一条记录：解析得到的请求对象，或解析失败的原因
+ * @param <T> 请求类型
+ */
+@Data
+@AllArgsConstructor
+public class ImportRecord<T> {
+    private int index;          // 记录序号 (从 1 开始)
+    private long line;          // 记录在请求体中的起始行号 (从 1 开始)
+    private T value;            // 解析结果，解析失败时为 null
+    private String parseError;  // 解析失败原因，成功时为 null
+
+    public static <T> ImportRecord<T> parsed(int index, long line, T value) {
+        return new ImportRecord<>(index, line, value, null);
+    }
+
+    public static <T> ImportRecord<T> failed(int index, long line, String parseError) {
+        return new ImportRecord<>(index, line, null, parseError);
+    }
+}
@@ -0,0 +1,66 @@
+package com.shm.demo.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shm.demo.dto.CreatePersonnelRequest;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 逐条读取批量导入的人员记录，CSV 每行一名人员。
+ */
+public class PersonnelImportReader extends AbstractImportReader<CreatePersonnelRequest> {
+
+    static final List<String> CSV_COLUMNS = Arrays.asList(
+            "name", "gender", "age", "phone", "education", "startWorkDate", "enterpriseId");
+
+    public PersonnelImportReader(InputStream in, String format, ObjectMapper objectMapper) {
+        super(in, format, objectMapper, CreatePersonnelRequest.class);
+    }
+
+    @Override
+    protected List<String> csvColumns() {
+        return CSV_COLUMNS;
+    }
+
+    @Override
+    protected ImportRecord<CreatePersonnelRequest> readCsvRecord() {
+        String line;
+        do {
+            line = readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        int index = ++recordIndex;
+        try {
+            List<String> fields = CsvLines.split(line);
+            CreatePersonnelRequest request = new CreatePersonnelRequest();
+            request.setName(value(fields, "name"));
+            request.setGender(parseByte(fields, "gender"));
+            Long age = parseLong(fields, "age");
+            request.setAge(age == null ? null : Math.toIntExact(age));
+            request.setPhone(value(fields, "phone"));
+            request.setEducation(parseByte(fields, "education"));
+            request.setStartWorkDate(parseDate(fields, "startWorkDate"));
+            request.setEnterpriseId(parseLong(fields, "enterpriseId"));
+            return ImportRecord.parsed(index, lineNumber, request);
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            return ImportRecord.failed(index, lineNumber, "第 " + lineNumber + " 行: " + e.getMessage());
+        }
+    }
+
+    private Byte parseByte(List<String> fields, String column) {
+        String value = value(fields, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Byte.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " 不是有效的数字: " + value);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.shm.demo.job;
+
+import com.shm.demo.dto.CooperationStatsRowDTO;
+import com.shm.demo.entity.CooperationJobType;
+import com.shm.demo.mapper.CooperationStatsMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 定时全量重建合作统计聚合表 (cooperation_region_stats、cooperation_job_type_stats)。
+ * 正常情况下统计由 CooperationServiceImpl 的写操作在同一事务中增量维护，此任务用于修正手工改库等原因造成的偏差，
+ * 同时把各 slot 的行合并回 slot 0。
+ * <p>
+ * 重建不锁定合作及人员明细表，分两步执行：
+ * <ol>
+ *     <li>只读事务 (REPEATABLE READ 一致性快照，不加锁) 中分别从明细表聚合统计值、读取统计表的当前值，两者之差即偏差。
+ *     增量维护的写事务在同一事务中同时修改明细和统计，不改变偏差，因此快照之后提交的写操作不影响结果；</li>
+ *     <li>短事务中锁定统计表的全部行 (分组数很少)，把各 slot 合并到 slot 0 并加上偏差。
+ *     只有这一步会让并发的写事务等待统计行锁。</li>
+ * </ol>
+ */
+@Slf4j
+@Component
+public class CooperationStatsRebuildJob {
+
+    @Autowired
+    private CooperationStatsMapper cooperationStatsMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Scheduled(cron = "${cooperation.stats.rebuild-cron:0 0 5 * * ?}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("重建合作统计聚合表失败", e);
+        }
+    }
+
+    /**
+     * 全量重建统计聚合表
+     * @return 重建后的分组行数 (地区对 + 地区对与合作类型)
+     */
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+
+        TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshot.setReadOnly(true);
+        List<Map<List<Object>, CooperationStatsRowDTO>> drifts = snapshot.execute(status -> List.of(
+                drift(cooperationStatsMapper.aggregateRegionStats(), cooperationStatsMapper.findRegionStatsRows(false)),
+                drift(cooperationStatsMapper.aggregateJobTypeStats(), cooperationStatsMapper.findJobTypeStatsRows(false))));
+        Map<List<Object>, CooperationStatsRowDTO> regionDrift = drifts.get(0);
+        Map<List<Object>, CooperationStatsRowDTO> jobTypeDrift = drifts.get(1);
+
+        Integer rows = new TransactionTemplate(transactionManager).execute(status ->
+                compact(cooperationStatsMapper.findRegionStatsRows(true), regionDrift,
+                        cooperationStatsMapper::deleteAllRegionStats, cooperationStatsMapper::addRegionStats)
+                + compact(cooperationStatsMapper.findJobTypeStatsRows(true), jobTypeDrift,
+                        cooperationStatsMapper::deleteAllJobTypeStats, cooperationStatsMapper::addJobTypeStats));
+        int total = rows == null ? 0 : rows;
+        log.info("合作统计聚合表重建完成，共 {} 个分组 (修正偏差 {} 个)，耗时 {} ms",
+                total, regionDrift.size() + jobTypeDrift.size(), System.currentTimeMillis() - start);
+        return total;
+    }
+
+    // 明细表聚合值减去统计表当前值，只保留有偏差的分组
+    private static Map<List<Object>, CooperationStatsRowDTO> drift(List<CooperationStatsRowDTO> actual,
+                                                                  List<CooperationStatsRowDTO> recorded) {
+        Map<List<Object>, CooperationStatsRowDTO> drift = new LinkedHashMap<>();
+        accumulate(drift, actual, 1);
+        accumulate(drift, recorded, -1);
+        drift.values().removeIf(CooperationStatsRebuildJob::isZero);
+        return drift;
+    }
+
+    // 把已锁定的各 slot 行合并后加上偏差，清空后写回 slot 0；返回写入的分组数
+    private static int compact(List<CooperationStatsRowDTO> lockedRows, Map<List<Object>, CooperationStatsRowDTO> drift,
+                               Runnable deleteAll, RowWriter writer) {
+        Map<List<Object>, CooperationStatsRowDTO> merged = new LinkedHashMap<>();
+        accumulate(merged, lockedRows, 1);
+        accumulate(merged, drift.values(), 1);
+        merged.values().removeIf(CooperationStatsRebuildJob::isZero);
+        deleteAll.run();
+        if (!merged.isEmpty()) {
+            writer.add(merged.values(), 0);
+        }
+        return merged.size();
+    }
+
+    // 按分组 (地区对，或地区对与合作类型) 把 rows 的统计值乘以 sign 累加到 totals
+    private static void accumulate(Map<List<Object>, CooperationStatsRowDTO> totals, Collection<CooperationStatsRowDTO> rows,
+                                   int sign) {
+        Function<List<Object>, CooperationStatsRowDTO> newTotal = key -> {
+            CooperationStatsRowDTO total = new CooperationStatsRowDTO();
+            total.setInitiatorRegion((String) key.get(0));
+            total.setReceiverRegion((String) key.get(1));
+            total.setCooperationJobType((CooperationJobType) key.get(2));
+            return total;
+        };
+        for (CooperationStatsRowDTO row : rows) {
+            List<Object> key = Arrays.asList(row.getInitiatorRegion(), row.getReceiverRegion(), row.getCooperationJobType());
+            CooperationStatsRowDTO total = totals.computeIfAbsent(key, newTotal);
+            total.setCooperationCount(total.getCooperationCount() + sign * row.getCooperationCount());
+            total.setPersonnelCount(total.getPersonnelCount() + sign * row.getPersonnelCount());
+            total.setPersonDays(total.getPersonDays() + sign * row.getPersonDays());
+        }
+    }
+
+    private static boolean isZero(CooperationStatsRowDTO row) {
+        return row.getCooperationCount() == 0 && row.getPersonnelCount() == 0 && row.getPersonDays() == 0;
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        int add(Collection<CooperationStatsRowDTO> rows, int slot);
+    }
+}
@@ -0,0 +1,54 @@
+package com.shm.demo.job;
+
+import com.shm.demo.mapper.CooperationMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 定时修复 cooperation.personnel_count 冗余计数。
+ * 正常情况下计数由 CooperationServiceImpl 的写操作维护，此任务用于修正手工改库等原因造成的偏差：
+ * 按 ID 区间分批执行，每批一条 UPDATE ... JOIN 语句，只改写计数不一致的记录。
+ */
+@Slf4j
+@Component
+public class PersonnelCountRepairJob {
+
+    @Autowired
+    private CooperationMapper cooperationMapper;
+
+    @Value("${cooperation.personnel-count.repair-batch-size:5000}")
+    private int batchSize;
+
+    @Scheduled(cron = "${cooperation.personnel-count.repair-cron:0 30 3 * * ?}")
+    public void scheduledRepair() {
+        try {
+            repairAll();
+        } catch (Exception e) {
+            log.error("修复合作人数计数失败", e);
+        }
+    }
+
+    /**
+     * 全量修复所有合作的人数计数
+     * @return 被修正的记录数
+     */
+    public int repairAll() {
+        Long maxId = cooperationMapper.findMaxId();
+        if (maxId == null) {
+            return 0;
+        }
+        int repaired = 0;
+        for (long fromId = 1; fromId <= maxId; fromId += batchSize) {
+            repaired += cooperationMapper.recalculatePersonnelCounts(fromId, fromId + batchSize - 1);
+        }
+        if (repaired > 0) {
+            log.warn("合作人数计数修复完成，共修正 {} 条记录", repaired);
+        } else {
+            log.info("合作人数计数修复完成，未发现偏差");
+        }
+        return repaired;
+    }
+}
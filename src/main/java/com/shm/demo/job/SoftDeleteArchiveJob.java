@@ -0,0 +1,133 @@
+package com.shm.demo.job;
+
+import com.shm.demo.mapper.ArchiveMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * 定时归档逻辑删除超过保留期限的记录，避免主表和索引被已删除数据撑大。
+ * <p>
+ * 按合作 (连同人员明细)、人员、企业的顺序执行，使前一步归档后不再被引用的人员和企业在同一轮中也能归档。
+ * 每批在一个事务中锁定一批 ID、复制到 *_archive 表并从主表删除；两批之间暂停，暂停时长不少于上一批的耗时，
+ * 数据库繁忙时自动放慢，单轮运行时间不超过 max-duration，剩余部分留给下一轮。
+ * 归档后的记录仍可通过各 Mapper 的 findRawById 查到 (表现为已删除)。
+ */
+@Slf4j
+@Component
+public class SoftDeleteArchiveJob {
+
+    @Autowired
+    private ArchiveMapper archiveMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${archive.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${archive.retention:90d}")
+    private Duration retention = Duration.ofDays(90);
+
+    @Value("${archive.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${archive.batch-pause:200ms}")
+    private Duration batchPause = Duration.ofMillis(200);
+
+    @Value("${archive.max-duration:30m}")
+    private Duration maxDuration = Duration.ofMinutes(30);
+
+    @Scheduled(cron = "${archive.cron:0 0 4 * * ?}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archiveAll();
+        } catch (Exception e) {
+            log.error("归档逻辑删除记录失败", e);
+        }
+    }
+
+    /**
+     * 执行一轮归档
+     * @return 归档的主表记录数 (合作 + 人员 + 企业，不含合作人员明细)
+     */
+    public int archiveAll() {
+        long deadline = System.nanoTime() + maxDuration.toNanos();
+        long retentionSeconds = retention.toSeconds();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int[] children = new int[1];
+
+        int cooperations = archiveInBatches("合作", deadline, transactionTemplate, limit -> {
+            List<Long> ids = archiveMapper.lockArchivableCooperationIds(retentionSeconds, limit);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            int copiedChildren = archiveMapper.copyCooperationPersonnel(ids);
+            checkMoved("合作人员明细", copiedChildren, archiveMapper.deleteCooperationPersonnel(ids));
+            checkMoved("合作", archiveMapper.copyCooperations(ids), archiveMapper.deleteCooperations(ids));
+            children[0] += copiedChildren;
+            return ids.size();
+        });
+        int personnel = archiveInBatches("人员", deadline, transactionTemplate, limit -> {
+            List<Long> ids = archiveMapper.lockArchivablePersonnelIds(retentionSeconds, limit);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            checkMoved("人员", archiveMapper.copyPersonnel(ids), archiveMapper.deletePersonnel(ids));
+            return ids.size();
+        });
+        int enterprises = archiveInBatches("企业", deadline, transactionTemplate, limit -> {
+            List<Long> ids = archiveMapper.lockArchivableEnterpriseIds(retentionSeconds, limit);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            checkMoved("企业", archiveMapper.copyEnterprises(ids), archiveMapper.deleteEnterprises(ids));
+            return ids.size();
+        });
+
+        log.info("逻辑删除记录归档完成：合作 {} 条 (人员明细 {} 条)，人员 {} 条，企业 {} 条",
+                cooperations, children[0], personnel, enterprises);
+        return cooperations + personnel + enterprises;
+    }
+
+    // 分批执行，每批一个事务；批次不满或超过截止时间时结束
+    private int archiveInBatches(String name, long deadline, TransactionTemplate transactionTemplate, IntFunction<Integer> batch) {
+        int total = 0;
+        while (System.nanoTime() < deadline) {
+            long start = System.nanoTime();
+            Integer moved = transactionTemplate.execute(status -> batch.apply(batchSize));
+            total += moved == null ? 0 : moved;
+            if (moved == null || moved < batchSize) {
+                break;
+            }
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            try {
+                Thread.sleep(Math.max(batchPause.toMillis(), elapsedMillis));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("{}归档被中断，已归档 {} 条", name, total);
+                break;
+            }
+        }
+        return total;
+    }
+
+    // 复制和删除的行数必须一致，否则回滚本批 (例如记录在两步之间被恢复)
+    private static void checkMoved(String name, int copied, int deleted) {
+        if (copied != deleted) {
+            throw new IllegalStateException(name + "归档行数不一致：复制 " + copied + " 条，删除 " + deleted + " 条");
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.shm.demo.lock;
+
+import com.shm.demo.mapper.PersonnelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 按人员 ID 加锁，使"检查人员时间重叠 + 写入合作人员明细"对同一人员串行执行，不同人员之间完全并行。
+ * <ul>
+ *     <li>进程内：人员 ID 映射到固定数量的分段锁 (ReentrantLock)，同一实例内的并发请求在这里排队，不占用数据库连接上的行锁等待；</li>
+ *     <li>数据库：对涉及的 personnel 行执行 SELECT ... FOR UPDATE，人员行本身即锁行，多实例部署时同样互斥。</li>
+ * </ul>
+ * 两种锁都持有到当前事务结束 (提交或回滚后释放)。分段锁按段号升序获取、行锁按 ID 升序获取，
+ * 多个人员的请求之间不会相互死锁；分段锁等待超过 lock-timeout 时抛出 {@link CannotAcquireLockException}。
+ * 同一事务中多次加锁时只锁定尚未锁定的人员：需要分多次加锁的操作 (如分批导入) 应在事务开始时一次性锁定全部人员，
+ * 否则后续批次可能以乱序获取锁。
+ */
+@Component
+public class PersonnelLocks {
+
+    private final ReentrantLock[] stripes;
+    private final long timeoutNanos;
+
+    @Value("${cooperation.personnel-lock.database-lock-enabled:true}")
+    private boolean databaseLockEnabled = true;
+
+    @Autowired
+    public PersonnelLocks(@Value("${cooperation.personnel-lock.stripes:1024}") int stripes,
+                          @Value("${cooperation.personnel-lock.lock-timeout:10s}") Duration lockTimeout) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("cooperation.personnel-lock.stripes 必须大于 0");
+        }
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.timeoutNanos = lockTimeout.toNanos();
+    }
+
+    /**
+     * 在当前事务中锁定指定人员，直到事务结束
+     * @param personnelIds 人员ID (可重复，null 忽略)
+     * @param mapper 执行行锁的 Mapper，需与事务中其他语句使用同一种 ExecutorType
+     */
+    public void lock(Collection<Long> personnelIds, PersonnelMapper mapper) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("人员锁必须在事务中获取");
+        }
+        SortedSet<Long> ids = new TreeSet<>();
+        for (Long id : personnelIds) {
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        Set<Long> lockedInTransaction = lockedInTransaction();
+        ids.removeAll(lockedInTransaction);
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        List<ReentrantLock> held = acquireStripes(ids);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                release(held);
+            }
+        });
+        if (databaseLockEnabled) {
+            mapper.lockByIds(ids);
+        }
+        lockedInTransaction.addAll(ids);
+    }
+
+    // 当前事务已锁定的人员 ID (事务结束时解除绑定)
+    @SuppressWarnings("unchecked")
+    private Set<Long> lockedInTransaction() {
+        Set<Long> locked = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (locked == null) {
+            Set<Long> created = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PersonnelLocks.this);
+                }
+            });
+            locked = created;
+        }
+        return locked;
+    }
+
+    private List<ReentrantLock> acquireStripes(SortedSet<Long> ids) {
+        SortedSet<Integer> indexes = new TreeSet<>();
+        for (Long id : ids) {
+            indexes.add(stripeIndex(id));
+        }
+        List<ReentrantLock> held = new ArrayList<>(indexes.size());
+        long deadline = System.nanoTime() + timeoutNanos;
+        try {
+            for (int index : indexes) {
+                ReentrantLock lock = stripes[index];
+                if (!lock.tryLock(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    throw new CannotAcquireLockException("人员正在被其他操作修改，请稍后重试 (人员ID: " + ids + ")");
+                }
+                held.add(lock);
+            }
+            return held;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            release(held);
+            throw new CannotAcquireLockException("等待人员锁时被中断");
+        } catch (RuntimeException e) {
+            release(held);
+            throw e;
+        }
+    }
+
+    private static void release(List<ReentrantLock> held) {
+        for (int i = held.size() - 1; i >= 0; i--) {
+            held.get(i).unlock();
+        }
+    }
+
+    private int stripeIndex(long id) {
+        int hash = Long.hashCode(id);
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, stripes.length);
+    }
+}
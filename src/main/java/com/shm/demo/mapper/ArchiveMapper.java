@@ -0,0 +1,98 @@
+package com.shm.demo.mapper;
+
+import org.apache.ibatis.annotations.*;
+
+import java.util.List;
+
+/**
+ * 逻辑删除记录归档：把超过保留期限的已删除记录从主表复制到对应的 *_archive 表后再删除。
+ * 每批先用 FOR UPDATE SKIP LOCKED 锁定一批 ID (多实例同时运行时互不重复)，复制和删除都只针对这批 ID。
+ */
+@Mapper
+public interface ArchiveMapper {
+
+    // --- 合作 (连同人员明细) ---
+
+    @Select("SELECT id FROM cooperation " +
+            "WHERE deleted = 1 AND updated_at < TIMESTAMPADD(SECOND, -#{retentionSeconds}, NOW()) " +
+            "ORDER BY id LIMIT #{limit} FOR UPDATE SKIP LOCKED")
+    List<Long> lockArchivableCooperationIds(@Param("retentionSeconds") long retentionSeconds, @Param("limit") int limit);
+
+    @Insert("<script>" +
+            "INSERT INTO cooperation_personnel_archive (id, cooperation_id, sending_enterprise_id, personnel_id, cooperation_job_type, " +
+            "  receiving_enterprise_id, personnel_start_date, personnel_end_date, created_at, updated_at) " +
+            "SELECT id, cooperation_id, sending_enterprise_id, personnel_id, cooperation_job_type, " +
+            "  receiving_enterprise_id, personnel_start_date, personnel_end_date, created_at, updated_at " +
+            "FROM cooperation_personnel WHERE cooperation_id IN " +
+            "<foreach item='id' collection='ids' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int copyCooperationPersonnel(@Param("ids") List<Long> cooperationIds);
+
+    @Delete("<script>" +
+            "DELETE FROM cooperation_personnel WHERE cooperation_id IN " +
+            "<foreach item='id' collection='ids' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int deleteCooperationPersonnel(@Param("ids") List<Long> cooperationIds);
+
+    @Insert("<script>" +
+            "INSERT INTO cooperation_archive (id, cooperation_theme, initiator_region, receiver_region, cooperation_start_date, " +
+            "  cooperation_end_date, personnel_count, deleted, created_at, updated_at) " +
+            "SELECT id, cooperation_theme, initiator_region, receiver_region, cooperation_start_date, " +
+            "  cooperation_end_date, personnel_count, deleted, created_at, updated_at " +
+            "FROM cooperation WHERE deleted = 1 AND id IN " +
+            "<foreach item='id' collection='ids' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int copyCooperations(@Param("ids") List<Long> ids);
+
+    @Delete("<script>" +
+            "DELETE FROM cooperation WHERE deleted = 1 AND id IN " +
+            "<foreach item='id' collection='ids' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int deleteCooperations(@Param("ids") List<Long> ids);
+
+    // --- 企业 (仍被人员或合作人员明细引用的不归档，避免详情等查询关联不到企业名称) ---
+
+    @Select("SELECT e.id FROM enterprise e " +
+            "WHERE e.deleted = 1 AND e.updated_at < TIMESTAMPADD(SECOND, -#{retentionSeconds}, NOW()) " +
+            "AND NOT EXISTS (SELECT 1 FROM personnel p WHERE p.enterprise_id = e.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM cooperation_personnel cp WHERE cp.sending_enterprise_id = e.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM cooperation_personnel cp WHERE cp.receiving_enterprise_id = e.id) " +
+            "ORDER BY e.id LIMIT #{limit} FOR UPDATE SKIP LOCKED")
+    List<Long> lockArchivableEnterpriseIds(@Param("retentionSeconds") long retentionSeconds, @Param("limit") int limit);
+
+    @Insert("<script>" +
+            "INSERT INTO enterprise_archive (id, name, cooperation_type, enterprise_type, region, deleted, created_at, updated_at) " +
+            "SELECT id, name, cooperation_type, enterprise_type, region, deleted, created_at, updated_at " +
+            "FROM enterprise WHERE deleted = 1 AND id IN " +
+            "<foreach item='id' collection='ids' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int copyEnterprises(@Param("ids") List<Long> ids);
+
+    @Delete("<script>" +
+            "DELETE FROM enterprise WHERE deleted = 1 AND id IN " +
+            "<foreach item='id' collection='ids' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int deleteEnterprises(@Param("ids") List<Long> ids);
+
+    // --- 人员 (仍被合作人员明细引用的不归档) ---
+
+    @Select("SELECT p.id FROM personnel p " +
+            "WHERE p.deleted = 1 AND p.updated_at < TIMESTAMPADD(SECOND, -#{retentionSeconds}, NOW()) " +
+            "AND NOT EXISTS (SELECT 1 FROM cooperation_personnel cp WHERE cp.personnel_id = p.id) " +
+            "ORDER BY p.id LIMIT #{limit} FOR UPDATE SKIP LOCKED")
+    List<Long> lockArchivablePersonnelIds(@Param("retentionSeconds") long retentionSeconds, @Param("limit") int limit);
+
+    @Insert("<script>" +
+            "INSERT INTO personnel_archive (id, name, gender, age, phone, education, start_work_date, enterprise_id, deleted, created_at, updated_at) " +
+            "SELECT id, name, gender, age, phone, education, start_work_date, enterprise_id, deleted, created_at, updated_at " +
+            "FROM personnel WHERE deleted = 1 AND id IN " +
+            "<foreach item='id' collection='ids' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int copyPersonnel(@Param("ids") List<Long> ids);
+
+    @Delete("<script>" +
+            "DELETE FROM personnel WHERE deleted = 1 AND id IN " +
+            "<foreach item='id' collection='ids' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int deletePersonnel(@Param("ids") List<Long> ids);
+}
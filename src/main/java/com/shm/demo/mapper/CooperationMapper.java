@@ -4,29 +4,50 @@ import com.shm.demo.dto.CooperationListItemDTO;
 import com.shm.demo.dto.SearchCooperationRequest;
 import com.shm.demo.entity.Cooperation;
 import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.session.ResultHandler;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
 public interface CooperationMapper {
 
-    @Insert("INSERT INTO cooperation (cooperation_theme, initiator_region, receiver_region, cooperation_start_date, cooperation_end_date, deleted) " +
-            "VALUES (#{cooperationTheme}, #{initiatorRegion}, #{receiverRegion}, #{cooperationStartDate}, #{cooperationEndDate}, #{deleted})")
+    @Insert("INSERT INTO cooperation (cooperation_theme, initiator_region, receiver_region, cooperation_start_date, cooperation_end_date, personnel_count, deleted) " +
+            "VALUES (#{cooperationTheme}, #{initiatorRegion}, #{receiverRegion}, #{cooperationStartDate}, #{cooperationEndDate}, #{personnelCount}, #{deleted})")
     @Options(useGeneratedKeys = true, keyProperty = "id")
     int insert(Cooperation cooperation);
 
     @Select("SELECT * FROM cooperation WHERE id = #{id} AND deleted = 0")
     Cooperation findById(@Param("id") Long id);
 
-    @Select("SELECT * FROM cooperation WHERE id = #{id}") // 用于检查原始状态，包括已删除的
+    // 用于检查原始状态，包括已删除的；已归档 (SoftDeleteArchiveJob) 的记录从 cooperation_archive 中读取，仍表现为已删除 (version 为 null)
+    @Select("SELECT id, cooperation_theme, initiator_region, receiver_region, cooperation_start_date, cooperation_end_date, " +
+            "personnel_count, deleted, created_at, updated_at, version FROM cooperation WHERE id = #{id} " +
+            "UNION ALL " +
+            "SELECT id, cooperation_theme, initiator_region, receiver_region, cooperation_start_date, cooperation_end_date, " +
+            "personnel_count, deleted, created_at, updated_at, NULL FROM cooperation_archive WHERE id = #{id} " +
+            "LIMIT 1")
     Cooperation findRawById(@Param("id") Long id);
 
+    /**
+     * 按 ID 升序锁定其中未删除的合作行直到事务结束 (批量删除前确定实际被删除的合作；修改前锁定合作行以移出旧的统计贡献)
+     * @param ids 合作 ID 列表，调用方需保证非空
+     * @return 未删除的合作 ID
+     */
+    @Select("<script>" +
+            "SELECT id FROM cooperation WHERE deleted = 0 AND id IN " +
+            "<foreach item='id' collection='ids' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "ORDER BY id FOR UPDATE" +
+            "</script>")
+    List<Long> lockActiveIds(@Param("ids") List<Long> ids);
+
     /**
      * 根据 ID 逻辑删除单个合作信息 (更新 deleted 标志)
      * @param id 要删除的合作 ID
      * @return 影响的行数 (通常为 1 或 0)
      */
-    @Update("UPDATE cooperation SET deleted = 1, updated_at = CURRENT_TIMESTAMP WHERE id = #{id} AND deleted = 0")
+    @Update("UPDATE cooperation SET deleted = 1, personnel_count = 0, updated_at = CURRENT_TIMESTAMP WHERE id = #{id} AND deleted = 0")
     int markAsDeleted(@Param("id") Long id);
 
     /**
@@ -35,7 +56,7 @@ public interface CooperationMapper {
      * @return 影响的行数
      */
     @Update("<script>" +
-            "UPDATE cooperation SET deleted = 1, updated_at = CURRENT_TIMESTAMP " +
+            "UPDATE cooperation SET deleted = 1, personnel_count = 0, updated_at = CURRENT_TIMESTAMP " +
             "WHERE deleted = 0 AND id IN " + // 只更新未删除的记录
             "<foreach item='id' collection='ids' open='(' separator=',' close=')'>" +
             "#{id}" +
@@ -43,14 +64,20 @@ public interface CooperationMapper {
             "</script>")
     int batchMarkAsDeleted(@Param("ids") List<Long> ids);
 
-    @Update("UPDATE cooperation SET " +
+    // 携带 version 时按 CAS 更新 (版本不一致时影响行数为 0)，不携带时直接覆盖；两种情况 version 都加 1
+    @Update("<script>" +
+            "UPDATE cooperation SET " +
             "cooperation_theme = #{cooperationTheme}, " +
             "initiator_region = #{initiatorRegion}, " +
             "receiver_region = #{receiverRegion}, " +
             "cooperation_start_date = #{cooperationStartDate}, " +
             "cooperation_end_date = #{cooperationEndDate}, " +
+            "personnel_count = #{personnelCount}, " +
+            "version = version + 1, " +
             "updated_at = CURRENT_TIMESTAMP " +
-            "WHERE id = #{id} AND deleted = 0")
+            "WHERE id = #{id} AND deleted = 0" +
+            "<if test='version != null'> AND version = #{version}</if>" +
+            "</script>")
     int update(Cooperation cooperation);
 
     @Select("SELECT COUNT(*) FROM cooperation WHERE cooperation_theme = #{theme} AND deleted = 0")
@@ -59,30 +86,64 @@ public interface CooperationMapper {
     @Select("SELECT COUNT(*) FROM cooperation WHERE cooperation_theme = #{theme} AND id != #{id} AND deleted = 0")
     int countByThemeAndNotId(@Param("theme") String theme, @Param("id") Long id);
 
-    @Update("UPDATE cooperation SET deleted = 1, updated_at = CURRENT_TIMESTAMP WHERE id = #{id} AND deleted = 0")
+    /**
+     * 批量查询已被未删除合作使用的主题 (用于批量导入时一次性校验主题唯一性)
+     * @param themes 待检查的主题，调用方需保证非空
+     * @return 已存在的主题
+     */
+    @Select("<script>" +
+            "SELECT cooperation_theme FROM cooperation WHERE deleted = 0 AND cooperation_theme IN " +
+            "<foreach item='theme' collection='themes' open='(' separator=',' close=')'>" +
+            "#{theme}" +
+            "</foreach>" +
+            "</script>")
+    List<String> findExistingThemes(@Param("themes") Collection<String> themes);
+
+    @Update("UPDATE cooperation SET deleted = 1, personnel_count = 0, updated_at = CURRENT_TIMESTAMP WHERE id = #{id} AND deleted = 0")
     int softDeleteById(@Param("id") Long id);
 
     @Select("SELECT " +
             "c.id, c.cooperation_theme, c.initiator_region, c.receiver_region, " +
-            "c.cooperation_start_date, c.cooperation_end_date, c.created_at, " +
-            "COUNT(DISTINCT cp.id) AS personnel_count " +
+            "c.cooperation_start_date, c.cooperation_end_date, c.created_at, c.personnel_count " +
             "FROM cooperation c " +
-            "LEFT JOIN cooperation_personnel cp ON c.id = cp.cooperation_id " +
             "WHERE c.deleted = 0 " +
-            "GROUP BY c.id " +
-            "ORDER BY c.created_at DESC " +
+            "ORDER BY c.created_at DESC, c.id DESC " +
             "LIMIT #{size} OFFSET #{offset}")
     List<CooperationListItemDTO> findPaginatedWithCount(@Param("offset") int offset, @Param("size") int size);
 
+    /**
+     * 游标 (keyset) 分页查询合作列表：直接定位到游标之后的记录，不再扫描并丢弃 OFFSET 行
+     * @param createdAt 游标位置的创建时间，为 null 表示第一页
+     * @param id        游标位置的合作 ID
+     * @param size      本次读取的数量 (调用方通常多取一条以判断是否还有下一页)
+     * @return 合作列表项 DTO 列表
+     */
+    @Select("<script>" +
+            "SELECT " +
+            "c.id, c.cooperation_theme, c.initiator_region, c.receiver_region, " +
+            "c.cooperation_start_date, c.cooperation_end_date, c.created_at, c.personnel_count " +
+            "FROM cooperation c " +
+            "WHERE c.deleted = 0 " +
+            "<if test='createdAt != null'>" +
+            "  AND (c.created_at &lt; #{createdAt} OR (c.created_at = #{createdAt} AND c.id &lt; #{id})) " +
+            "</if>" +
+            "ORDER BY c.created_at DESC, c.id DESC " +
+            "LIMIT #{size}" +
+            "</script>")
+    List<CooperationListItemDTO> findPageAfterCursor(@Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("id") Long id,
+                                                     @Param("size") int size);
+
     @Select("SELECT COUNT(*) FROM cooperation WHERE deleted = 0")
     long countTotal();
 
     // --- 新增搜索方法 ---
 
    /**
-     * 根据搜索条件分页查询合作列表，并统计人员数量 (使用 @Select 和 <script>)
+     * 根据搜索条件分页查询合作列表，人员数量直接读取冗余字段 personnel_count (使用 @Select 和 <script>)
      *
      * @param request 搜索条件 DTO
+     * @param themeIds 主题索引解析出的候选合作 ID (非空)，为 null 时按主题 LIKE 过滤
      * @param offset  记录偏移量
      * @param size    每页数量
      * @return 符合条件的合作列表项 DTO 列表
@@ -90,15 +151,18 @@ public interface CooperationMapper {
     @Select("<script>" + // 使用 <script> 标签开启动态 SQL
             "SELECT " +
             "  c.id, c.cooperation_theme, c.initiator_region, c.receiver_region, " +
-            "  c.cooperation_start_date, c.cooperation_end_date, c.created_at, " +
-            "  COUNT(DISTINCT cp.id) AS personnel_count " +
+            "  c.cooperation_start_date, c.cooperation_end_date, c.created_at, c.personnel_count " +
             "FROM cooperation c " +
-            "LEFT JOIN cooperation_personnel cp ON c.id = cp.cooperation_id " +
             "WHERE c.deleted = 0 " +
-            // 动态添加 cooperation_theme 条件
-            "<if test='request.cooperationTheme != null and request.cooperationTheme != \"\"'>" +
+            // 动态添加 cooperation_theme 条件：主题索引已解析出候选 ID 时用主键过滤，否则退回 LIKE 模糊匹配
+            "<choose>" +
+            "<when test='themeIds != null'>" +
+            "  AND c.id IN <foreach item='themeId' collection='themeIds' open='(' separator=',' close=')'>#{themeId}</foreach> " +
+            "</when>" +
+            "<when test='request.cooperationTheme != null and request.cooperationTheme != \"\"'>" +
             "  AND c.cooperation_theme LIKE CONCAT('%', #{request.cooperationTheme}, '%') " +
-            "</if>" +
+            "</when>" +
+            "</choose>" +
             // 动态添加 initiator_region 条件
             "<if test='request.initiatorRegion != null and request.initiatorRegion != \"\"'>" +
             "  AND c.initiator_region = #{request.initiatorRegion} " +
@@ -107,29 +171,79 @@ public interface CooperationMapper {
             "<if test='request.receiverRegion != null and request.receiverRegion != \"\"'>" +
             "  AND c.receiver_region = #{request.receiverRegion} " +
             "</if>" +
-            "GROUP BY c.id " + // 添加 GROUP BY
-            "ORDER BY c.created_at DESC " + // 添加 ORDER BY
+            "ORDER BY c.created_at DESC, c.id DESC " + // 添加 ORDER BY (id 保证同一时间的记录顺序稳定)
             "LIMIT #{size} OFFSET #{offset}" + // 添加 LIMIT 和 OFFSET
             "</script>") // 结束 <script> 标签
     List<CooperationListItemDTO> searchPaginatedWithCount(
             @Param("request") SearchCooperationRequest request, // 将整个 DTO 作为参数传递
+            @Param("themeIds") Collection<Long> themeIds, // 主题索引解析出的候选 ID，为 null 时使用 LIKE
             @Param("offset") int offset,
             @Param("size") int size);
 
+    /**
+     * 根据搜索条件游标 (keyset) 分页查询合作列表
+     *
+     * @param request   搜索条件 DTO
+     * @param themeIds  主题索引解析出的候选合作 ID (非空)，为 null 时按主题 LIKE 过滤
+     * @param createdAt 游标位置的创建时间，为 null 表示第一页
+     * @param id        游标位置的合作 ID
+     * @param size      本次读取的数量
+     * @return 符合条件的合作列表项 DTO 列表
+     */
+    @Select("<script>" +
+            "SELECT " +
+            "  c.id, c.cooperation_theme, c.initiator_region, c.receiver_region, " +
+            "  c.cooperation_start_date, c.cooperation_end_date, c.created_at, c.personnel_count " +
+            "FROM cooperation c " +
+            "WHERE c.deleted = 0 " +
+            // 动态添加 cooperation_theme 条件：主题索引已解析出候选 ID 时用主键过滤，否则退回 LIKE 模糊匹配
+            "<choose>" +
+            "<when test='themeIds != null'>" +
+            "  AND c.id IN <foreach item='themeId' collection='themeIds' open='(' separator=',' close=')'>#{themeId}</foreach> " +
+            "</when>" +
+            "<when test='request.cooperationTheme != null and request.cooperationTheme != \"\"'>" +
+            "  AND c.cooperation_theme LIKE CONCAT('%', #{request.cooperationTheme}, '%') " +
+            "</when>" +
+            "</choose>" +
+            "<if test='request.initiatorRegion != null and request.initiatorRegion != \"\"'>" +
+            "  AND c.initiator_region = #{request.initiatorRegion} " +
+            "</if>" +
+            "<if test='request.receiverRegion != null and request.receiverRegion != \"\"'>" +
+            "  AND c.receiver_region = #{request.receiverRegion} " +
+            "</if>" +
+            "<if test='createdAt != null'>" +
+            "  AND (c.created_at &lt; #{createdAt} OR (c.created_at = #{createdAt} AND c.id &lt; #{id})) " +
+            "</if>" +
+            "ORDER BY c.created_at DESC, c.id DESC " +
+            "LIMIT #{size}" +
+            "</script>")
+    List<CooperationListItemDTO> searchPageAfterCursor(
+            @Param("request") SearchCooperationRequest request,
+            @Param("themeIds") Collection<Long> themeIds,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            @Param("size") int size);
+
     /**
      * 根据搜索条件查询合作总数 (使用 @Select 和 <script>)
      *
      * @param request 搜索条件 DTO
+     * @param themeIds 主题索引解析出的候选合作 ID (非空)，为 null 时按主题 LIKE 过滤
      * @return 符合条件的总记录数
      */
     @Select("<script>" + // 使用 <script> 标签开启动态 SQL
             "SELECT COUNT(*) " +
             "FROM cooperation c " +
             "WHERE c.deleted = 0 " +
-            // 动态添加 cooperation_theme 条件
-            "<if test='request.cooperationTheme != null and request.cooperationTheme != \"\"'>" + // 注意 test 条件中的引号和转义
+            // 动态添加 cooperation_theme 条件：主题索引已解析出候选 ID 时用主键过滤，否则退回 LIKE 模糊匹配
+            "<choose>" +
+            "<when test='themeIds != null'>" +
+            "  AND c.id IN <foreach item='themeId' collection='themeIds' open='(' separator=',' close=')'>#{themeId}</foreach> " +
+            "</when>" +
+            "<when test='request.cooperationTheme != null and request.cooperationTheme != \"\"'>" +
             "  AND c.cooperation_theme LIKE CONCAT('%', #{request.cooperationTheme}, '%') " +
-            "</if>" +
+            "</when>" +
+            "</choose>" +
             // 动态添加 initiator_region 条件
             "<if test='request.initiatorRegion != null and request.initiatorRegion != \"\"'>" +
             "  AND c.initiator_region = #{request.initiatorRegion} " +
@@ -140,5 +254,41 @@ public interface CooperationMapper {
             "</if>" +
             "</script>")
     // 结束 <script> 标签
-    long countTotalSearch(@Param("request") SearchCooperationRequest request); // 将整个 DTO 作为参数传递
-}
\ No newline at end of file
+    long countTotalSearch(@Param("request") SearchCooperationRequest request, // 将整个 DTO 作为参数传递
+                          @Param("themeIds") Collection<Long> themeIds); // 主题索引解析出的候选 ID，为 null 时使用 LIKE
+
+    // --- personnel_count 冗余计数修复 ---
+
+    /**
+     * 查询合作表当前最大 ID (用于按 ID 区间分批修复计数)
+     * @return 最大 ID，表为空时返回 null
+     */
+    @Select("SELECT MAX(id) FROM cooperation")
+    Long findMaxId();
+
+    /**
+     * 按 ID 区间批量重新计算 personnel_count，只更新与实际明细数量不一致的记录 (保留 updated_at)
+     * @param fromId 区间起始 ID (包含)
+     * @param toId   区间结束 ID (包含)
+     * @return 被修正的记录数
+     */
+    @Update("UPDATE cooperation c " +
+            "LEFT JOIN (" +
+            "  SELECT cooperation_id, COUNT(*) AS cnt FROM cooperation_personnel " +
+            "  WHERE cooperation_id BETWEEN #{fromId} AND #{toId} " +
+            "  GROUP BY cooperation_id" +
+            ") t ON t.cooperation_id = c.id " +
+            "SET c.personnel_count = COALESCE(t.cnt, 0), c.updated_at = c.updated_at " +
+            "WHERE c.id BETWEEN #{fromId} AND #{toId} " +
+            "AND c.personnel_count <> COALESCE(t.cnt, 0)")
+    int recalculatePersonnelCounts(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * 流式读取所有未删除合作的 ID 和主题 (用于启动时构建主题索引，不在内存中堆积完整结果集)
+     * @param handler 逐行处理结果的回调
+     */
+    @Select("SELECT id, cooperation_theme FROM cooperation WHERE deleted = 0")
+    @ResultType(Cooperation.class) // void + ResultHandler 的方法无法从返回值推断结果类型，必须显式声明
+    @Options(fetchSize = 1000)
+    void scanActiveThemes(ResultHandler<Cooperation> handler);
+}
@@ -1,9 +1,12 @@
 package com.shm.demo.mapper;
 
 import com.shm.demo.dto.CooperationPersonnelDetailDTO;
+import com.shm.demo.dto.CooperationPersonnelRequest;
 import com.shm.demo.entity.CooperationPersonnel;
 import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.session.ResultHandler;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -19,48 +22,122 @@ public interface CooperationPersonnelMapper {
             "</script>")
     int batchInsert(@Param("list") List<CooperationPersonnel> list);
 
-    @Delete("DELETE FROM cooperation_personnel WHERE cooperation_id = #{cooperationId}")
-    int deleteByCooperationId(@Param("cooperationId") Long cooperationId);
+    /**
+     * 插入单条人员明细 (批量导入时配合 ExecutorType.BATCH 使用，由 JDBC 批处理合并执行)
+     */
+    @Insert("INSERT INTO cooperation_personnel(cooperation_id, sending_enterprise_id, personnel_id, cooperation_job_type, " +
+            "receiving_enterprise_id, personnel_start_date, personnel_end_date) VALUES " +
+            "(#{cooperationId}, #{sendingEnterpriseId}, #{personnelId}, #{cooperationJobType}, " +
+            "#{receivingEnterpriseId}, #{personnelStartDate}, #{personnelEndDate})")
+    int insert(CooperationPersonnel cooperationPersonnel);
+
+    /**
+     * 根据合作 ID 查询当前存储的人员明细 (用于更新时计算差异)
+     * @param cooperationId 合作 ID
+     * @return 该合作下的全部人员明细
+     */
+    @Select("SELECT * FROM cooperation_personnel WHERE cooperation_id = #{cooperationId}")
+    List<CooperationPersonnel> findByCooperationId(@Param("cooperationId") Long cooperationId);
+
+    /**
+     * 按主键批量更新人员明细 (单条 UPDATE ... CASE 语句，保留原有 id 和 created_at)
+     * @param list 需要更新的明细，id 不能为空，调用方需保证列表非空
+     * @return 影响的行数
+     */
+    @Update("<script>" +
+            "UPDATE cooperation_personnel SET " +
+            "sending_enterprise_id = CASE id " +
+            "<foreach collection='list' item='item'>WHEN #{item.id} THEN #{item.sendingEnterpriseId} </foreach>END, " +
+            "personnel_id = CASE id " +
+            "<foreach collection='list' item='item'>WHEN #{item.id} THEN #{item.personnelId} </foreach>END, " +
+            "cooperation_job_type = CASE id " +
+            "<foreach collection='list' item='item'>WHEN #{item.id} THEN #{item.cooperationJobType} </foreach>END, " +
+            "receiving_enterprise_id = CASE id " +
+            "<foreach collection='list' item='item'>WHEN #{item.id} THEN #{item.receivingEnterpriseId} </foreach>END, " +
+            "personnel_start_date = CASE id " +
+            "<foreach collection='list' item='item'>WHEN #{item.id} THEN #{item.personnelStartDate} </foreach>END, " +
+            "personnel_end_date = CASE id " +
+            "<foreach collection='list' item='item'>WHEN #{item.id} THEN #{item.personnelEndDate} </foreach>END " +
+            "WHERE id IN " +
+            "<foreach collection='list' item='item' open='(' separator=',' close=')'>#{item.id}</foreach>" +
+            "</script>")
+    int batchUpdate(@Param("list") List<CooperationPersonnel> list);
+
+    /**
+     * 按主键批量删除人员明细
+     * @param ids 明细 ID 列表，调用方需保证非空
+     * @return 影响的行数
+     */
+    @Delete("<script>" +
+            "DELETE FROM cooperation_personnel WHERE id IN " +
+            "<foreach item='id' collection='ids' open='(' separator=',' close=')'>" +
+            "#{id}" +
+            "</foreach>" +
+            "</script>")
+    int deleteByIds(@Param("ids") List<Long> ids);
 
     /**
-     * 查找指定人员在指定时间段内是否存在于任何未删除的合作中 (排除指定的合作ID)
-     * @param personnelId 人员ID
-     * @param startDate   查询的开始日期
-     * @param endDate     查询的结束日期
-     * @param excludedCooperationId 要排除的合作ID (用于更新场景)
-     * @return 存在的合作人员明细列表 (如果为空则表示无重叠)
+     * 一次性查找请求中所有人员时间段与未删除合作的重叠记录 (所有人员一条查询，而不是逐人查询)
+     * 每个 (personnelId, 开始, 结束) 元组生成一个 OR 分支，重叠判定：现有结束 >= 新开始 且 现有开始 <= 新结束
+     * @param items 待检查的人员时间段列表，调用方需保证非空
+     * @param excludedCooperationId 要排除的合作ID (更新场景)，新增场景传 null
+     * @return 所有存在冲突的合作人员明细 (可能对应请求中的多条记录，由调用方在内存中匹配)
      */
-    @Select("SELECT cp.* FROM cooperation_personnel cp " +
+    @Select("<script>" +
+            "SELECT cp.* FROM cooperation_personnel cp " +
             "JOIN cooperation c ON cp.cooperation_id = c.id " +
-            "WHERE cp.personnel_id = #{personnelId} " +
-            "AND c.deleted = 0 " +
-            "AND cp.cooperation_id != #{excludedCooperationId} " + // 排除当前正在修改的合作
-            "AND cp.personnel_end_date >= #{startDate} " + // 现有结束 >= 新开始
-            "AND cp.personnel_start_date <= #{endDate}")   // 现有开始 <= 新结束
-    List<CooperationPersonnel> findOverlappingPersonnelAssignmentsExcludingCooperation(
-            @Param("personnelId") Long personnelId,
-            @Param("startDate") LocalDate startDate,
-            @Param("endDate") LocalDate endDate,
+            "WHERE c.deleted = 0 " +
+            "<if test='excludedCooperationId != null'>" +
+            "  AND cp.cooperation_id != #{excludedCooperationId} " +
+            "</if>" +
+            "AND (" +
+            "<foreach item='item' collection='items' separator=' OR '>" +
+            "(cp.personnel_id = #{item.personnelId} " +
+            "AND cp.personnel_end_date >= #{item.personnelStartDate} " +
+            "AND cp.personnel_start_date &lt;= #{item.personnelEndDate})" +
+            "</foreach>" +
+            ")" +
+            "</script>")
+    List<CooperationPersonnel> findOverlappingAssignmentsBatch(
+            @Param("items") List<CooperationPersonnelRequest> items,
             @Param("excludedCooperationId") Long excludedCooperationId);
 
-    // --- 新增 findOverlappingPersonnelAssignments 方法 ---
     /**
-     * 查找指定人员在指定时间段内是否存在于任何未删除的合作中 (用于新增场景)
-     * @param personnelId 人员ID
-     * @param startDate   查询的开始日期
-     * @param endDate     查询的结束日期
-     * @return 存在的合作人员明细列表 (如果为空则表示无重叠)
+     * 流式读取指定人员在查询区间内占用的时段 (未删除的合作)，按人员、开始日期排序，供空闲时段计算一次扫描完成。
+     * 区间判定与 findOverlappingAssignmentsBatch 一致：现有结束 >= 区间开始 且 现有开始 <= 区间结束。
+     * 只填充 personnelId、personnelStartDate、personnelEndDate
+     * @param personnelIds 人员 ID，调用方需保证非空
+     * @param startDate 查询区间开始
+     * @param endDate 查询区间结束
+     * @param handler 逐行处理结果的回调
      */
-    @Select("SELECT cp.* FROM cooperation_personnel cp " +
+    @Select("<script>" +
+            "SELECT cp.personnel_id, cp.personnel_start_date, cp.personnel_end_date FROM cooperation_personnel cp " +
             "JOIN cooperation c ON cp.cooperation_id = c.id " +
-            "WHERE cp.personnel_id = #{personnelId} " +
-            "AND c.deleted = 0 " +
-            "AND cp.personnel_end_date >= #{startDate} " + // 现有结束 >= 新开始
-            "AND cp.personnel_start_date <= #{endDate}")   // 现有开始 <= 新结束
-    List<CooperationPersonnel> findOverlappingPersonnelAssignments(
-            @Param("personnelId") Long personnelId,
-            @Param("startDate") LocalDate startDate,
-            @Param("endDate") LocalDate endDate);
+            "WHERE c.deleted = 0 " +
+            "AND cp.personnel_id IN " +
+            "<foreach item='id' collection='personnelIds' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "AND cp.personnel_end_date >= #{startDate} " +
+            "AND cp.personnel_start_date &lt;= #{endDate} " +
+            "ORDER BY cp.personnel_id, cp.personnel_start_date" +
+            "</script>")
+    @ResultType(CooperationPersonnel.class)
+    @Options(fetchSize = 1000)
+    void streamAssignmentPeriods(@Param("personnelIds") Collection<Long> personnelIds,
+                                 @Param("startDate") LocalDate startDate,
+                                 @Param("endDate") LocalDate endDate,
+                                 ResultHandler<CooperationPersonnel> handler);
+
+    /**
+     * 流式读取所有未删除合作的人员时段 (用于启动时构建人员时段索引，不在内存中堆积完整结果集)
+     * 只填充 cooperationId、personnelId、personnelStartDate、personnelEndDate
+     * @param handler 逐行处理结果的回调
+     */
+    @Select("SELECT cp.cooperation_id, cp.personnel_id, cp.personnel_start_date, cp.personnel_end_date " +
+            "FROM cooperation_personnel cp JOIN cooperation c ON cp.cooperation_id = c.id WHERE c.deleted = 0")
+    @ResultType(CooperationPersonnel.class) // void + ResultHandler 的方法无法从返回值推断结果类型，必须显式声明
+    @Options(fetchSize = 1000)
+    void scanActiveAssignments(ResultHandler<CooperationPersonnel> handler);
 
     /**
      * 根据合作 ID 查询合作人员详细信息列表
@@ -84,19 +161,22 @@ public interface CooperationPersonnelMapper {
             "WHERE cp.cooperation_id = #{cooperationId}") // 移除了不存在的 cp.deleted 条件
     List<CooperationPersonnelDetailDTO> findDetailByCooperationId(@Param("cooperationId") Long cooperationId);
 
-    // --- 新增批量删除方法 ---
     /**
-     * 根据 Cooperation ID 列表批量删除所有关联的人员记录
-     * (用于批量删除场景)
-     * @param cooperationIds 合作主记录 ID 列表
-     * @return 影响的行数
+     * 查询引用了指定人员的合作 ID (用于人员信息变更后失效合作详情缓存)
+     * @param personnelId 人员 ID
+     * @return 合作 ID 列表
      */
-    @Delete("<script>" +
-            "DELETE FROM cooperation_personnel WHERE cooperation_id IN " +
-            "<foreach item='id' collection='cooperationIds' open='(' separator=',' close=')'>" +
-            "#{id}" +
-            "</foreach>" +
-            "</script>")
-    int deleteByCooperationIds(@Param("cooperationIds") List<Long> cooperationIds);
-    // --- 结束新增批量删除方法 ---
-}
\ No newline at end of file
+    @Select("SELECT DISTINCT cooperation_id FROM cooperation_personnel WHERE personnel_id = #{personnelId}")
+    List<Long> findCooperationIdsByPersonnelId(@Param("personnelId") Long personnelId);
+
+    /**
+     * 查询在详情中展示了指定企业名称的合作 ID：企业作为接收企业，或作为合作人员的任职企业
+     * (用于企业信息变更后失效合作详情缓存)
+     * @param enterpriseId 企业 ID
+     * @return 合作 ID 列表
+     */
+    @Select("SELECT DISTINCT cp.cooperation_id FROM cooperation_personnel cp " +
+            "LEFT JOIN personnel p ON cp.personnel_id = p.id " +
+            "WHERE cp.receiving_enterprise_id = #{enterpriseId} OR p.enterprise_id = #{enterpriseId}")
+    List<Long> findCooperationIdsByEnterpriseId(@Param("enterpriseId") Long enterpriseId);
+}
@@ -0,0 +1,169 @@
+package com.shm.demo.mapper;
+
+import com.shm.demo.dto.CooperationStatsRowDTO;
+import org.apache.ibatis.annotations.*;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 合作统计聚合表 (cooperation_region_stats、cooperation_job_type_stats) 的增量维护、全量重建与读取。
+ * <p>
+ * 累加写入在 MySQL 上使用 8.0.19 起的行别名写法 (INSERT ... AS new ON DUPLICATE KEY UPDATE x = x + new.x，
+ * INSERT ... SELECT 时把 SELECT 包成派生表)，取代已废弃的 VALUES(col)；其他数据库 (测试和基准测试使用的 H2)
+ * 不支持行别名，使用未标注 databaseId 的 VALUES(col) 写法 (见 MapperDatabaseIdProvider)。
+ */
+@Mapper
+public interface CooperationStatsMapper {
+
+    String INSERT_REGION_STATS = "INSERT INTO cooperation_region_stats " +
+            "(initiator_region, receiver_region, slot, cooperation_count, personnel_count, person_days) ";
+
+    String INSERT_JOB_TYPE_STATS = "INSERT INTO cooperation_job_type_stats " +
+            "(initiator_region, receiver_region, cooperation_job_type, slot, cooperation_count, personnel_count, person_days) ";
+
+    String ADD_TO_REGION_STATS = "ON DUPLICATE KEY UPDATE " +
+            "cooperation_count = cooperation_region_stats.cooperation_count + new.cooperation_count, " +
+            "personnel_count = cooperation_region_stats.personnel_count + new.personnel_count, " +
+            "person_days = cooperation_region_stats.person_days + new.person_days";
+
+    String ADD_TO_JOB_TYPE_STATS = "ON DUPLICATE KEY UPDATE " +
+            "cooperation_count = cooperation_job_type_stats.cooperation_count + new.cooperation_count, " +
+            "personnel_count = cooperation_job_type_stats.personnel_count + new.personnel_count, " +
+            "person_days = cooperation_job_type_stats.person_days + new.person_days";
+
+    String ADD_VALUES = "ON DUPLICATE KEY UPDATE cooperation_count = cooperation_count + VALUES(cooperation_count), " +
+            "personnel_count = personnel_count + VALUES(personnel_count), person_days = person_days + VALUES(person_days)";
+
+    String REGION_STATS_OF_IDS = "SELECT c.initiator_region, c.receiver_region, #{slot} AS slot, " +
+            "#{sign} * COUNT(DISTINCT c.id) AS cooperation_count, #{sign} * COUNT(cp.id) AS personnel_count, " +
+            "#{sign} * COALESCE(SUM(TIMESTAMPDIFF(DAY, cp.personnel_start_date, cp.personnel_end_date) + 1), 0) AS person_days " +
+            "FROM cooperation c LEFT JOIN cooperation_personnel cp ON cp.cooperation_id = c.id " +
+            "WHERE c.id IN " +
+            "<foreach item='id' collection='ids' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "GROUP BY c.initiator_region, c.receiver_region";
+
+    String JOB_TYPE_STATS_OF_IDS = "SELECT c.initiator_region, c.receiver_region, cp.cooperation_job_type, #{slot} AS slot, " +
+            "#{sign} * COUNT(DISTINCT c.id) AS cooperation_count, #{sign} * COUNT(*) AS personnel_count, " +
+            "#{sign} * SUM(TIMESTAMPDIFF(DAY, cp.personnel_start_date, cp.personnel_end_date) + 1) AS person_days " +
+            "FROM cooperation c JOIN cooperation_personnel cp ON cp.cooperation_id = c.id " +
+            "WHERE c.id IN " +
+            "<foreach item='id' collection='ids' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "GROUP BY c.initiator_region, c.receiver_region, cp.cooperation_job_type";
+
+    /**
+     * 把指定合作 (连同人员明细) 的贡献按 sign 加到地区统计表的 slot 行上。
+     * 统计值从数据库中合作的当前状态计算，调用方需保证这些合作行在本事务中已加锁 (刚插入、已执行 UPDATE 或 SELECT ... FOR UPDATE)
+     * @param ids 合作 ID，调用方需保证非空
+     * @param sign 1 加入统计，-1 移出统计
+     * @param slot 写入的分片行
+     * @return 影响的行数
+     */
+    @Insert(databaseId = "mysql", value = "<script>" + INSERT_REGION_STATS +
+            "SELECT * FROM (" + REGION_STATS_OF_IDS + ") AS new " + ADD_TO_REGION_STATS + "</script>")
+    @Insert("<script>" + INSERT_REGION_STATS + REGION_STATS_OF_IDS + " " + ADD_VALUES + "</script>")
+    int applyRegionStats(@Param("ids") Collection<Long> ids, @Param("sign") int sign, @Param("slot") int slot);
+
+    /**
+     * 同上，按合作类型细分的统计表
+     */
+    @Insert(databaseId = "mysql", value = "<script>" + INSERT_JOB_TYPE_STATS +
+            "SELECT * FROM (" + JOB_TYPE_STATS_OF_IDS + ") AS new " + ADD_TO_JOB_TYPE_STATS + "</script>")
+    @Insert("<script>" + INSERT_JOB_TYPE_STATS + JOB_TYPE_STATS_OF_IDS + " " + ADD_VALUES + "</script>")
+    int applyJobTypeStats(@Param("ids") Collection<Long> ids, @Param("sign") int sign, @Param("slot") int slot);
+
+    /**
+     * 按 (发起方地区, 接收方地区) 汇总各 slot，只返回仍有未删除合作的分组
+     */
+    @Select("SELECT initiator_region, receiver_region, SUM(cooperation_count) AS cooperation_count, " +
+            "SUM(personnel_count) AS personnel_count, SUM(person_days) AS person_days " +
+            "FROM cooperation_region_stats GROUP BY initiator_region, receiver_region " +
+            "HAVING SUM(cooperation_count) > 0 ORDER BY initiator_region, receiver_region")
+    List<CooperationStatsRowDTO> findRegionStats();
+
+    /**
+     * 按 (发起方地区, 接收方地区, 合作类型) 汇总各 slot，只返回仍有人员明细的分组
+     */
+    @Select("SELECT initiator_region, receiver_region, cooperation_job_type, SUM(cooperation_count) AS cooperation_count, " +
+            "SUM(personnel_count) AS personnel_count, SUM(person_days) AS person_days " +
+            "FROM cooperation_job_type_stats GROUP BY initiator_region, receiver_region, cooperation_job_type " +
+            "HAVING SUM(personnel_count) > 0 ORDER BY initiator_region, receiver_region, cooperation_job_type")
+    List<CooperationStatsRowDTO> findJobTypeStats();
+
+    // --- 全量重建 (CooperationStatsRebuildJob) ---
+
+    /**
+     * 从合作及人员明细表按 (发起方地区, 接收方地区) 聚合未删除合作的统计值 (一致性读，不加锁)
+     */
+    @Select("SELECT c.initiator_region, c.receiver_region, COUNT(DISTINCT c.id) AS cooperation_count, " +
+            "COUNT(cp.id) AS personnel_count, " +
+            "COALESCE(SUM(TIMESTAMPDIFF(DAY, cp.personnel_start_date, cp.personnel_end_date) + 1), 0) AS person_days " +
+            "FROM cooperation c LEFT JOIN cooperation_personnel cp ON cp.cooperation_id = c.id " +
+            "WHERE c.deleted = 0 GROUP BY c.initiator_region, c.receiver_region")
+    List<CooperationStatsRowDTO> aggregateRegionStats();
+
+    /**
+     * 同上，按合作类型细分
+     */
+    @Select("SELECT c.initiator_region, c.receiver_region, cp.cooperation_job_type, COUNT(DISTINCT c.id) AS cooperation_count, " +
+            "COUNT(*) AS personnel_count, SUM(TIMESTAMPDIFF(DAY, cp.personnel_start_date, cp.personnel_end_date) + 1) AS person_days " +
+            "FROM cooperation c JOIN cooperation_personnel cp ON cp.cooperation_id = c.id " +
+            "WHERE c.deleted = 0 GROUP BY c.initiator_region, c.receiver_region, cp.cooperation_job_type")
+    List<CooperationStatsRowDTO> aggregateJobTypeStats();
+
+    /**
+     * 读取地区统计表的全部行 (各 slot 分别返回)
+     * @param forUpdate 为 true 时锁定读取到的行直到事务结束，合并期间增量维护的写事务等待
+     */
+    @Select("<script>" +
+            "SELECT initiator_region, receiver_region, cooperation_count, personnel_count, person_days " +
+            "FROM cooperation_region_stats<if test='forUpdate'> FOR UPDATE</if>" +
+            "</script>")
+    List<CooperationStatsRowDTO> findRegionStatsRows(@Param("forUpdate") boolean forUpdate);
+
+    /**
+     * 同上，按合作类型细分的统计表
+     */
+    @Select("<script>" +
+            "SELECT initiator_region, receiver_region, cooperation_job_type, cooperation_count, personnel_count, person_days " +
+            "FROM cooperation_job_type_stats<if test='forUpdate'> FOR UPDATE</if>" +
+            "</script>")
+    List<CooperationStatsRowDTO> findJobTypeStatsRows(@Param("forUpdate") boolean forUpdate);
+
+    @Delete("DELETE FROM cooperation_region_stats")
+    int deleteAllRegionStats();
+
+    @Delete("DELETE FROM cooperation_job_type_stats")
+    int deleteAllJobTypeStats();
+
+    /**
+     * 把给定分组的统计值累加到地区统计表的 slot 行上
+     * @param rows 分组及其统计值，调用方需保证非空
+     * @param slot 写入的分片行
+     * @return 影响的行数
+     */
+    @Insert(databaseId = "mysql", value = "<script>" + INSERT_REGION_STATS + "VALUES " +
+            "<foreach item='row' collection='rows' separator=','>" +
+            "(#{row.initiatorRegion}, #{row.receiverRegion}, #{slot}, #{row.cooperationCount}, #{row.personnelCount}, #{row.personDays})" +
+            "</foreach> AS new " + ADD_TO_REGION_STATS + "</script>")
+    @Insert("<script>" + INSERT_REGION_STATS + "VALUES " +
+            "<foreach item='row' collection='rows' separator=','>" +
+            "(#{row.initiatorRegion}, #{row.receiverRegion}, #{slot}, #{row.cooperationCount}, #{row.personnelCount}, #{row.personDays})" +
+            "</foreach> " + ADD_VALUES + "</script>")
+    int addRegionStats(@Param("rows") Collection<CooperationStatsRowDTO> rows, @Param("slot") int slot);
+
+    /**
+     * 同上，按合作类型细分的统计表
+     */
+    @Insert(databaseId = "mysql", value = "<script>" + INSERT_JOB_TYPE_STATS + "VALUES " +
+            "<foreach item='row' collection='rows' separator=','>" +
+            "(#{row.initiatorRegion}, #{row.receiverRegion}, #{row.cooperationJobType}, #{slot}, " +
+            "#{row.cooperationCount}, #{row.personnelCount}, #{row.personDays})" +
+            "</foreach> AS new " + ADD_TO_JOB_TYPE_STATS + "</script>")
+    @Insert("<script>" + INSERT_JOB_TYPE_STATS + "VALUES " +
+            "<foreach item='row' collection='rows' separator=','>" +
+            "(#{row.initiatorRegion}, #{row.receiverRegion}, #{row.cooperationJobType}, #{slot}, " +
+            "#{row.cooperationCount}, #{row.personnelCount}, #{row.personDays})" +
+            "</foreach> " + ADD_VALUES + "</script>")
+    int addJobTypeStats(@Param("rows") Collection<CooperationStatsRowDTO> rows, @Param("slot") int slot);
+}
@@ -4,8 +4,10 @@ import com.github.pagehelper.Page; // 引入 PageHelper 的 Page
 import com.shm.demo.dto.SearchEnterpriseRequest; // 引入请求 DTO
 import com.shm.demo.entity.Enterprise;
 import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.type.JdbcType;
 
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -36,7 +38,7 @@ public interface EnterpriseMapper {
             @Result(column = "region", property = "region"),
             @Result(column = "deleted", property = "deleted", jdbcType = JdbcType.TINYINT) // 修改映射类型
     })
-    @Select("SELECT id, name, cooperation_type, enterprise_type, region, deleted FROM enterprise WHERE id = #{id} AND deleted = 0") // 修改为 deleted = 0
+    @Select("SELECT id, name, cooperation_type, enterprise_type, region, deleted, version FROM enterprise WHERE id = #{id} AND deleted = 0") // 修改为 deleted = 0
     Enterprise findById(@Param("id") Long id);
 
 
@@ -53,30 +55,56 @@ public interface EnterpriseMapper {
     })
     Enterprise findByName(@Param("name") String name); 
 
+    /**
+     * 根据 ID 列表批量查询未删除的企业 (用于批量校验，避免逐行查询)
+     * @param ids 企业 ID 列表，调用方需保证非空
+     * @return 存在且未删除的企业列表 (不保证顺序，缺失的 ID 不会出现在结果中)
+     */
+    @Select("<script>" +
+            "SELECT id, name, cooperation_type, enterprise_type, region, deleted, version FROM enterprise " +
+            "WHERE deleted = 0 AND id IN " +
+            "<foreach item='id' collection='ids' open='(' separator=',' close=')'>" +
+            "#{id}" +
+            "</foreach>" +
+            "</script>")
+    @ResultMap("BaseResultMap")
+    List<Enterprise> findByIds(@Param("ids") Collection<Long> ids);
+
     /**
      * 查询所有未删除的企业
      */
-    @Select("SELECT id, name, cooperation_type, enterprise_type, region, deleted FROM enterprise WHERE deleted = 0") // 修改为 deleted = 0
+    @Select("SELECT id, name, cooperation_type, enterprise_type, region, deleted, version FROM enterprise WHERE deleted = 0") // 修改为 deleted = 0
     @ResultMap("BaseResultMap")
     List<Enterprise> findAll();
 
     /**
-     * 更新企业信息
+     * 流式读取所有未删除的企业 (用于导出，逐行回调，不在内存中堆积完整结果集)
+     * @param handler 逐行处理结果的回调
+     */
+    @Select("SELECT id, name, cooperation_type, enterprise_type, region, deleted, version FROM enterprise WHERE deleted = 0")
+    @ResultMap("BaseResultMap")
+    @Options(fetchSize = 1000)
+    void streamAll(ResultHandler<Enterprise> handler);
+
+    /**
+     * 更新企业信息；携带 version 时按 CAS 更新，版本不一致时影响行数为 0
      */
     @Update("<script>" +
             "UPDATE enterprise " +
             "<set>" +
             // ... 其他字段更新 ...
             "<if test='region != null'>region = #{region},</if>" +
+            "version = version + 1," +
             "</set>" +
             "WHERE id = #{id} AND deleted = 0" + // 修改为 deleted = 0
+            "<if test='version != null'> AND version = #{version}</if>" +
             "</script>")
     int update(Enterprise enterprise);
 
     /**
      * 根据 ID 逻辑删除企业 (设置为 1)
      */
-    @Update("UPDATE enterprise SET deleted = 1 WHERE id = #{id} AND deleted = 0") // 修改为 SET deleted = 1 和 WHERE deleted = 0
+    @Update("UPDATE enterprise SET deleted = 1, updated_at = CURRENT_TIMESTAMP WHERE id = #{id} AND deleted = 0") // updated_at 即删除时间，归档任务据此计算保留期限
     int softDeleteById(@Param("id") Long id);
 
     // ... hardDeleteById (可选) ...
@@ -95,11 +123,14 @@ public interface EnterpriseMapper {
     Enterprise findRawByName(@Param("name") String name);
 
     /**
-     * 根据 ID 查询企业（无论是否删除，用于检查记录真实状态）
+     * 根据 ID 查询企业（无论是否删除，用于检查记录真实状态；已归档的企业从 enterprise_archive 中读取）
      * @param id 企业 ID
      * @return 企业信息，可能为 null
      */
-    @Select("SELECT id, name, cooperation_type, enterprise_type, region, deleted FROM enterprise WHERE id = #{id} LIMIT 1")
+    @Select("SELECT id, name, cooperation_type, enterprise_type, region, deleted, version FROM enterprise WHERE id = #{id} " +
+            "UNION ALL " +
+            "SELECT id, name, cooperation_type, enterprise_type, region, deleted, NULL FROM enterprise_archive WHERE id = #{id} " +
+            "LIMIT 1")
     @ResultMap("BaseResultMap") // 复用结果映射
     Enterprise findRawById(@Param("id") Long id); // 新增的方法
 
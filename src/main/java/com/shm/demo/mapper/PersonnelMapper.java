@@ -4,8 +4,10 @@ import com.github.pagehelper.Page; // 引入 PageHelper 的 Page
 import com.shm.demo.dto.SearchPersonnelRequest; // 引入请求 DTO
 import com.shm.demo.entity.Personnel;
 import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.session.ResultHandler;
 // import org.apache.ibatis.type.JdbcType; // 不再需要显式指定 JdbcType
 
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -21,19 +23,69 @@ public interface PersonnelMapper {
      * 根据 ID 查询未删除的人员信息
      */
     // 移除 @ResultMap, 显式指定列
-    @Select("SELECT id, name, gender, age, phone, education, start_work_date, enterprise_id, created_at, updated_at, deleted " +
+    @Select("SELECT id, name, gender, age, phone, education, start_work_date, enterprise_id, created_at, updated_at, deleted, version " +
             "FROM personnel WHERE id = #{id} AND deleted = 0")
     Personnel findById(@Param("id") Long id);
 
+    /**
+     * 根据 ID 列表批量查询未删除的人员信息 (用于批量校验，避免逐行查询)
+     * @param ids 人员 ID 列表，调用方需保证非空
+     * @return 存在且未删除的人员列表 (不保证顺序，缺失的 ID 不会出现在结果中)
+     */
+    @Select("<script>" +
+            "SELECT id, name, gender, age, phone, education, start_work_date, enterprise_id, created_at, updated_at, deleted " +
+            "FROM personnel WHERE deleted = 0 AND id IN " +
+            "<foreach item='id' collection='ids' open='(' separator=',' close=')'>" +
+            "#{id}" +
+            "</foreach>" +
+            "</script>")
+    List<Personnel> findByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 查询企业下全部未删除人员的 ID 和姓名 (按 ID 升序)
+     * @param enterpriseId 任职企业 ID
+     * @return 只填充 id、name 的人员列表
+     */
+    @Select("SELECT id, name FROM personnel WHERE enterprise_id = #{enterpriseId} AND deleted = 0 ORDER BY id")
+    List<Personnel> findIdAndNameByEnterpriseId(@Param("enterpriseId") Long enterpriseId);
+
+    /**
+     * 按 ID 升序对人员行加排他锁，直到当前事务结束 (用作按人员的数据库级锁，多实例部署时同样生效)。
+     * 不过滤 deleted，已删除的人员也加锁；不存在的 ID 不加锁 (引用校验会拒绝这类请求)。
+     * 必须在事务中任何普通 SELECT 之前调用：InnoDB 可重复读的快照在第一次一致性读时建立，
+     * 先加锁才能保证之后的重叠查询看到持有锁的上一个事务已提交的数据。
+     * @param ids 人员ID集合，调用方需保证非空
+     * @return 加锁的人员ID
+     */
+    @Select("<script>" +
+            "SELECT id FROM personnel WHERE id IN " +
+            "<foreach item='id' collection='ids' open='(' separator=',' close=')'>" +
+            "#{id}" +
+            "</foreach>" +
+            " ORDER BY id FOR UPDATE" +
+            "</script>")
+    List<Long> lockByIds(@Param("ids") Collection<Long> ids);
+
     /**
      * 查询所有未删除的人员信息
      * 注意：如果数据量大，应考虑分页查询
      */
     // 移除 @ResultMap, 显式指定列
-    @Select("SELECT id, name, gender, age, phone, education, start_work_date, enterprise_id, created_at, updated_at, deleted " +
+    @Select("SELECT id, name, gender, age, phone, education, start_work_date, enterprise_id, created_at, updated_at, deleted, version " +
             "FROM personnel WHERE deleted = 0")
     List<Personnel> findAll();
 
+    /**
+     * 流式读取所有未删除的人员 (用于导出，逐行回调，不在内存中堆积完整结果集)
+     * 依赖连接参数 useCursorFetch=true，fetchSize 生效为服务端游标
+     * @param handler 逐行处理结果的回调
+     */
+    @Select("SELECT id, name, gender, age, phone, education, start_work_date, enterprise_id, created_at, updated_at, deleted, version " +
+            "FROM personnel WHERE deleted = 0")
+    @ResultType(Personnel.class) // void + ResultHandler 的方法无法从返回值推断结果类型，必须显式声明
+    @Options(fetchSize = 1000)
+    void streamAll(ResultHandler<Personnel> handler);
+
     /**
      * 根据手机号查询未删除的人员数量 (用于校验唯一性)
      */
@@ -50,11 +102,15 @@ public interface PersonnelMapper {
     Personnel findRawByPhone(@Param("phone") String phone);
 
     /**
-     * 根据 ID 查询人员信息（无论是否删除，用于检查记录真实状态）
+     * 根据 ID 查询人员信息（无论是否删除，用于检查记录真实状态；已归档的人员从 personnel_archive 中读取）
      */
     // 移除 @ResultMap, 显式指定列
-    @Select("SELECT id, name, gender, age, phone, education, start_work_date, enterprise_id, created_at, updated_at, deleted " +
-            "FROM personnel WHERE id = #{id} LIMIT 1")
+    @Select("SELECT id, name, gender, age, phone, education, start_work_date, enterprise_id, created_at, updated_at, deleted, version " +
+            "FROM personnel WHERE id = #{id} " +
+            "UNION ALL " +
+            "SELECT id, name, gender, age, phone, education, start_work_date, enterprise_id, created_at, updated_at, deleted, NULL " +
+            "FROM personnel_archive WHERE id = #{id} " +
+            "LIMIT 1")
     Personnel findRawById(@Param("id") Long id);
 
     // --- 新增搜索方法 ---
@@ -88,6 +144,33 @@ public interface PersonnelMapper {
     @Options(useGeneratedKeys = true, keyProperty = "id")
     int insert(Personnel personnel);
 
+    /**
+     * 多行插入人员 (批量导入使用)，生成的主键回填到列表中的每个对象
+     * @param list 待插入的人员，调用方需保证非空
+     * @return 插入的行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO personnel (name, gender, age, phone, education, start_work_date, enterprise_id) VALUES " +
+            "<foreach collection='list' item='item' separator=','>" +
+            "(#{item.name}, #{item.gender}, #{item.age}, #{item.phone}, #{item.education}, #{item.startWorkDate}, #{item.enterpriseId})" +
+            "</foreach>" +
+            "</script>")
+    @Options(useGeneratedKeys = true, keyProperty = "list.id")
+    int batchInsert(@Param("list") List<Personnel> list);
+
+    /**
+     * 批量查询已被未删除人员使用的手机号 (批量导入时一次性校验手机号唯一性)
+     * @param phones 待检查的手机号，调用方需保证非空
+     * @return 已存在的手机号
+     */
+    @Select("<script>" +
+            "SELECT phone FROM personnel WHERE deleted = 0 AND phone IN " +
+            "<foreach item='phone' collection='phones' open='(' separator=',' close=')'>" +
+            "#{phone}" +
+            "</foreach>" +
+            "</script>")
+    List<String> findExistingPhones(@Param("phones") Collection<String> phones);
+
 
     // --- 更新操作 ---
     // ... update 方法不变 ...
@@ -101,16 +184,18 @@ public interface PersonnelMapper {
             " <if test='education != null'>education = #{education},</if>" +
             " <if test='startWorkDate != null'>start_work_date = #{startWorkDate},</if>" +
             " <if test='enterpriseId != null'>enterprise_id = #{enterpriseId},</if>" +
+            " version = version + 1," +
             // updated_at 由数据库自动更新，不需要在此设置
             "</set>" +
             "WHERE id = #{id} AND deleted = 0" + // 只能更新未删除的记录
+            "<if test='version != null'> AND version = #{version}</if>" + // 携带版本号时按 CAS 更新，版本不一致则不更新
             "</script>")
     int update(Personnel personnel);
 
 
     // --- 删除操作 ---
     // ... softDeleteById 方法不变 ...
-    @Update("UPDATE personnel SET deleted = 1 WHERE id = #{id} AND deleted = 0")
+    @Update("UPDATE personnel SET deleted = 1, updated_at = CURRENT_TIMESTAMP WHERE id = #{id} AND deleted = 0") // updated_at 即删除时间
     int softDeleteById(@Param("id") Long id);
 
 }
\ No newline at end of file
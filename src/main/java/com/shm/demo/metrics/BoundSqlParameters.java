@@ -0,0 +1,39 @@
+package com.shm.demo.metrics;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.session.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按 SQL 中 ? 占位符的顺序取出参数值，取值规则与 MyBatis 的 DefaultParameterHandler 相同
+ */
+final class BoundSqlParameters {
+
+    private BoundSqlParameters() {
+    }
+
+    static List<Object> values(Configuration configuration, BoundSql boundSql, Object parameterObject) {
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+        List<Object> values = new ArrayList<>(mappings.size());
+        for (ParameterMapping mapping : mappings) {
+            if (mapping.getMode() == ParameterMode.OUT) {
+                continue;
+            }
+            String property = mapping.getProperty();
+            if (boundSql.hasAdditionalParameter(property)) {
+                values.add(boundSql.getAdditionalParameter(property));
+            } else if (parameterObject == null) {
+                values.add(null);
+            } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+                values.add(parameterObject);
+            } else {
+                values.add(configuration.newMetaObject(parameterObject).getValue(property));
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,209 @@
+package com.shm.demo.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 记录每条 Mapper 语句的执行指标 (由 mybatis-spring-boot-starter 自动注册到 SqlSessionFactory)。
+ * <p>
+ * 指标按语句 ID 的短名 (如 {@code CooperationMapper.searchPaginatedWithCount}) 打标签，通过 Actuator 暴露：
+ * <ul>
+ *     <li>{@code mybatis.statement}：耗时 (Timer)，outcome=success/error，exception 为异常类名，可据此统计错误次数；</li>
+ *     <li>{@code mybatis.statement.rows}：查询返回行数或更新影响行数 (BATCH 执行器的更新在 flush 前行数未知，不记录)。</li>
+ * </ul>
+ * 使用 ResultHandler 流式读取的语句，耗时包含回调处理 (如写出响应) 的时间，行数为回调次数。
+ * 连接在执行第一条语句时才从连接池获取，因此连接池排队时该语句的耗时也包含等待连接的时间。
+ * <p>
+ * 耗时超过阈值的语句在当前线程中只采集 SQL 和参数值，格式化和输出日志交给后台单线程完成；
+ * 日志队列已满时直接丢弃并计数，不阻塞业务线程。
+ */
+@Slf4j
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class})
+})
+public class MapperMetricsInterceptor implements Interceptor {
+
+    private static final String TIMER_NAME = "mybatis.statement";
+    private static final String ROWS_NAME = "mybatis.statement.rows";
+
+    private final MeterRegistry registry;
+    private final long slowThresholdNanos;
+    private final ThreadPoolExecutor slowLogExecutor;
+    private final AtomicLong droppedSlowLogs = new AtomicLong();
+
+    // 成功路径的 Timer / 行数统计按语句缓存，避免每次执行都在注册表中查找
+    private final Map<String, StatementMeters> meters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MapperMetricsInterceptor(MeterRegistry registry,
+                                    @Value("${mapper.metrics.slow-threshold:500ms}") Duration slowThreshold,
+                                    @Value("${mapper.metrics.slow-log-queue-capacity:1000}") int slowLogQueueCapacity) {
+        this.registry = registry;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.slowLogExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(slowLogQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "mapper-slow-log");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> droppedSlowLogs.incrementAndGet());
+        registry.gauge("mybatis.statement.slow.dropped", droppedSlowLogs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        slowLogExecutor.shutdown();
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object[] args = invocation.getArgs();
+        MappedStatement ms = (MappedStatement) args[0];
+        StatementMeters statementMeters = meters.computeIfAbsent(ms.getId(), id -> new StatementMeters(ms));
+
+        CountingResultHandler countingHandler = null;
+        if (args.length >= 4 && args[3] != null) {
+            countingHandler = new CountingResultHandler((ResultHandler<?>) args[3]);
+            args[3] = countingHandler;
+        }
+
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            long elapsed = System.nanoTime() - start;
+            Timer.builder(TIMER_NAME)
+                    .tags("statement", statementMeters.name, "command", statementMeters.command,
+                            "outcome", "error", "exception", e.getClass().getSimpleName())
+                    .register(registry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            logIfSlow(ms, args, elapsed, "失败: " + e.getClass().getSimpleName());
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+        statementMeters.timer.record(elapsed, TimeUnit.NANOSECONDS);
+
+        long rows = rowCount(result, countingHandler);
+        if (rows >= 0) {
+            statementMeters.rows.record(rows);
+        }
+        logIfSlow(ms, args, elapsed, rows >= 0 ? rows + " 行" : "行数未知");
+        return result;
+    }
+
+    private static long rowCount(Object result, CountingResultHandler countingHandler) {
+        if (countingHandler != null) {
+            return countingHandler.count;
+        }
+        if (result instanceof List<?> list) {
+            return list.size();
+        }
+        if (result instanceof Integer affected && affected != BatchExecutor.BATCH_UPDATE_RETURN_VALUE) {
+            return affected;
+        }
+        return -1;
+    }
+
+    private void logIfSlow(MappedStatement ms, Object[] args, long elapsedNanos, String outcome) {
+        if (elapsedNanos < slowThresholdNanos) {
+            return;
+        }
+        // 参数对象在语句返回后可能被调用方修改，这里同步取出参数值，只把格式化和输出放到后台
+        String sql;
+        List<Object> values;
+        try {
+            BoundSql boundSql = args.length == 6 ? (BoundSql) args[5] : ms.getBoundSql(args[1]);
+            sql = boundSql.getSql();
+            values = BoundSqlParameters.values(ms.getConfiguration(), boundSql, args[1]);
+        } catch (RuntimeException e) {
+            sql = "(无法获取 SQL: " + e.getMessage() + ")";
+            values = List.of();
+        }
+        String statementId = ms.getId();
+        String finalSql = sql;
+        List<Object> finalValues = values;
+        slowLogExecutor.execute(() -> log.warn("慢语句 {} 耗时 {} ms ({})\n  SQL: {}\n  参数: {}",
+                statementId, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), outcome,
+                finalSql.replaceAll("\\s+", " ").trim(), finalValues));
+    }
+
+    /**
+     * 语句 ID 的短名：Mapper 简单类名 + 方法名
+     */
+    static String shortName(String statementId) {
+        int method = statementId.lastIndexOf('.');
+        int type = method > 0 ? statementId.lastIndexOf('.', method - 1) : -1;
+        return statementId.substring(type + 1);
+    }
+
+    private final class StatementMeters {
+        private final String name;
+        private final String command;
+        private final Timer timer;
+        private final DistributionSummary rows;
+
+        private StatementMeters(MappedStatement ms) {
+            this.name = shortName(ms.getId());
+            this.command = ms.getSqlCommandType().name().toLowerCase();
+            this.timer = Timer.builder(TIMER_NAME)
+                    .description("Mapper 语句执行耗时")
+                    .tags("statement", name, "command", command, "outcome", "success", "exception", "none")
+                    .register(registry);
+            this.rows = DistributionSummary.builder(ROWS_NAME)
+                    .description("Mapper 语句返回或影响的行数")
+                    .tags("statement", name, "command", command)
+                    .register(registry);
+        }
+    }
+
+    /**
+     * 包装调用方的 ResultHandler，统计流式读取的行数
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final class CountingResultHandler implements ResultHandler {
+        private final ResultHandler delegate;
+        private long count;
+
+        private CountingResultHandler(ResultHandler<?> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void handleResult(ResultContext context) {
+            count++;
+            delegate.handleResult(context);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.shm.demo.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ParamNameResolver;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.type.TypeHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * 启动时对每条 Mapper 语句执行 EXPLAIN，发现全表扫描时输出警告 (仅 MySQL)。
+ * <p>
+ * 语句参数按 Mapper 方法签名生成示例值 (数字为 1、字符串为 "1"、日期为当天、集合含一个元素、DTO 的空字段全部填充)，
+ * 因此动态 SQL 中的可选条件都会出现，检查的是条件最完整的执行计划。INSERT 语句不检查。
+ * 检查在后台线程中执行，失败只记录日志，不影响启动；有意全表读取的语句 (如缓存预热) 通过配置忽略。
+ */
+@Slf4j
+@Component
+public class StatementPlanChecker {
+
+    private static final String MAPPER_PACKAGE = "com.shm.demo.mapper.";
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${schema.explain-check.enabled:true}")
+    private boolean enabled = true;
+
+    // 估算扫描行数低于该值的全表扫描不告警 (如企业表这类小表)
+    @Value("${schema.explain-check.min-rows:1000}")
+    private long minRows = 1000;
+
+    @Value("${schema.explain-check.ignored-statements:}")
+    private Set<String> ignoredStatements = Set.of();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkAsync() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::check, "statement-plan-check");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 检查所有 Mapper 语句的执行计划
+     * @return 存在全表扫描的语句数量
+     */
+    public int check() {
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+        int checked = 0;
+        int skipped = 0;
+        int fullScans = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName();
+            if (!"MySQL".equalsIgnoreCase(product)) {
+                log.info("数据库为 {}，跳过 Mapper 语句执行计划检查", product);
+                return 0;
+            }
+            Map<String, MappedStatement> statements = new TreeMap<>();
+            for (Object value : configuration.getMappedStatements()) {
+                // StrictMap 中同一语句会以完整 ID 和短 ID 各出现一次，另有二义性占位对象
+                if (value instanceof MappedStatement ms) {
+                    statements.putIfAbsent(ms.getId(), ms);
+                }
+            }
+            for (MappedStatement ms : statements.values()) {
+                if (!ms.getId().startsWith(MAPPER_PACKAGE) || ms.getId().contains("!")
+                        || ms.getSqlCommandType() == SqlCommandType.INSERT
+                        || ms.getSqlCommandType() == SqlCommandType.UNKNOWN
+                        || ms.getSqlCommandType() == SqlCommandType.FLUSH) {
+                    continue;
+                }
+                String name = MapperMetricsInterceptor.shortName(ms.getId());
+                if (ignoredStatements.contains(name)) {
+                    continue;
+                }
+                BoundSql boundSql;
+                Object parameter;
+                try {
+                    parameter = sampleParameter(configuration, ms.getId());
+                    boundSql = ms.getBoundSql(parameter);
+                } catch (Exception e) {
+                    log.debug("无法为语句 {} 生成示例参数，跳过执行计划检查: {}", name, e.getMessage());
+                    skipped++;
+                    continue;
+                }
+                checked++;
+                if (explain(connection, configuration, name, boundSql, parameter)) {
+                    fullScans++;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Mapper 语句执行计划检查失败: {}", e.getMessage());
+            return fullScans;
+        }
+        log.info("Mapper 语句执行计划检查完成：检查 {} 条，跳过 {} 条，{} 条存在全表扫描", checked, skipped, fullScans);
+        return fullScans;
+    }
+
+    private boolean explain(Connection connection, Configuration configuration, String name, BoundSql boundSql, Object parameter) {
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+        List<Object> values = BoundSqlParameters.values(configuration, boundSql, parameter);
+        boolean fullScan = false;
+        try (PreparedStatement ps = connection.prepareStatement("EXPLAIN " + boundSql.getSql())) {
+            for (int i = 0; i < values.size(); i++) {
+                @SuppressWarnings("unchecked")
+                TypeHandler<Object> typeHandler = (TypeHandler<Object>) mappings.get(i).getTypeHandler();
+                typeHandler.setParameter(ps, i + 1, values.get(i), mappings.get(i).getJdbcType());
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String table = rs.getString("table");
+                    String type = rs.getString("type");
+                    long rows = rs.getLong("rows");
+                    // 派生表 (<derivedN>) 和 UNION 结果不是物理表，不告警
+                    if ("ALL".equals(type) && table != null && !table.startsWith("<") && rows >= minRows) {
+                        fullScan = true;
+                        log.warn("语句 {} 对表 {} 全表扫描 (估算 {} 行，possible_keys={}, Extra={})",
+                                name, table, rows, rs.getString("possible_keys"), rs.getString("Extra"));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            log.debug("语句 {} 执行 EXPLAIN 失败: {}", name, e.getMessage());
+        }
+        return fullScan;
+    }
+
+    // 按 Mapper 方法签名构造示例参数，转换方式与 MapperMethod 调用时相同
+    private static Object sampleParameter(Configuration configuration, String statementId) throws ClassNotFoundException {
+        int dot = statementId.lastIndexOf('.');
+        Class<?> mapperType = Resources.classForName(statementId.substring(0, dot));
+        String methodName = statementId.substring(dot + 1);
+        Method method = Arrays.stream(mapperType.getMethods())
+                .filter(m -> m.getName().equals(methodName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("找不到 Mapper 方法 " + statementId));
+        Type[] types = method.getGenericParameterTypes();
+        Object[] args = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            args[i] = sampleValue(configuration, types[i], true);
+        }
+        return new ParamNameResolver(configuration, method).getNamedParams(args);
+    }
+
+    private static Object sampleValue(Configuration configuration, Type type, boolean fillBean) {
+        Class<?> raw = type instanceof ParameterizedType parameterized ? (Class<?>) parameterized.getRawType()
+                : type instanceof Class<?> clazz ? clazz : Object.class;
+        if (ResultHandler.class.isAssignableFrom(raw) || RowBounds.class.isAssignableFrom(raw)) {
+            return null;
+        }
+        if (Collection.class.isAssignableFrom(raw)) {
+            Type element = type instanceof ParameterizedType parameterized ? parameterized.getActualTypeArguments()[0] : Long.class;
+            Object value = sampleValue(configuration, element, fillBean);
+            return value == null ? new ArrayList<>() : new ArrayList<>(List.of(value));
+        }
+        if (raw == Long.class || raw == long.class) return 1L;
+        if (raw == Integer.class || raw == int.class) return 1;
+        if (raw == Short.class || raw == short.class) return (short) 1;
+        if (raw == Byte.class || raw == byte.class) return (byte) 1;
+        if (raw == Boolean.class || raw == boolean.class) return false;
+        if (raw == String.class) return "1";
+        if (raw == LocalDate.class) return LocalDate.now();
+        if (raw == LocalDateTime.class) return LocalDateTime.now();
+        if (raw.isEnum()) return raw.getEnumConstants()[0];
+        if (Map.class.isAssignableFrom(raw)) return new HashMap<>();
+        if (!fillBean || raw.isInterface() || raw.getName().startsWith("java.")) {
+            return null;
+        }
+        try {
+            Object bean = raw.getDeclaredConstructor().newInstance();
+            MetaObject meta = configuration.newMetaObject(bean);
+            for (String property : meta.getSetterNames()) {
+                if (meta.hasGetter(property) && meta.getValue(property) == null) {
+                    Object value = sampleValue(configuration, meta.getSetterType(property), false);
+                    if (value != null) {
+                        meta.setValue(property, value);
+                    }
+                }
+            }
+            return bean;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
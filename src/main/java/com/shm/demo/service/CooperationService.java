@@ -5,6 +5,9 @@ import com.shm.demo.entity.Cooperation;
 // import javax.persistence.EntityNotFoundException; // 移除旧的导入
 import com.shm.demo.exception.ResourceNotFoundException; // 导入自定义异常
 
+import com.shm.demo.importer.ImportRecord;
+
+import java.util.Iterator;
 import java.util.List;
 
 public interface CooperationService {
@@ -17,6 +20,16 @@ public interface CooperationService {
      */
     Cooperation addCooperation(CreateCooperationRequest request) throws IllegalArgumentException;
 
+    /**
+     * 批量导入合作信息：按批次做集合化校验，通过 JDBC 批处理写入主记录和人员明细
+     * @param records 逐条读取的导入记录 (流式，不要求整体在内存中)
+     * @param chunkSize 每批记录数，为 null 时使用配置的默认值
+     * @param commitMode 提交方式：全部成功才提交，或按批次提交
+     * @return 每条记录的处理结果报告
+     * @throws IllegalArgumentException 如果 chunkSize 超出范围或请求体格式错误
+     */
+    ImportReport importCooperations(Iterator<ImportRecord<CreateCooperationRequest>> records, Integer chunkSize, ImportCommitMode commitMode);
+
     /**
      * 修改合作信息及其人员明细
      * @param id 要修改的合作信息的 ID
@@ -27,8 +40,9 @@ public interface CooperationService {
     Cooperation updateCooperation(UpdateCooperationRequest request) throws IllegalArgumentException;
 
     /**
-     * 分页查询合作列表
+     * 分页查询合作列表 (支持 OFFSET 分页和游标分页两种模式)
      * @param paginationRequest 包含页码和每页数量的请求对象
+     * @throws IllegalArgumentException 如果游标令牌无效
      * @return 包含合作列表和分页信息的结果对象
      */
     PageResponse<CooperationListItemDTO> listCooperations(PaginationRequest paginationRequest);
@@ -37,6 +51,7 @@ public interface CooperationService {
      * 根据条件搜索合作列表 (分页)
      * @param request 包含搜索条件和分页信息的请求对象
      * @return 包含符合条件的合作列表和分页信息的结果对象
+     * @throws IllegalArgumentException 如果游标令牌无效
      */
     PageResponse<CooperationListItemDTO> searchCooperations(SearchCooperationRequest request); // 新增搜索方法
 
@@ -48,6 +63,26 @@ public interface CooperationService {
      */
     CooperationDetailDTO getCooperationDetails(Long id) throws ResourceNotFoundException; // 修改抛出的异常类型
 
+    /**
+     * 获取合作详情缓存的命中、未命中和淘汰统计
+     * @return 缓存统计信息
+     */
+    CacheStatsDTO getDetailCacheStats();
+
+    /**
+     * 按地区对和合作类型统计合作数、人次和人天 (读取增量维护的聚合表，耗时与合作总数无关)
+     * @return 统计报表
+     */
+    CooperationStatsDTO getCooperationStats();
+
+    /**
+     * 查询人员在指定日期区间内的空闲时段 (一次范围查询 + 扫描线合并占用时段)
+     * @param request 人员 ID 列表或企业 ID (二选一)、查询区间及最短空闲天数
+     * @return 每个人员的空闲时段，按人员 ID 升序
+     * @throws IllegalArgumentException 如果参数无效、人员不存在或人数超过上限
+     */
+    List<PersonnelAvailabilityDTO> getPersonnelAvailability(AvailabilityRequest request) throws IllegalArgumentException;
+
     void deleteCooperation(Long id) throws ResourceNotFoundException;
 
     void deleteCooperationsBatch(List<Long> ids) throws IllegalArgumentException;
@@ -3,7 +3,10 @@ package com.shm.demo.service;
 import com.github.pagehelper.PageInfo; // 引入 PageInfo
 import com.shm.demo.dto.SearchEnterpriseRequest; // 引入请求 DTO
 import com.shm.demo.entity.Enterprise;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface EnterpriseService {
 
@@ -13,8 +16,21 @@ public interface EnterpriseService {
 
     List<Enterprise> getAllEnterprises();
 
+    /**
+     * 流式遍历所有未删除的企业 (用于导出，内存占用与数据量无关)
+     * @param consumer 逐条处理回调，在查询期间同步调用
+     */
+    void streamAllEnterprises(Consumer<Enterprise> consumer);
+
     Enterprise getEnterpriseById(Long id);
 
+    /**
+     * 根据 ID 批量获取未删除的企业 (优先读取内存缓存)
+     * @param ids 企业 ID 集合
+     * @return 企业 ID -> 企业，不存在或已删除的 ID 不在结果中
+     */
+    Map<Long, Enterprise> getEnterprisesByIds(Collection<Long> ids);
+
     Enterprise updateEnterprise(Enterprise enterprise) throws IllegalArgumentException;
 
     void deleteEnterprise(Long id);
@@ -1,9 +1,15 @@
 package com.shm.demo.service;
 
 import com.github.pagehelper.PageInfo; // 引入 PageInfo
+import com.shm.demo.dto.CreatePersonnelRequest;
+import com.shm.demo.dto.ImportCommitMode;
+import com.shm.demo.dto.ImportReport;
 import com.shm.demo.dto.SearchPersonnelRequest; // 引入请求 DTO
 import com.shm.demo.entity.Personnel;
+import com.shm.demo.importer.ImportRecord;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface PersonnelService {
 
@@ -15,6 +21,16 @@ public interface PersonnelService {
      */
     Personnel addPersonnel(Personnel personnel) throws IllegalArgumentException;
 
+    /**
+     * 批量导入人员：按批次在内存和一次 IN 查询中校验手机号唯一性，批量校验任职企业，多行 INSERT 写入
+     * @param records 逐条读取的导入记录 (流式，不要求整体在内存中)
+     * @param chunkSize 每批记录数，为 null 时使用配置的默认值
+     * @param commitMode 提交方式：全部成功才提交，或按批次提交
+     * @return 每条记录的处理结果及吞吐量 (条/秒)
+     * @throws IllegalArgumentException 如果 chunkSize 超出范围或请求体格式错误
+     */
+    ImportReport importPersonnel(Iterator<ImportRecord<CreatePersonnelRequest>> records, Integer chunkSize, ImportCommitMode commitMode);
+
     /**
      * 根据 ID 获取人员信息
      * @param id 人员 ID
@@ -28,6 +44,12 @@ public interface PersonnelService {
      */
     List<Personnel> getAllPersonnel(); // 实际应用中建议分页
 
+    /**
+     * 流式遍历所有未删除的人员 (用于导出，内存占用与数据量无关)
+     * @param consumer 逐条处理回调，在查询期间同步调用
+     */
+    void streamAllPersonnel(Consumer<Personnel> consumer);
+
     /**
      * 更新人员信息
      * @param personnel 包含 ID 和待更新字段的人员信息
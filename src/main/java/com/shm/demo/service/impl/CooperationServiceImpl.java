@@ -1,24 +1,52 @@
 package com.shm.demo.service.impl;
 
+import com.shm.demo.cache.CooperationDetailCache;
+import com.shm.demo.cache.CooperationThemeIndex;
+import com.shm.demo.cache.CooperationTotalsCache;
+import com.shm.demo.cache.PersonnelAssignmentIndex;
+import com.shm.demo.convert.CooperationConverter;
+import com.shm.demo.datasource.ReadRouting;
 import com.shm.demo.dto.*;
 import com.shm.demo.entity.*;
+import com.shm.demo.exception.OptimisticLockConflictException;
 import com.shm.demo.exception.ResourceNotFoundException;
+import com.shm.demo.importer.ChunkedImport;
+import com.shm.demo.importer.ImportRecord;
+import com.shm.demo.lock.PersonnelLocks;
 import com.shm.demo.mapper.CooperationMapper;
 import com.shm.demo.mapper.CooperationPersonnelMapper;
+import com.shm.demo.mapper.CooperationStatsMapper;
 import com.shm.demo.mapper.EnterpriseMapper;
 import com.shm.demo.mapper.PersonnelMapper;
 import com.shm.demo.service.CooperationService;
-import org.springframework.beans.BeanUtils;
+import com.shm.demo.service.EnterpriseService;
+import com.shm.demo.util.SingleFlight;
+import com.shm.demo.util.TransactionUtils;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.CollectionUtils; // 引入 CollectionUtils
+import org.springframework.util.StringUtils;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 import java.util.Collections; // 可能需要导入 Collections
 
+@Slf4j
 @Service
 public class CooperationServiceImpl implements CooperationService {
 
@@ -29,14 +57,69 @@ public class CooperationServiceImpl implements CooperationService {
     private CooperationPersonnelMapper cooperationPersonnelMapper;
 
     @Autowired
-    private EnterpriseMapper enterpriseMapper; // 用于校验企业信息
+    private EnterpriseService enterpriseService; // 用于校验企业信息 (读取企业缓存)
 
     @Autowired
     private PersonnelMapper personnelMapper;   // 用于校验人员信息
 
+    @Autowired
+    private CooperationTotalsCache totalsCache; // 列表/搜索总记录数缓存
+
+    @Autowired
+    private CooperationThemeIndex themeIndex;   // 合作主题三元组索引，用于模糊搜索
+
+    @Autowired
+    private CooperationDetailCache detailCache; // 合作详情缓存
+
+    @Autowired
+    private PersonnelAssignmentIndex assignmentIndex; // 人员时段内存索引，用于重叠检查
+
+    @Autowired
+    private CooperationStatsMapper cooperationStatsMapper; // 统计聚合表，随写操作在同一事务中维护
+
+    // 统计聚合表每个分组拆分的行数，写事务随机更新其中一行
+    @Value("${cooperation.stats.slots:8}")
+    private int statsSlots = 8;
+
+    @Autowired
+    private PersonnelLocks personnelLocks; // 按人员串行化重叠检查与明细写入
+
+    @Autowired
+    private CooperationConverter cooperationConverter; // DTO 与实体转换 (编译期生成，不使用反射)
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 相同 ID 的详情读取、相同条件的搜索并发到达时只执行一次，其余调用共享结果
+    @Value("${cooperation.read-coalescing.enabled:true}")
+    private boolean readCoalescingEnabled = true;
+
+    private final SingleFlight<Long, CooperationDetailDTO> detailFlight = new SingleFlight<>();
+    private final SingleFlight<SearchKey, PageResponse<CooperationListItemDTO>> searchFlight = new SingleFlight<>();
+
+    @PostConstruct
+    void registerReadCoalescingMeters() {
+        registerFlightMeters("detail", detailFlight);
+        registerFlightMeters("search", searchFlight);
+    }
+
+    private void registerFlightMeters(String operation, SingleFlight<?, ?> flight) {
+        FunctionCounter.builder("cooperation.read.executions", flight, SingleFlight::executions)
+                .description("合并后实际执行的合作读取次数")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        FunctionCounter.builder("cooperation.read.coalesced", flight, SingleFlight::collapsed)
+                .description("与进行中的相同读取合并、共享其结果的调用次数")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
     @Override
     @Transactional // 保证整个操作的原子性
     public Cooperation addCooperation(CreateCooperationRequest request) throws IllegalArgumentException {
+        // 0. 锁定涉及的人员直到事务结束，避免并发请求都通过重叠检查后重复写入 (须在事务的第一次查询之前)
+        lockPersonnelOf(request.getCooperationPersonnelList(), personnelMapper);
+
         // 1. 基础校验 (DTO @Valid 已处理部分)
         validateCooperationDates(request.getCooperationStartDate(), request.getCooperationEndDate());
         validateCooperationThemeUnique(request.getCooperationTheme(), null); // 新增时 ID 为 null
@@ -54,21 +137,29 @@ public class CooperationServiceImpl implements CooperationService {
         checkForPersonnelTimeOverlap(request.getCooperationPersonnelList(), null); // 新增时排除 ID 为 null
 
         // 4. 创建 Cooperation 主记录
-        Cooperation cooperation = new Cooperation();
-        BeanUtils.copyProperties(request, cooperation);
+        Cooperation cooperation = cooperationConverter.toEntity(request);
+        cooperation.setPersonnelCount(request.getCooperationPersonnelList().size()); // 冗余人数与明细同步写入
         cooperation.setDeleted(0); // 确保是未删除状态
-        cooperationMapper.insert(cooperation); // 获取自增 ID
+        try {
+            cooperationMapper.insert(cooperation); // 获取自增 ID
+        } catch (DuplicateKeyException e) {
+            // 并发新增相同主题时，由唯一索引 uk_cooperation_active_theme 兜底
+            throw new IllegalArgumentException("合作主题已存在: " + request.getCooperationTheme());
+        }
+        cooperation.setVersion(0); // 新记录的版本号 (数据库默认值)
 
         // 5. 准备并批量插入 CooperationPersonnel 明细记录
         List<CooperationPersonnel> personnelEntities = new ArrayList<>();
         for (CooperationPersonnelRequest personnelRequest : request.getCooperationPersonnelList()) {
-            CooperationPersonnel personnelEntity = new CooperationPersonnel();
-            BeanUtils.copyProperties(personnelRequest, personnelEntity);
-            personnelEntity.setCooperationId(cooperation.getId()); // 关联主记录 ID
-            personnelEntities.add(personnelEntity);
+            personnelEntities.add(cooperationConverter.toEntity(personnelRequest, cooperation.getId())); // 关联主记录 ID
         }
         cooperationPersonnelMapper.batchInsert(personnelEntities);
 
+        // 6. 计入统计聚合表
+        applyStats(cooperationStatsMapper, Collections.singletonList(cooperation.getId()), 1, randomStatsSlot());
+
+        afterCooperationSaved(cooperation.getId(), cooperation.getCooperationTheme(), request.getCooperationPersonnelList());
+
         return cooperation; // 返回创建的主记录
     }
 
@@ -84,19 +175,14 @@ public class CooperationServiceImpl implements CooperationService {
               if (id == null) {
                    throw new IllegalArgumentException("请求体中必须包含有效的合作ID");
               }
+
+        // 0. 锁定请求中的人员 (移出合作的人员不会产生新的重叠，无需加锁)
+        lockPersonnelOf(request.getCooperationPersonnelList(), personnelMapper);
       
-        // 1. 检查合作是否存在且未被删除
-        Cooperation existingCooperation = cooperationMapper.findRawById(id);
-        if (existingCooperation == null) {
-            throw new IllegalArgumentException("未找到要更新的合作信息，ID: " + id);
-        }
-        if (existingCooperation.getDeleted() == 1) {
-            throw new IllegalArgumentException("合作信息已被删除，无法更新，ID: " + id);
-        }
+        // 1. 不预先读取记录：是否存在、是否已删除由第 5 步的加锁判断，版本是否一致由第 5 步的条件更新判断
 
-        // 2. 基础校验
+        // 2. 基础校验 (主题唯一由 uk_cooperation_active_theme 在第 5 步的更新中保证)
         validateCooperationDates(request.getCooperationStartDate(), request.getCooperationEndDate());
-        validateCooperationThemeUnique(request.getCooperationTheme(), id); // 更新时传入 ID
 
         // 3. 校验人员列表及关联信息
         validatePersonnelList(
@@ -110,35 +196,182 @@ public class CooperationServiceImpl implements CooperationService {
         // 4. 校验人员时间重叠 (更新场景，排除当前合作 ID)
         checkForPersonnelTimeOverlap(request.getCooperationPersonnelList(), id);
 
-        // 5. 更新 Cooperation 主记录
-        Cooperation cooperationToUpdate = new Cooperation();
-        BeanUtils.copyProperties(request, cooperationToUpdate);
-        cooperationToUpdate.setId(id); // 设置要更新的 ID
+        // 5. 锁定合作行 (只返回 ID)，按修改前的地区和人员明细移出统计聚合表中的旧贡献，
+        //    再按客户端提交的版本号条件更新主记录 (未提交版本号时按最新版本覆盖)
+        if (cooperationMapper.lockActiveIds(Collections.singletonList(id)).isEmpty()) {
+            throw updateRejected(id, request.getVersion());
+        }
+        int statsSlot = randomStatsSlot();
+        applyStats(cooperationStatsMapper, Collections.singletonList(id), -1, statsSlot);
+        Cooperation cooperationToUpdate = cooperationConverter.toEntity(request); // 包含 ID 和客户端提交的版本号
+        cooperationToUpdate.setPersonnelCount(request.getCooperationPersonnelList().size()); // 差异更新后明细数量即请求中的人数
         // cooperationToUpdate.setDeleted(null); // 不应在此处设置 deleted
-        int updatedRows = cooperationMapper.update(cooperationToUpdate);
-        if (updatedRows == 0) {
-             // 理论上前面已检查，但以防万一并发情况
-             throw new IllegalStateException("更新合作信息时发生并发冲突或记录已被删除，ID: " + id);
+        if (!updateCooperationRow(cooperationToUpdate)) {
+            throw updateRejected(id, request.getVersion());
         }
 
 
-        // 6. 更新 CooperationPersonnel 明细记录 (先删后插策略)
-        cooperationPersonnelMapper.deleteByCooperationId(id); // 删除旧的明细
+        // 6. 按差异更新 CooperationPersonnel 明细记录 (只执行必要的 INSERT / UPDATE / DELETE)
+        List<CooperationPersonnel> existingPersonnel = cooperationPersonnelMapper.findByCooperationId(id);
+        PersonnelDiff diff = diffPersonnel(id, existingPersonnel, request.getCooperationPersonnelList());
+        int touchedRows = applyPersonnelDiff(diff);
+        log.debug("更新合作人员明细 (合作ID: {})：新增 {} 条，修改 {} 条，删除 {} 条，共影响 {} 行",
+                id, diff.toInsert.size(), diff.toUpdate.size(), diff.toDelete.size(), touchedRows);
 
-        List<CooperationPersonnel> newPersonnelEntities = new ArrayList<>();
-        for (CooperationPersonnelRequest personnelRequest : request.getCooperationPersonnelList()) {
-            CooperationPersonnel personnelEntity = new CooperationPersonnel();
-            BeanUtils.copyProperties(personnelRequest, personnelEntity);
-            personnelEntity.setCooperationId(id); // 关联主记录 ID
-            newPersonnelEntities.add(personnelEntity);
+        applyStats(cooperationStatsMapper, Collections.singletonList(id), 1, statsSlot); // 按修改后的状态重新计入统计
+
+        afterCooperationSaved(id, request.getCooperationTheme(), request.getCooperationPersonnelList());
+
+        // 7. 在同一事务中读取一次更新后的主记录 (包含数据库写入的时间戳和新版本号)
+        return cooperationMapper.findById(id);
+    }
+
+
+    private boolean updateCooperationRow(Cooperation cooperationToUpdate) {
+        try {
+            return cooperationMapper.update(cooperationToUpdate) > 0;
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException("合作主题已存在: " + cooperationToUpdate.getCooperationTheme());
+        }
+    }
+
+    // 加锁或条件更新没有影响任何行时 (冷路径) 才读取记录，区分不存在、已删除和版本冲突
+    private RuntimeException updateRejected(Long id, Integer expectedVersion) {
+        Cooperation raw = cooperationMapper.findRawById(id);
+        if (raw == null) {
+            return new IllegalArgumentException("未找到要更新的合作信息，ID: " + id);
         }
-        if (!newPersonnelEntities.isEmpty()) { // 确保列表不为空再插入
-             cooperationPersonnelMapper.batchInsert(newPersonnelEntities);
+        if (raw.getDeleted() == 1) {
+            return new IllegalArgumentException("合作信息已被删除，无法更新，ID: " + id);
         }
+        if (expectedVersion != null && !expectedVersion.equals(raw.getVersion())) {
+            return new OptimisticLockConflictException("合作", id, expectedVersion, raw.getVersion());
+        }
+        return new IllegalStateException("更新合作信息时发生未知错误，ID: " + id);
+    }
 
+    // 在当前事务中把合作 (连同人员明细) 的贡献计入 (sign = 1) 或移出 (sign = -1) 统计聚合表。
+    // 统计值由数据库中合作的当前状态计算，调用前合作行须已在本事务中加锁；
+    // 修改合作时移出和计入使用同一个 slot，同一事务只锁定每个分组的一行
+    private void applyStats(CooperationStatsMapper mapper, List<Long> ids, int sign, int slot) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        mapper.applyRegionStats(ids, sign, slot);
+        mapper.applyJobTypeStats(ids, sign, slot);
+    }
 
-        // 7. 返回更新后的主记录信息
-        return cooperationMapper.findById(id); // 重新查询以获取最新数据 (包括 updated_at)
+    private int randomStatsSlot() {
+        return ThreadLocalRandom.current().nextInt(statsSlots);
+    }
+
+    // 合作新增或修改提交后：失效总数缓存和详情缓存，更新主题索引和人员时段索引 (事务回滚时不执行)
+    private void afterCooperationSaved(Long id, String theme, List<CooperationPersonnelRequest> personnelList) {
+        List<CooperationPersonnelRequest> items = new ArrayList<>(personnelList);
+        assignmentIndex.markUncommittedWrite();
+        TransactionUtils.afterCommit(() -> {
+            totalsCache.invalidate();
+            detailCache.invalidate(id);
+            detailFlight.forget(id);
+            searchFlight.forgetAll();
+            themeIndex.put(id, theme);
+            assignmentIndex.put(id, items);
+        });
+    }
+
+    // 合作删除提交后：失效总数缓存和详情缓存，并从主题索引和人员时段索引中移除
+    private void afterCooperationsDeleted(List<Long> ids) {
+        List<Long> deletedIds = new ArrayList<>(ids);
+        assignmentIndex.markUncommittedWrite();
+        TransactionUtils.afterCommit(() -> {
+            totalsCache.invalidate();
+            detailCache.invalidateAll(deletedIds);
+            deletedIds.forEach(detailFlight::forget);
+            searchFlight.forgetAll();
+            deletedIds.forEach(themeIndex::remove);
+            deletedIds.forEach(assignmentIndex::remove);
+        });
+    }
+
+    /**
+     * 人员明细的差异结果：需要新增、按主键更新和删除的记录 (差异计算和执行为包级可见，供单元测试直接调用)
+     */
+    static class PersonnelDiff {
+        final List<CooperationPersonnel> toInsert = new ArrayList<>();
+        final List<CooperationPersonnel> toUpdate = new ArrayList<>();
+        final List<Long> toDelete = new ArrayList<>();
+    }
+
+    /**
+     * 计算已存储明细与请求明细之间的差异：
+     * 1. 内容完全相同的记录保持不动；
+     * 2. 剩余记录按人员配对 (按开始时间排序)，配对成功的原地更新，保留原 id 和 created_at；
+     * 3. 仍未配对的请求记录新增，未配对的已存储记录删除。
+     */
+    PersonnelDiff diffPersonnel(Long cooperationId, List<CooperationPersonnel> existingRows, List<CooperationPersonnelRequest> requestedRows) {
+        PersonnelDiff diff = new PersonnelDiff();
+        List<CooperationPersonnel> unmatchedExisting = new ArrayList<>(existingRows);
+        List<CooperationPersonnel> unmatchedRequested = new ArrayList<>();
+
+        for (CooperationPersonnelRequest personnelRequest : requestedRows) {
+            CooperationPersonnel requested = cooperationConverter.toEntity(personnelRequest, cooperationId);
+
+            Iterator<CooperationPersonnel> it = unmatchedExisting.iterator();
+            boolean unchanged = false;
+            while (it.hasNext()) {
+                if (hasSameContent(it.next(), requested)) {
+                    it.remove();
+                    unchanged = true;
+                    break;
+                }
+            }
+            if (!unchanged) {
+                unmatchedRequested.add(requested);
+            }
+        }
+
+        Map<Long, Deque<CooperationPersonnel>> existingByPersonnel = unmatchedExisting.stream()
+                .sorted(Comparator.comparing(CooperationPersonnel::getPersonnelStartDate))
+                .collect(Collectors.groupingBy(CooperationPersonnel::getPersonnelId, Collectors.toCollection(ArrayDeque::new)));
+        unmatchedRequested.sort(Comparator.comparing(CooperationPersonnel::getPersonnelStartDate));
+        for (CooperationPersonnel requested : unmatchedRequested) {
+            Deque<CooperationPersonnel> candidates = existingByPersonnel.get(requested.getPersonnelId());
+            if (candidates != null && !candidates.isEmpty()) {
+                requested.setId(candidates.pollFirst().getId());
+                diff.toUpdate.add(requested);
+            } else {
+                diff.toInsert.add(requested);
+            }
+        }
+        existingByPersonnel.values().forEach(rest -> rest.forEach(row -> diff.toDelete.add(row.getId())));
+        return diff;
+    }
+
+    private boolean hasSameContent(CooperationPersonnel a, CooperationPersonnel b) {
+        return Objects.equals(a.getPersonnelId(), b.getPersonnelId())
+                && Objects.equals(a.getSendingEnterpriseId(), b.getSendingEnterpriseId())
+                && Objects.equals(a.getReceivingEnterpriseId(), b.getReceivingEnterpriseId())
+                && a.getCooperationJobType() == b.getCooperationJobType()
+                && Objects.equals(a.getPersonnelStartDate(), b.getPersonnelStartDate())
+                && Objects.equals(a.getPersonnelEndDate(), b.getPersonnelEndDate());
+    }
+
+    /**
+     * 执行差异：先删除 (释放被移除人员的时间段)，再更新，最后新增
+     * @return 实际影响的行数
+     */
+    int applyPersonnelDiff(PersonnelDiff diff) {
+        int touchedRows = 0;
+        if (!diff.toDelete.isEmpty()) {
+            touchedRows += cooperationPersonnelMapper.deleteByIds(diff.toDelete);
+        }
+        if (!diff.toUpdate.isEmpty()) {
+            touchedRows += cooperationPersonnelMapper.batchUpdate(diff.toUpdate);
+        }
+        if (!diff.toInsert.isEmpty()) {
+            touchedRows += cooperationPersonnelMapper.batchInsert(diff.toInsert);
+        }
+        return touchedRows;
     }
 
 
@@ -167,12 +400,8 @@ public class CooperationServiceImpl implements CooperationService {
         }
     }
 
-    // 调整 validatePersonnelList 方法实现，使用传入的参数
+    // 校验人员列表：先一次性批量加载所有引用的企业与人员 (最多两次查询)，再在内存中逐项校验
     private void validatePersonnelList(String initiatorRegion, String receiverRegion, LocalDate mainStartDate, LocalDate mainEndDate, List<CooperationPersonnelRequest> personnelList) {
-        // 移除错误的 request 引用，直接使用方法参数
-        // LocalDate mainStartDate = request.getCooperationStartDate(); // 移除
-        // LocalDate mainEndDate = request.getCooperationEndDate();   // 移除
-
         // 检查 personnelList 是否为空或 null (可选，取决于业务逻辑)
         if (CollectionUtils.isEmpty(personnelList)) {
              // 可以选择抛出异常或直接返回，取决于是否允许空的人员列表
@@ -180,43 +409,79 @@ public class CooperationServiceImpl implements CooperationService {
              return; // 如果允许空列表，则直接返回
         }
 
+        // 1. 校验人员日期 (纯内存校验，不访问数据库)
+        for (CooperationPersonnelRequest personnelReq : personnelList) {
+            validatePersonnelItemDates(personnelReq.getPersonnelStartDate(), personnelReq.getPersonnelEndDate(), mainStartDate, mainEndDate);
+        }
 
-        for (CooperationPersonnelRequest personnelReq : personnelList) { // 使用传入的 personnelList
-            // 校验人员日期
-            validatePersonnelItemDates(personnelReq.getPersonnelStartDate(), personnelReq.getPersonnelEndDate(), mainStartDate, mainEndDate); // 使用传入的 mainStartDate, mainEndDate
+        // 2. 批量预取引用的企业和人员，查询次数与列表长度无关
+        Map<Long, Enterprise> enterpriseMap = loadEnterprisesReferencedBy(personnelList);
+        Map<Long, Personnel> personnelMap = loadPersonnelReferencedBy(personnelList);
 
-            // 校验送出企业
-            Enterprise sendingEnterprise = enterpriseMapper.findById(personnelReq.getSendingEnterpriseId());
-            if (sendingEnterprise == null || sendingEnterprise.getDeleted() == 1) {
-                throw new IllegalArgumentException("送出企业不存在或已被删除, ID: " + personnelReq.getSendingEnterpriseId());
-            }
-            if (!Objects.equals(sendingEnterprise.getRegion(), initiatorRegion)) { // 使用传入的 initiatorRegion
-                throw new IllegalArgumentException("送出企业地区 '" + sendingEnterprise.getRegion() + "' 与发起方地区 '" + initiatorRegion + "' 不符, 企业ID: " + sendingEnterprise.getId());
-            }
-            if (sendingEnterprise.getCooperationType() != CooperationType.SEND) {
-                throw new IllegalArgumentException("送出企业合作类型必须是 '送出(SEND)', 企业ID: " + sendingEnterprise.getId());
-            }
+        // 3. 在内存中校验地区、合作类型及人员归属
+        for (CooperationPersonnelRequest personnelReq : personnelList) {
+            validatePersonnelItemReferences(personnelReq, initiatorRegion, receiverRegion, enterpriseMap, personnelMap);
+        }
+    }
 
-            // 校验接收企业
-            Enterprise receivingEnterprise = enterpriseMapper.findById(personnelReq.getReceivingEnterpriseId());
-            if (receivingEnterprise == null || receivingEnterprise.getDeleted() == 1) {
-                throw new IllegalArgumentException("接收企业不存在或已被删除, ID: " + personnelReq.getReceivingEnterpriseId());
-            }
-            if (!Objects.equals(receivingEnterprise.getRegion(), receiverRegion)) { // 使用传入的 receiverRegion
-                throw new IllegalArgumentException("接收企业地区 '" + receivingEnterprise.getRegion() + "' 与接收方地区 '" + receiverRegion + "' 不符, 企业ID: " + receivingEnterprise.getId());
-            }
-            if (receivingEnterprise.getCooperationType() != CooperationType.RECEIVE) {
-                throw new IllegalArgumentException("接收企业合作类型必须是 '接收(RECEIVE)', 企业ID: " + receivingEnterprise.getId());
-            }
+    private Map<Long, Enterprise> loadEnterprisesReferencedBy(List<CooperationPersonnelRequest> personnelList) {
+        Set<Long> enterpriseIds = new HashSet<>();
+        for (CooperationPersonnelRequest personnelReq : personnelList) {
+            enterpriseIds.add(personnelReq.getSendingEnterpriseId());
+            enterpriseIds.add(personnelReq.getReceivingEnterpriseId());
+        }
+        enterpriseIds.remove(null);
+        if (enterpriseIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return enterpriseService.getEnterprisesByIds(enterpriseIds);
+    }
 
-            // 校验人员是否存在且属于送出企业
-            Personnel personnel = personnelMapper.findById(personnelReq.getPersonnelId());
-            if (personnel == null || personnel.getDeleted() == 1) {
-                throw new IllegalArgumentException("合作人员不存在或已被删除, ID: " + personnelReq.getPersonnelId());
-            }
-            if (!Objects.equals(personnel.getEnterpriseId(), sendingEnterprise.getId())) {
-                throw new IllegalArgumentException("合作人员 (ID: " + personnel.getId() + ") 不属于指定的送出企业 (ID: " + sendingEnterprise.getId() + ")");
-            }
+    private Map<Long, Personnel> loadPersonnelReferencedBy(List<CooperationPersonnelRequest> personnelList) {
+        Set<Long> personnelIds = personnelList.stream()
+                .map(CooperationPersonnelRequest::getPersonnelId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (personnelIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return personnelMapper.findByIds(personnelIds).stream()
+                .collect(Collectors.toMap(Personnel::getId, p -> p));
+    }
+
+    private void validatePersonnelItemReferences(CooperationPersonnelRequest personnelReq, String initiatorRegion, String receiverRegion,
+                                                 Map<Long, Enterprise> enterpriseMap, Map<Long, Personnel> personnelMap) {
+        // 校验送出企业
+        Enterprise sendingEnterprise = enterpriseMap.get(personnelReq.getSendingEnterpriseId());
+        if (sendingEnterprise == null || sendingEnterprise.getDeleted() == 1) {
+            throw new IllegalArgumentException("送出企业不存在或已被删除, ID: " + personnelReq.getSendingEnterpriseId());
+        }
+        if (!Objects.equals(sendingEnterprise.getRegion(), initiatorRegion)) {
+            throw new IllegalArgumentException("送出企业地区 '" + sendingEnterprise.getRegion() + "' 与发起方地区 '" + initiatorRegion + "' 不符, 企业ID: " + sendingEnterprise.getId());
+        }
+        if (sendingEnterprise.getCooperationType() != CooperationType.SEND) {
+            throw new IllegalArgumentException("送出企业合作类型必须是 '送出(SEND)', 企业ID: " + sendingEnterprise.getId());
+        }
+
+        // 校验接收企业
+        Enterprise receivingEnterprise = enterpriseMap.get(personnelReq.getReceivingEnterpriseId());
+        if (receivingEnterprise == null || receivingEnterprise.getDeleted() == 1) {
+            throw new IllegalArgumentException("接收企业不存在或已被删除, ID: " + personnelReq.getReceivingEnterpriseId());
+        }
+        if (!Objects.equals(receivingEnterprise.getRegion(), receiverRegion)) {
+            throw new IllegalArgumentException("接收企业地区 '" + receivingEnterprise.getRegion() + "' 与接收方地区 '" + receiverRegion + "' 不符, 企业ID: " + receivingEnterprise.getId());
+        }
+        if (receivingEnterprise.getCooperationType() != CooperationType.RECEIVE) {
+            throw new IllegalArgumentException("接收企业合作类型必须是 '接收(RECEIVE)', 企业ID: " + receivingEnterprise.getId());
+        }
+
+        // 校验人员是否存在且属于送出企业
+        Personnel personnel = personnelMap.get(personnelReq.getPersonnelId());
+        if (personnel == null || personnel.getDeleted() == 1) {
+            throw new IllegalArgumentException("合作人员不存在或已被删除, ID: " + personnelReq.getPersonnelId());
+        }
+        if (!Objects.equals(personnel.getEnterpriseId(), sendingEnterprise.getId())) {
+            throw new IllegalArgumentException("合作人员 (ID: " + personnel.getId() + ") 不属于指定的送出企业 (ID: " + sendingEnterprise.getId() + ")");
         }
     }
 
@@ -233,123 +498,249 @@ public class CooperationServiceImpl implements CooperationService {
     }
 
 
-    // 调整 checkForPersonnelTimeOverlap 以接受要排除的 cooperationId
+    // 锁定人员明细中引用的所有人员
+    private void lockPersonnelOf(List<CooperationPersonnelRequest> personnelList, PersonnelMapper mapper) {
+        if (CollectionUtils.isEmpty(personnelList)) {
+            return;
+        }
+        List<Long> personnelIds = new ArrayList<>(personnelList.size());
+        for (CooperationPersonnelRequest item : personnelList) {
+            personnelIds.add(item.getPersonnelId());
+        }
+        personnelLocks.lock(personnelIds, mapper);
+    }
+
+    // 检查人员时间重叠：请求内部重叠在内存中判断，与数据库中其他合作的重叠通过一次批量查询获取，
+    // 所有冲突汇总后一次性报告，而不是遇到第一条就失败
     private void checkForPersonnelTimeOverlap(List<CooperationPersonnelRequest> personnelList, Long excludedCooperationId) {
-        // 1. 检查请求内部是否有同一个人时间重叠 (逻辑不变)
+        if (CollectionUtils.isEmpty(personnelList)) {
+            return;
+        }
+        List<String> conflicts = new ArrayList<>();
+
+        // 1. 检查请求内部是否有同一个人时间重叠
         Map<Long, List<CooperationPersonnelRequest>> personnelGroups = personnelList.stream()
                 .collect(Collectors.groupingBy(CooperationPersonnelRequest::getPersonnelId));
 
         for (Map.Entry<Long, List<CooperationPersonnelRequest>> entry : personnelGroups.entrySet()) {
-            List<CooperationPersonnelRequest> itemsForPerson = entry.getValue();
+            List<CooperationPersonnelRequest> itemsForPerson = new ArrayList<>(entry.getValue());
             if (itemsForPerson.size() > 1) {
-                itemsForPerson.sort((a, b) -> a.getPersonnelStartDate().compareTo(b.getPersonnelStartDate()));
+                itemsForPerson.sort(Comparator.comparing(CooperationPersonnelRequest::getPersonnelStartDate));
                 for (int i = 0; i < itemsForPerson.size() - 1; i++) {
-                    if (itemsForPerson.get(i + 1).getPersonnelStartDate().isBefore(itemsForPerson.get(i).getPersonnelEndDate()) ||
-                        itemsForPerson.get(i + 1).getPersonnelStartDate().isEqual(itemsForPerson.get(i).getPersonnelEndDate())) {
-                         throw new IllegalArgumentException("请求内部人员 (ID: " + entry.getKey() + ") 的合作时间存在重叠");
+                    if (!itemsForPerson.get(i + 1).getPersonnelStartDate().isAfter(itemsForPerson.get(i).getPersonnelEndDate())) {
+                        conflicts.add("请求内部人员 (ID: " + entry.getKey() + ") 的合作时间存在重叠");
+                        break;
                     }
                 }
             }
         }
 
-        // 2. 检查请求中的每个人员是否与数据库中 *其他* 未删除合作时间重叠
-        for (CooperationPersonnelRequest personnelReq : personnelList) {
-            List<CooperationPersonnel> overlaps;
-            if (excludedCooperationId == null) { // 新增场景
-                overlaps = cooperationPersonnelMapper.findOverlappingPersonnelAssignments(
-                        personnelReq.getPersonnelId(),
-                        personnelReq.getPersonnelStartDate(),
-                        personnelReq.getPersonnelEndDate()
-                );
-            } else { // 更新场景
-                overlaps = cooperationPersonnelMapper.findOverlappingPersonnelAssignmentsExcludingCooperation(
-                        personnelReq.getPersonnelId(),
-                        personnelReq.getPersonnelStartDate(),
-                        personnelReq.getPersonnelEndDate(),
-                        excludedCooperationId // 传入要排除的 ID
-                );
-            }
-
-            if (!CollectionUtils.isEmpty(overlaps)) {
-                // 找到重叠，构造错误消息
-                 CooperationPersonnel existing = overlaps.get(0);
-                throw new IllegalArgumentException(
-                        String.format("人员 (ID: %d) 在时间段 [%s - %s] 与现有合作 (ID: %d, 人员时段: [%s - %s]) 存在时间重叠",
+        // 2. 取回请求中所有人员与 *其他* 未删除合作的重叠记录 (调用前已锁定人员)：
+        //    单实例部署开启人员时段索引时由索引直接回答，索引不可用时一次批量 SQL 查询全部人员
+        List<CooperationPersonnel> overlaps = assignmentIndex.findOverlapping(personnelList, excludedCooperationId);
+        if (overlaps == null) {
+            overlaps = cooperationPersonnelMapper.findOverlappingAssignmentsBatch(personnelList, excludedCooperationId);
+        }
+        if (!CollectionUtils.isEmpty(overlaps)) {
+            Map<Long, List<CooperationPersonnel>> overlapsByPersonnel = overlaps.stream()
+                    .collect(Collectors.groupingBy(CooperationPersonnel::getPersonnelId));
+            for (CooperationPersonnelRequest personnelReq : personnelList) {
+                List<CooperationPersonnel> candidates = overlapsByPersonnel.getOrDefault(personnelReq.getPersonnelId(), Collections.emptyList());
+                for (CooperationPersonnel existing : candidates) {
+                    // 同一人员可能有多条请求，需要再次按时间段匹配是哪一条请求与之冲突
+                    if (!existing.getPersonnelEndDate().isBefore(personnelReq.getPersonnelStartDate())
+                            && !existing.getPersonnelStartDate().isAfter(personnelReq.getPersonnelEndDate())) {
+                        conflicts.add(String.format("人员 (ID: %d) 在时间段 [%s - %s] 与现有合作 (ID: %d, 人员时段: [%s - %s]) 存在时间重叠",
                                 personnelReq.getPersonnelId(),
                                 personnelReq.getPersonnelStartDate(),
                                 personnelReq.getPersonnelEndDate(),
                                 existing.getCooperationId(),
                                 existing.getPersonnelStartDate(),
-                                existing.getPersonnelEndDate()
-                        )
-                );
+                                existing.getPersonnelEndDate()));
+                    }
+                }
             }
         }
+
+        if (!conflicts.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", conflicts));
+        }
     }
 
     // --- 新增 listCooperations 方法 ---
     @Override
     public PageResponse<CooperationListItemDTO> listCooperations(PaginationRequest paginationRequest) {
+        // 列表查询可以读取只读副本 (未开启读写分离时仍访问主库)
+        return ReadRouting.replica(() -> doListCooperations(paginationRequest));
+    }
+
+    private PageResponse<CooperationListItemDTO> doListCooperations(PaginationRequest paginationRequest) {
         int page = paginationRequest.getPage();
         int size = paginationRequest.getSize();
+        TotalMode totalMode = paginationRequest.resolveTotalMode();
+
+        // 游标模式：先解析游标，无效时直接返回 400，不再执行任何查询
+        if (paginationRequest.usesCursor()) {
+            PageCursor cursor = PageCursor.decode(paginationRequest.getCursor());
+            CooperationTotalsCache.Total total = totalsCache.getTotal(null, totalMode, () -> ReadRouting.replicaForCache(cooperationMapper::countTotal));
+            // 多取一条用于判断是否还有下一页
+            List<CooperationListItemDTO> rows = cooperationMapper.findPageAfterCursor(
+                    cursor == null ? null : cursor.getCreatedAt(),
+                    cursor == null ? null : cursor.getId(),
+                    size + 1);
+            return toCursorPage(rows, page, size, total);
+        }
+
         // 计算数据库偏移量 (OFFSET 从 0 开始)
         int offset = (page - 1) * size;
 
-        // 1. 查询总记录数
-        long totalElements = cooperationMapper.countTotal();
+        // 1. 查询总记录数 (优先读取缓存，totalMode=none 时跳过)
+        CooperationTotalsCache.Total total = totalsCache.getTotal(null, totalMode, () -> ReadRouting.replicaForCache(cooperationMapper::countTotal));
 
         List<CooperationListItemDTO> content;
-        if (totalElements == 0 || offset >= totalElements) {
+        if (isBeyondExactTotal(total, offset)) {
             // 如果没有数据或请求的页码超出范围，返回空列表
             content = Collections.emptyList();
         } else {
-            // 2. 查询当前页的数据 (Mapper 方法已包含人员数量计算和排序)
+            // 2. 查询当前页的数据 (Mapper 方法已包含人员数量和排序)
             content = cooperationMapper.findPaginatedWithCount(offset, size);
         }
 
-        // 3. 计算总页数
-        int totalPages = (int) Math.ceil((double) totalElements / size);
-        if (totalPages == 0 && totalElements > 0) { // 至少有一页
-             totalPages = 1;
-        }
-
-
-        // 4. 组装 PageResponse 对象
-        return new PageResponse<>(content, page, size, totalElements, totalPages);
+        // 3. 组装 PageResponse 对象
+        return toPage(content, page, size, total);
     }
 
     // --- 新增 searchCooperations 方法 ---
     @Override
     public PageResponse<CooperationListItemDTO> searchCooperations(SearchCooperationRequest request) {
+        if (!shouldCoalesceReads()) {
+            return ReadRouting.replica(() -> doSearchCooperations(request));
+        }
+        // 请求对象可变，按规范化后的条件合并；共享的结果对象只读，调用方不应修改
+        return searchFlight.execute(SearchKey.of(request), () -> ReadRouting.replica(() -> doSearchCooperations(request)));
+    }
+
+    // 事务内的读取可能看到本事务未提交的写入，不与其他调用共享；
+    // 处于读己之写窗口的客户端必须读主库，不加入其他调用方可能来自副本的读取
+    private boolean shouldCoalesceReads() {
+        return readCoalescingEnabled && !TransactionSynchronizationManager.isActualTransactionActive()
+                && !ReadRouting.isPrimaryRequired();
+    }
+
+    /**
+     * 搜索请求的合并 key：空字符串条件与未传等价，游标模式下与结果无关的 page 仍保留 (响应中会回显)
+     */
+    private record SearchKey(String theme, String initiatorRegion, String receiverRegion,
+                             int page, int size, boolean cursorMode, String cursor, TotalMode totalMode) {
+
+        static SearchKey of(SearchCooperationRequest request) {
+            return new SearchKey(
+                    StringUtils.hasLength(request.getCooperationTheme()) ? request.getCooperationTheme() : null,
+                    StringUtils.hasLength(request.getInitiatorRegion()) ? request.getInitiatorRegion() : null,
+                    StringUtils.hasLength(request.getReceiverRegion()) ? request.getReceiverRegion() : null,
+                    request.getPage(),
+                    request.getSize(),
+                    request.usesCursor(),
+                    StringUtils.hasText(request.getCursor()) ? request.getCursor() : null,
+                    request.resolveTotalMode());
+        }
+    }
+
+    private PageResponse<CooperationListItemDTO> doSearchCooperations(SearchCooperationRequest request) {
         int page = request.getPage();
         int size = request.getSize();
-        int offset = (page - 1) * size;
+        TotalMode totalMode = request.resolveTotalMode();
+        PageCursor cursor = request.usesCursor() ? PageCursor.decode(request.getCursor()) : null;
 
-        // 1. 查询符合条件的总记录数
-        long totalElements = cooperationMapper.countTotalSearch(request);
+        // 0. 主题条件优先通过内存索引解析出候选 ID；索引不可用时为 null，SQL 退回 LIKE 过滤。
+        //    索引可能缺少其他实例刚写入的合作，没有命中时同样退回 LIKE，不直接返回空页
+        Set<Long> indexedIds = StringUtils.hasLength(request.getCooperationTheme())
+                ? themeIndex.search(request.getCooperationTheme())
+                : null;
+        Set<Long> themeIds = indexedIds == null || indexedIds.isEmpty() ? null : indexedIds;
+
+        // 1. 查询符合条件的总记录数 (优先读取缓存，totalMode=none 时跳过)
+        CooperationTotalsCache.Total total = totalsCache.getTotal(request, totalMode,
+                () -> ReadRouting.replicaForCache(() -> cooperationMapper.countTotalSearch(request, themeIds)));
+
+        if (request.usesCursor()) {
+            List<CooperationListItemDTO> rows = cooperationMapper.searchPageAfterCursor(
+                    request,
+                    themeIds,
+                    cursor == null ? null : cursor.getCreatedAt(),
+                    cursor == null ? null : cursor.getId(),
+                    size + 1);
+            return toCursorPage(rows, page, size, total);
+        }
+
+        int offset = (page - 1) * size;
 
         List<CooperationListItemDTO> content;
-        if (totalElements == 0 || offset >= totalElements) {
+        if (isBeyondExactTotal(total, offset)) {
             // 如果没有数据或请求的页码超出范围，返回空列表
             content = Collections.emptyList();
         } else {
-            // 2. 查询当前页的数据 (Mapper 方法已包含人员数量计算和排序)
-            content = cooperationMapper.searchPaginatedWithCount(request, offset, size);
+            // 2. 查询当前页的数据 (Mapper 方法已包含人员数量和排序)
+            content = cooperationMapper.searchPaginatedWithCount(request, themeIds, offset, size);
         }
 
-        // 3. 计算总页数
+        // 3. 组装 PageResponse 对象
+        return toPage(content, page, size, total);
+    }
+
+    // 只有精确总数才能用来跳过页查询，估算值可能偏小
+    private boolean isBeyondExactTotal(CooperationTotalsCache.Total total, int offset) {
+        return total != null && total.mode() == TotalMode.EXACT && (total.value() == 0 || offset >= total.value());
+    }
+
+    // 计算总页数 (有数据时至少一页)
+    private int calculateTotalPages(long totalElements, int size) {
         int totalPages = (int) Math.ceil((double) totalElements / size);
-        if (totalPages == 0 && totalElements > 0) { // 至少有一页
-             totalPages = 1;
+        if (totalPages == 0 && totalElements > 0) {
+            totalPages = 1;
+        }
+        return totalPages;
+    }
+
+    // 组装分页结果；total 为 null (totalMode=none) 时总数与总页数返回 -1
+    private PageResponse<CooperationListItemDTO> toPage(List<CooperationListItemDTO> content, int page, int size, CooperationTotalsCache.Total total) {
+        PageResponse<CooperationListItemDTO> response;
+        if (total == null) {
+            response = new PageResponse<>(content, page, size, -1, -1);
+            response.setTotalMode(TotalMode.NONE.getValue());
+        } else {
+            response = new PageResponse<>(content, page, size, total.value(), calculateTotalPages(total.value(), size));
+            response.setTotalMode(total.mode().getValue());
         }
+        return response;
+    }
 
-        // 4. 组装 PageResponse 对象
-        return new PageResponse<>(content, page, size, totalElements, totalPages);
+    // 游标模式下组装分页结果：rows 比 size 多一条时说明还有下一页，以当前页最后一条的位置作为 nextCursor
+    private PageResponse<CooperationListItemDTO> toCursorPage(List<CooperationListItemDTO> rows, int page, int size, CooperationTotalsCache.Total total) {
+        boolean hasNext = rows.size() > size;
+        List<CooperationListItemDTO> content = hasNext ? new ArrayList<>(rows.subList(0, size)) : rows;
+        PageResponse<CooperationListItemDTO> response = toPage(content, page, size, total);
+        response.setNextCursor(hasNext ? PageCursor.of(content.get(content.size() - 1)).encode() : null);
+        return response;
     }
 
      // --- 新增 getCooperationDetails 方法实现 ---
      @Override
      public CooperationDetailDTO getCooperationDetails(Long id) throws ResourceNotFoundException {
+         // 读穿透缓存：未命中时才查询数据库，写操作提交后会精确失效；
+         // 同一 ID 的并发读取先在这里合并 (缓存本身也只加载一次，这一层用于统计合并次数)
+         if (!shouldCoalesceReads()) {
+             return detailCache.get(id, this::loadCooperationDetailsForCache);
+         }
+         return detailFlight.execute(id, () -> detailCache.get(id, this::loadCooperationDetailsForCache));
+     }
+
+     // 详情进入共享缓存：可以读取只读副本，但本实例刚提交过写事务时改读主库，避免缓存复制延迟内的旧数据
+     private CooperationDetailDTO loadCooperationDetailsForCache(Long id) throws ResourceNotFoundException {
+         return ReadRouting.replicaForCache(() -> loadCooperationDetails(id));
+     }
+
+     private CooperationDetailDTO loadCooperationDetails(Long id) throws ResourceNotFoundException {
          // 1. 获取合作主体信息 (使用 findById，它应该只返回未删除的记录)
          Cooperation cooperation = cooperationMapper.findById(id);
          if (cooperation == null) { // findById 应该已经处理了 deleted=0，所以只需检查 null
@@ -366,17 +757,12 @@ public class CooperationServiceImpl implements CooperationService {
  
  
          // 3. 组装 CooperationDetailDTO
-         CooperationDetailDTO detailDTO = new CooperationDetailDTO();
-         detailDTO.setId(cooperation.getId());
-         detailDTO.setCooperationTheme(cooperation.getCooperationTheme());
-         detailDTO.setInitiatorRegion(cooperation.getInitiatorRegion());
-         detailDTO.setReceiverRegion(cooperation.getReceiverRegion());
-         detailDTO.setCooperationStartDate(cooperation.getCooperationStartDate());
-         detailDTO.setCooperationEndDate(cooperation.getCooperationEndDate());
-         detailDTO.setPersonnelCount(personnelDetails.size()); // 人员数量从列表大小获取
-         detailDTO.setPersonnelList(personnelDetails);
- 
-         return detailDTO;
+         return cooperationConverter.toDetail(cooperation, personnelDetails);
+     }
+
+     @Override
+     public CacheStatsDTO getDetailCacheStats() {
+         return detailCache.stats();
      }
      // --- 结束新增 getCooperationDetails 方法实现 ---
 
@@ -402,9 +788,11 @@ public class CooperationServiceImpl implements CooperationService {
             throw new IllegalStateException("删除合作信息时发生并发冲突或记录状态已改变，ID: " + id);
         }
 
-        // 3. 删除关联的 cooperation_personnel 记录 (如果未设置级联删除)
-        // 假设没有级联删除，需要手动删除
-        cooperationPersonnelMapper.deleteByCooperationId(id);
+        // 3. 移出统计聚合表 (合作行已被上一步锁定)。关联的 cooperation_personnel 记录保留，
+        // 查询在用数据时都通过 c.deleted = 0 过滤，超过保留期后由归档任务连同合作一起移入归档表
+        applyStats(cooperationStatsMapper, Collections.singletonList(id), -1, randomStatsSlot());
+
+        afterCooperationsDeleted(Collections.singletonList(id));
     }
     // --- 结束新增 deleteCooperation 方法实现 ---
 
@@ -418,9 +806,13 @@ public class CooperationServiceImpl implements CooperationService {
             throw new IllegalArgumentException("用于批量删除的ID列表不能为空");
         }
 
-        // 2. 执行批量逻辑删除 (更新 cooperation 表的 deleted 标志)
-        // Mapper 的批量更新语句应设计为只更新存在且 deleted=0 的记录。
-        int updatedRows = cooperationMapper.batchMarkAsDeleted(ids); // 调用 Mapper 批量更新 deleted 标志
+        // 2. 锁定其中未删除的合作，移出统计聚合表后执行批量逻辑删除 (更新 cooperation 表的 deleted 标志)
+        List<Long> activeIds = cooperationMapper.lockActiveIds(ids);
+        int updatedRows = 0;
+        if (!activeIds.isEmpty()) {
+            applyStats(cooperationStatsMapper, activeIds, -1, randomStatsSlot());
+            updatedRows = cooperationMapper.batchMarkAsDeleted(activeIds); // 调用 Mapper 批量更新 deleted 标志
+        }
 
         // 可选：检查影响的行数
         if (updatedRows == 0 && !ids.isEmpty()) {
@@ -431,11 +823,426 @@ public class CooperationServiceImpl implements CooperationService {
         }
 
 
-        // 3. 批量删除关联的 cooperation_personnel 记录 (如果未设置级联删除)
-        // 假设没有级联删除，需要手动批量删除
-        if (updatedRows > 0) { // 只有在主表有记录被删除时才需要删除关联记录
-             cooperationPersonnelMapper.deleteByCooperationIds(ids); // 需要新增此 Mapper 方法
+        // 3. 关联的 cooperation_personnel 记录保留，由归档任务连同合作一起移入归档表
+        if (updatedRows > 0) {
+             afterCooperationsDeleted(activeIds);
         }
     }
     // --- 结束新增 deleteCooperationsBatch 方法实现 ---
-}
\ No newline at end of file
+
+
+    // --- 合作统计 ---
+
+    @Override
+    public CooperationStatsDTO getCooperationStats() {
+        List<CooperationStatsRowDTO> regionPairJobTypes = cooperationStatsMapper.findJobTypeStats();
+        // 按合作类型汇总各地区 (分组数量很少，在内存中合并)
+        Map<CooperationJobType, CooperationStatsRowDTO> byJobType = new TreeMap<>();
+        for (CooperationStatsRowDTO row : regionPairJobTypes) {
+            CooperationStatsRowDTO total = byJobType.computeIfAbsent(row.getCooperationJobType(), type -> {
+                CooperationStatsRowDTO dto = new CooperationStatsRowDTO();
+                dto.setCooperationJobType(type);
+                return dto;
+            });
+            total.setCooperationCount(total.getCooperationCount() + row.getCooperationCount());
+            total.setPersonnelCount(total.getPersonnelCount() + row.getPersonnelCount());
+            total.setPersonDays(total.getPersonDays() + row.getPersonDays());
+        }
+        CooperationStatsDTO stats = new CooperationStatsDTO();
+        stats.setRegionPairs(cooperationStatsMapper.findRegionStats());
+        stats.setRegionPairJobTypes(regionPairJobTypes);
+        stats.setJobTypes(new ArrayList<>(byJobType.values()));
+        return stats;
+    }
+    // --- 结束合作统计 ---
+
+
+    // --- 人员空闲时段 ---
+
+    @Value("${cooperation.availability.max-personnel:5000}")
+    private int maxAvailabilityPersonnel = 5000;
+
+    @Override
+    public List<PersonnelAvailabilityDTO> getPersonnelAvailability(AvailabilityRequest request) throws IllegalArgumentException {
+        if (request == null || request.getStartDate() == null || request.getEndDate() == null) {
+            throw new IllegalArgumentException("查询的开始日期和结束日期不能为空");
+        }
+        if (request.getStartDate().isAfter(request.getEndDate())) {
+            throw new IllegalArgumentException("查询的开始日期不能晚于结束日期");
+        }
+        int minDays = request.getMinDays() == null ? 1 : request.getMinDays();
+        if (minDays < 1) {
+            throw new IllegalArgumentException("minDays 必须大于 0");
+        }
+        boolean byIds = !CollectionUtils.isEmpty(request.getPersonnelIds());
+        if (byIds == (request.getEnterpriseId() != null)) {
+            throw new IllegalArgumentException("personnelIds 和 enterpriseId 必须且只能指定一个");
+        }
+
+        // 1. 确定要查询的人员 (按 ID 升序，与占用时段的排序一致)
+        List<Personnel> personnel;
+        if (byIds) {
+            Set<Long> ids = new TreeSet<>();
+            for (Long id : request.getPersonnelIds()) {
+                if (id == null) {
+                    throw new IllegalArgumentException("人员ID不能为空");
+                }
+                ids.add(id);
+            }
+            checkAvailabilityPersonnelCount(ids.size());
+            personnel = personnelMapper.findByIds(ids);
+            if (personnel.size() != ids.size()) {
+                Set<Long> missing = new TreeSet<>(ids);
+                personnel.forEach(p -> missing.remove(p.getId()));
+                throw new IllegalArgumentException("人员不存在或已删除: " + missing);
+            }
+            personnel.sort(Comparator.comparing(Personnel::getId));
+        } else {
+            if (enterpriseService.getEnterpriseById(request.getEnterpriseId()) == null) {
+                throw new IllegalArgumentException("企业不存在或已删除: " + request.getEnterpriseId());
+            }
+            personnel = personnelMapper.findIdAndNameByEnterpriseId(request.getEnterpriseId());
+            checkAvailabilityPersonnelCount(personnel.size());
+        }
+        if (personnel.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // 2. 一次查询流式读取所有人员在区间内的占用时段，边读边扫描
+        Map<Long, PersonnelAvailabilityDTO> result = new LinkedHashMap<>();
+        List<Long> ids = new ArrayList<>(personnel.size());
+        for (Personnel p : personnel) {
+            PersonnelAvailabilityDTO dto = new PersonnelAvailabilityDTO();
+            dto.setPersonnelId(p.getId());
+            dto.setPersonnelName(p.getName());
+            result.put(p.getId(), dto);
+            ids.add(p.getId());
+        }
+        FreeWindowSweep sweep = new FreeWindowSweep(request.getStartDate(), request.getEndDate(), minDays, result);
+        cooperationPersonnelMapper.streamAssignmentPeriods(ids, request.getStartDate(), request.getEndDate(),
+                context -> sweep.accept(context.getResultObject()));
+        sweep.finish();
+        return new ArrayList<>(result.values());
+    }
+
+    private void checkAvailabilityPersonnelCount(int count) {
+        if (count > maxAvailabilityPersonnel) {
+            throw new IllegalArgumentException("单次最多查询 " + maxAvailabilityPersonnel + " 名人员的空闲时段，当前为 " + count);
+        }
+    }
+
+    /**
+     * 扫描线计算空闲时段：人员和占用时段都按人员 ID 升序排列，占用时段在同一人员内按开始日期升序到达。
+     * 对当前人员维护游标 free (查询区间内尚未被占用覆盖的最早日期)，遇到开始日期在游标之后的占用时段时，
+     * 二者之间即为空闲时段；相邻或重叠的占用时段自然合并，没有占用时段的人员整个区间空闲。
+     * 与 checkForPersonnelTimeOverlap 相同，首尾日期都计入占用，因此空闲时段内的任意子区间都不会被判定为重叠。
+     * (包级可见，供单元测试直接调用)
+     */
+    static final class FreeWindowSweep {
+
+        private final LocalDate rangeStart;
+        private final LocalDate rangeEnd;
+        private final int minDays;
+        private final Iterator<PersonnelAvailabilityDTO> pending; // 按人员 ID 升序
+
+        private PersonnelAvailabilityDTO current;
+        private LocalDate free;
+
+        FreeWindowSweep(LocalDate rangeStart, LocalDate rangeEnd, int minDays, Map<Long, PersonnelAvailabilityDTO> result) {
+            this.rangeStart = rangeStart;
+            this.rangeEnd = rangeEnd;
+            this.minDays = minDays;
+            this.pending = result.values().iterator();
+        }
+
+        void accept(CooperationPersonnel period) {
+            while (current == null || !current.getPersonnelId().equals(period.getPersonnelId())) {
+                advance();
+            }
+            if (period.getPersonnelStartDate().isAfter(free)) {
+                addFree(free, period.getPersonnelStartDate().minusDays(1));
+            }
+            if (!period.getPersonnelEndDate().isBefore(free)) {
+                free = period.getPersonnelEndDate().plusDays(1);
+            }
+        }
+
+        void finish() {
+            closeCurrent();
+            while (pending.hasNext()) {
+                advance();
+                closeCurrent();
+            }
+        }
+
+        // 结束当前人员，切换到下一个人员 (中间跳过的人员在 closeCurrent 中记为整个区间空闲)
+        private void advance() {
+            closeCurrent();
+            if (!pending.hasNext()) {
+                throw new IllegalStateException("占用时段未按人员 ID 排序或包含未请求的人员");
+            }
+            current = pending.next();
+            free = rangeStart;
+        }
+
+        private void closeCurrent() {
+            if (current != null && !free.isAfter(rangeEnd)) {
+                addFree(free, rangeEnd);
+            }
+            current = null;
+        }
+
+        private void addFree(LocalDate start, LocalDate end) {
+            long days = end.toEpochDay() - start.toEpochDay() + 1;
+            current.setFreeDays(current.getFreeDays() + days);
+            if (days >= minDays) {
+                current.getFreeWindows().add(new DateWindowDTO(start, end, days));
+            }
+        }
+    }
+    // --- 结束人员空闲时段 ---
+
+
+    // --- 批量导入 ---
+
+    private static final Set<String> ALLOWED_REGIONS = Set.of("北京", "广州", "上海");
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${cooperation.import.chunk-size:500}")
+    private int defaultImportChunkSize = 500;
+
+    @Value("${cooperation.import.max-chunk-size:2000}")
+    private int maxImportChunkSize = 2000;
+
+    // ExecutorType.BATCH 的 SqlSession：同一 Spring 事务中不能混用不同的 ExecutorType，
+    // 因此导入事务内的所有查询和写入都通过下面这组 Mapper 执行
+    private SqlSessionTemplate batchSqlSession;
+    private CooperationMapper batchCooperationMapper;
+    private CooperationPersonnelMapper batchCooperationPersonnelMapper;
+    private CooperationStatsMapper batchCooperationStatsMapper;
+    private EnterpriseMapper batchEnterpriseMapper;
+    private PersonnelMapper batchPersonnelMapper;
+
+    @PostConstruct
+    void initBatchMappers() {
+        batchSqlSession = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+        batchCooperationMapper = batchSqlSession.getMapper(CooperationMapper.class);
+        batchCooperationPersonnelMapper = batchSqlSession.getMapper(CooperationPersonnelMapper.class);
+        batchCooperationStatsMapper = batchSqlSession.getMapper(CooperationStatsMapper.class);
+        batchEnterpriseMapper = batchSqlSession.getMapper(EnterpriseMapper.class);
+        batchPersonnelMapper = batchSqlSession.getMapper(PersonnelMapper.class);
+    }
+
+    @Override
+    public ImportReport importCooperations(Iterator<ImportRecord<CreateCooperationRequest>> records, Integer chunkSize, ImportCommitMode commitMode) {
+        int size = ChunkedImport.resolveChunkSize(chunkSize, defaultImportChunkSize, maxImportChunkSize);
+        ImportReport report = ChunkedImport.run(records, size, commitMode, new TransactionTemplate(transactionManager),
+                this::lockAllImportPersonnel, this::importChunk);
+        log.info("批量导入合作：共 {} 条，成功 {} 条，失败 {} 条，回滚 {} 条，耗时 {} ms，{} 条/秒",
+                report.getTotal(), report.getImported(), report.getFailed(), report.getRolledBack(),
+                report.getElapsedMillis(), String.format("%.1f", report.getRowsPerSecond()));
+        return report;
+    }
+
+    /**
+     * 处理一批记录 (在导入事务内执行)：
+     * 1. 逐条做字段和日期校验 (纯内存)，并锁定通过校验的记录涉及的人员；
+     * 2. 一次查询校验本批所有主题的唯一性，并检查批内重复；
+     * 3. 一次查询预取本批引用的所有企业和人员，在内存中校验引用关系；
+     * 4. 一次查询取回本批所有人员时间段与数据库的重叠，再在内存中检查批内记录之间的重叠；
+     * 5. 校验通过的记录通过 JDBC 批处理写入 cooperation 和 cooperation_personnel。
+     */
+    // ALL 模式整个导入一个事务：开始时按顺序一次性锁定所有记录涉及的人员，各批次不再以乱序追加锁 (两个导入之间不会死锁)
+    private void lockAllImportPersonnel(List<ImportRecord<CreateCooperationRequest>> records) {
+        List<CooperationPersonnelRequest> items = new ArrayList<>();
+        for (ImportRecord<CreateCooperationRequest> record : records) {
+            if (record.getParseError() == null && record.getValue().getCooperationPersonnelList() != null) {
+                record.getValue().getCooperationPersonnelList().stream().filter(Objects::nonNull).forEach(items::add);
+            }
+        }
+        lockPersonnelOf(items, batchPersonnelMapper);
+    }
+
+    private void importChunk(List<ImportRecord<CreateCooperationRequest>> chunk, ImportReport report) {
+        Map<ImportRecord<CreateCooperationRequest>, ImportRecordResult> pending = new LinkedHashMap<>();
+        for (ImportRecord<CreateCooperationRequest> record : chunk) {
+            ImportRecordResult result = new ImportRecordResult(record.getIndex(), record.getLine());
+            report.getResults().add(result);
+            if (record.getParseError() != null) {
+                ChunkedImport.reject(result, record.getParseError());
+                continue;
+            }
+            try {
+                validateImportFields(record.getValue());
+                pending.put(record, result);
+            } catch (IllegalArgumentException e) {
+                ChunkedImport.reject(result, e.getMessage());
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // 锁定本批涉及的所有人员 (与新增接口互斥)，之后的重叠查询才能看到并发写入已提交的明细；ALL 模式下已在事务开始时锁定
+        List<CooperationPersonnelRequest> lockedItems = new ArrayList<>();
+        pending.keySet().forEach(record -> lockedItems.addAll(record.getValue().getCooperationPersonnelList()));
+        lockPersonnelOf(lockedItems, batchPersonnelMapper);
+
+        // 主题唯一性：与数据库 (包括本次导入已写入的批次) 及本批内其他记录比较，比较方式与 MySQL 默认排序规则一致，不区分大小写
+        Set<String> themes = new HashSet<>();
+        pending.keySet().forEach(record -> themes.add(record.getValue().getCooperationTheme()));
+        Set<String> takenThemes = new HashSet<>();
+        batchCooperationMapper.findExistingThemes(themes).forEach(theme -> takenThemes.add(theme.toLowerCase(Locale.ROOT)));
+        pending.entrySet().removeIf(entry -> {
+            String theme = entry.getKey().getValue().getCooperationTheme();
+            if (!takenThemes.add(theme.toLowerCase(Locale.ROOT))) {
+                ChunkedImport.reject(entry.getValue(), "合作主题已存在: " + theme);
+                return true;
+            }
+            return false;
+        });
+
+        // 引用校验：批量预取本批引用的企业与人员
+        Set<Long> enterpriseIds = new HashSet<>();
+        Set<Long> personnelIds = new HashSet<>();
+        for (ImportRecord<CreateCooperationRequest> record : pending.keySet()) {
+            for (CooperationPersonnelRequest item : record.getValue().getCooperationPersonnelList()) {
+                enterpriseIds.add(item.getSendingEnterpriseId());
+                enterpriseIds.add(item.getReceivingEnterpriseId());
+                personnelIds.add(item.getPersonnelId());
+            }
+        }
+        Map<Long, Enterprise> enterpriseMap = enterpriseIds.isEmpty() ? Collections.emptyMap()
+                : batchEnterpriseMapper.findByIds(enterpriseIds).stream().collect(Collectors.toMap(Enterprise::getId, e -> e));
+        Map<Long, Personnel> personnelMap = personnelIds.isEmpty() ? Collections.emptyMap()
+                : batchPersonnelMapper.findByIds(personnelIds).stream().collect(Collectors.toMap(Personnel::getId, p -> p));
+        pending.entrySet().removeIf(entry -> {
+            CreateCooperationRequest request = entry.getKey().getValue();
+            try {
+                for (CooperationPersonnelRequest item : request.getCooperationPersonnelList()) {
+                    validatePersonnelItemReferences(item, request.getInitiatorRegion(), request.getReceiverRegion(), enterpriseMap, personnelMap);
+                }
+                return false;
+            } catch (IllegalArgumentException e) {
+                ChunkedImport.reject(entry.getValue(), e.getMessage());
+                return true;
+            }
+        });
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // 时间重叠：数据库中的重叠一次查询取回；请求内部及批内记录之间的重叠在内存中判断
+        List<CooperationPersonnelRequest> allItems = new ArrayList<>();
+        pending.keySet().forEach(record -> allItems.addAll(record.getValue().getCooperationPersonnelList()));
+        Map<Long, List<CooperationPersonnel>> dbOverlaps = batchCooperationPersonnelMapper.findOverlappingAssignmentsBatch(allItems, null)
+                .stream().collect(Collectors.groupingBy(CooperationPersonnel::getPersonnelId));
+        Map<Long, List<CooperationPersonnelRequest>> accepted = new HashMap<>();
+        pending.entrySet().removeIf(entry -> {
+            List<String> conflicts = findImportOverlaps(entry.getKey().getValue().getCooperationPersonnelList(), dbOverlaps, accepted);
+            if (!conflicts.isEmpty()) {
+                ChunkedImport.reject(entry.getValue(), String.join("; ", conflicts));
+                return true;
+            }
+            for (CooperationPersonnelRequest item : entry.getKey().getValue().getCooperationPersonnelList()) {
+                accepted.computeIfAbsent(item.getPersonnelId(), k -> new ArrayList<>()).add(item);
+            }
+            return false;
+        });
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // 写入：先批量插入主记录并刷新以取得自增 ID，再批量插入人员明细
+        List<Cooperation> cooperations = new ArrayList<>(pending.size());
+        for (ImportRecord<CreateCooperationRequest> record : pending.keySet()) {
+            Cooperation cooperation = cooperationConverter.toEntity(record.getValue());
+            cooperation.setPersonnelCount(record.getValue().getCooperationPersonnelList().size());
+            cooperation.setDeleted(0);
+            batchCooperationMapper.insert(cooperation);
+            cooperations.add(cooperation);
+        }
+        batchSqlSession.flushStatements();
+
+        Iterator<Cooperation> inserted = cooperations.iterator();
+        for (Map.Entry<ImportRecord<CreateCooperationRequest>, ImportRecordResult> entry : pending.entrySet()) {
+            Cooperation cooperation = inserted.next();
+            for (CooperationPersonnelRequest item : entry.getKey().getValue().getCooperationPersonnelList()) {
+                batchCooperationPersonnelMapper.insert(cooperationConverter.toEntity(item, cooperation.getId()));
+            }
+            entry.getValue().setStatus(ImportRecordResult.IMPORTED);
+            entry.getValue().setId(cooperation.getId());
+            afterCooperationSaved(cooperation.getId(), cooperation.getCooperationTheme(), entry.getKey().getValue().getCooperationPersonnelList());
+        }
+        List<Long> importedIds = cooperations.stream().map(Cooperation::getId).collect(Collectors.toList());
+        applyStats(batchCooperationStatsMapper, importedIds, 1, randomStatsSlot()); // 整批一次计入统计聚合表
+        batchSqlSession.flushStatements();
+    }
+
+    // 导入绕过了 Controller 的 @Valid，这里补齐 CreateCooperationRequest 上声明的字段约束，再做与新增接口相同的日期校验
+    private void validateImportFields(CreateCooperationRequest request) {
+        if (!StringUtils.hasText(request.getCooperationTheme()) || request.getCooperationTheme().length() > 20) {
+            throw new IllegalArgumentException("合作主题不能为空且不能超过20个字符");
+        }
+        if (!ALLOWED_REGIONS.contains(request.getInitiatorRegion()) || !ALLOWED_REGIONS.contains(request.getReceiverRegion())) {
+            throw new IllegalArgumentException("发起方和接收方必须是北京、广州或上海");
+        }
+        if (request.getCooperationStartDate() == null || request.getCooperationEndDate() == null) {
+            throw new IllegalArgumentException("合作开始时间和结束时间不能为空");
+        }
+        if (CollectionUtils.isEmpty(request.getCooperationPersonnelList())) {
+            throw new IllegalArgumentException("合作人员名单不能为空");
+        }
+        validateCooperationDates(request.getCooperationStartDate(), request.getCooperationEndDate());
+        for (CooperationPersonnelRequest item : request.getCooperationPersonnelList()) {
+            if (item.getSendingEnterpriseId() == null || item.getPersonnelId() == null || item.getCooperationJobType() == null
+                    || item.getReceivingEnterpriseId() == null || item.getPersonnelStartDate() == null || item.getPersonnelEndDate() == null) {
+                throw new IllegalArgumentException("合作人员明细的送出企业、合作人、合作类型、接收企业及起止时间均不能为空");
+            }
+            validatePersonnelItemDates(item.getPersonnelStartDate(), item.getPersonnelEndDate(),
+                    request.getCooperationStartDate(), request.getCooperationEndDate());
+        }
+    }
+
+    // 检查一条导入记录的人员时间段：与数据库中的现有合作、与本批已接受的记录、与记录内部的其他明细
+    private List<String> findImportOverlaps(List<CooperationPersonnelRequest> items,
+                                            Map<Long, List<CooperationPersonnel>> dbOverlaps,
+                                            Map<Long, List<CooperationPersonnelRequest>> accepted) {
+        List<String> conflicts = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            CooperationPersonnelRequest item = items.get(i);
+            for (CooperationPersonnel existing : dbOverlaps.getOrDefault(item.getPersonnelId(), Collections.emptyList())) {
+                if (overlaps(existing.getPersonnelStartDate(), existing.getPersonnelEndDate(), item)) {
+                    conflicts.add(String.format("人员 (ID: %d) 在时间段 [%s - %s] 与现有合作 (ID: %d, 人员时段: [%s - %s]) 存在时间重叠",
+                            item.getPersonnelId(), item.getPersonnelStartDate(), item.getPersonnelEndDate(),
+                            existing.getCooperationId(), existing.getPersonnelStartDate(), existing.getPersonnelEndDate()));
+                }
+            }
+            for (CooperationPersonnelRequest other : accepted.getOrDefault(item.getPersonnelId(), Collections.emptyList())) {
+                if (overlaps(other.getPersonnelStartDate(), other.getPersonnelEndDate(), item)) {
+                    conflicts.add(String.format("人员 (ID: %d) 在时间段 [%s - %s] 与本次导入的其他记录 (人员时段: [%s - %s]) 存在时间重叠",
+                            item.getPersonnelId(), item.getPersonnelStartDate(), item.getPersonnelEndDate(),
+                            other.getPersonnelStartDate(), other.getPersonnelEndDate()));
+                }
+            }
+            for (int j = 0; j < i; j++) {
+                CooperationPersonnelRequest other = items.get(j);
+                if (Objects.equals(other.getPersonnelId(), item.getPersonnelId())
+                        && overlaps(other.getPersonnelStartDate(), other.getPersonnelEndDate(), item)) {
+                    conflicts.add("请求内部人员 (ID: " + item.getPersonnelId() + ") 的合作时间存在重叠");
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    private static boolean overlaps(LocalDate start, LocalDate end, CooperationPersonnelRequest item) {
+        return !end.isBefore(item.getPersonnelStartDate()) && !start.isAfter(item.getPersonnelEndDate());
+    }
+    // --- 结束批量导入 ---
+}
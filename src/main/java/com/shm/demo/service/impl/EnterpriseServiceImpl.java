@@ -2,31 +2,165 @@ package com.shm.demo.service.impl;
 
 import com.github.pagehelper.PageHelper; // 引入 PageHelper
 import com.github.pagehelper.PageInfo;   // 引入 PageInfo
+import com.shm.demo.cache.CooperationDetailCache;
+import com.shm.demo.convert.EnterpriseConverter;
+import com.shm.demo.datasource.ReadRouting;
 import com.shm.demo.dto.SearchEnterpriseRequest; // 引入请求 DTO
 import com.shm.demo.entity.Enterprise;
+import com.shm.demo.exception.OptimisticLockConflictException;
+import com.shm.demo.mapper.CooperationPersonnelMapper;
 import com.shm.demo.mapper.EnterpriseMapper;
 import com.shm.demo.service.EnterpriseService;
+import com.shm.demo.util.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils; // 引入 StringUtils
 
-import java.util.Arrays; // 引入 Arrays
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.function.Consumer;
 
+@Slf4j
 @Service
 public class EnterpriseServiceImpl implements EnterpriseService {
 
     @Autowired
     private EnterpriseMapper enterpriseMapper;
 
+    @Autowired
+    private CooperationPersonnelMapper cooperationPersonnelMapper;
+
+    @Autowired
+    private CooperationDetailCache cooperationDetailCache; // 合作详情中展示企业名称，企业变更后需要失效
+
+    @Autowired
+    private EnterpriseConverter enterpriseConverter; // 缓存返回副本时复制 (编译期生成)
+
     // 允许的地区列表
     private static final List<String> ALLOWED_REGIONS = Arrays.asList("北京", "广州", "上海");
 
+    // --- 企业缓存 ---
+    // 企业数据量小且很少变化，启动后全量加载到内存，新增、修改、删除在事务提交后同步更新。
+    // 加载完成前 (或加载失败时) 所有读取直接查询数据库。缓存中只保存未删除的企业，对外返回副本，避免调用方修改缓存对象。
+    private final Object enterpriseCacheLock = new Object();
+    private final Map<Long, Enterprise> enterpriseById = new HashMap<>();     // 企业 ID -> 企业
+    private final Map<String, Long> enterpriseIdByName = new HashMap<>();     // 规范化名称 -> 企业 ID
+    private final Set<Long> touchedDuringWarmUp = new HashSet<>();           // 加载期间已被写操作更新的 ID，加载时跳过
+    private boolean warmingUp;
+    private volatile boolean cacheReady;
+
+    /**
+     * 应用启动完成后在后台线程全量加载企业缓存
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpCacheAsync() {
+        Thread thread = new Thread(this::reloadCache, "enterprise-cache-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 定期全量重新加载，兜底其他实例或直接修改数据库造成的不一致
+     */
+    @Scheduled(initialDelayString = "${enterprise.cache.refresh-interval:10m}", fixedDelayString = "${enterprise.cache.refresh-interval:10m}")
+    public void reloadCache() {
+        synchronized (enterpriseCacheLock) {
+            warmingUp = true;
+            touchedDuringWarmUp.clear();
+        }
+        try {
+            List<Enterprise> all = enterpriseMapper.findAll();
+            synchronized (enterpriseCacheLock) {
+                // 保留加载期间被写操作更新过的条目，其余以数据库为准
+                Map<Long, Enterprise> touched = new HashMap<>();
+                for (Long id : touchedDuringWarmUp) {
+                    Enterprise current = enterpriseById.get(id);
+                    if (current != null) {
+                        touched.put(id, current);
+                    }
+                }
+                enterpriseById.clear();
+                enterpriseIdByName.clear();
+                for (Enterprise enterprise : all) {
+                    if (!touchedDuringWarmUp.contains(enterprise.getId())) {
+                        putCached(enterprise);
+                    }
+                }
+                touched.values().forEach(this::putCached);
+                cacheReady = true;
+            }
+            log.info("企业缓存加载完成，共 {} 条", all.size());
+        } catch (Exception e) {
+            log.warn("企业缓存加载失败，企业查询将直接访问数据库: {}", e.getMessage());
+        } finally {
+            synchronized (enterpriseCacheLock) {
+                warmingUp = false;
+                touchedDuringWarmUp.clear();
+            }
+        }
+    }
+
+    // 事务提交后更新缓存 (enterprise 为 null 表示已删除)
+    private void afterEnterpriseChanged(Long id, Enterprise enterprise) {
+        Enterprise snapshot = copyOf(enterprise);
+        TransactionUtils.afterCommit(() -> {
+            synchronized (enterpriseCacheLock) {
+                if (warmingUp) {
+                    touchedDuringWarmUp.add(id);
+                }
+                removeCached(id);
+                if (snapshot != null) {
+                    putCached(snapshot);
+                }
+            }
+        });
+    }
+
+    private void putCached(Enterprise enterprise) {
+        enterpriseById.put(enterprise.getId(), enterprise);
+        if (enterprise.getName() != null) {
+            enterpriseIdByName.put(normalizeName(enterprise.getName()), enterprise.getId());
+        }
+    }
+
+    private void removeCached(Long id) {
+        Enterprise old = enterpriseById.remove(id);
+        if (old != null && old.getName() != null) {
+            enterpriseIdByName.remove(normalizeName(old.getName()), id);
+        }
+    }
+
+    // 与 MySQL 默认排序规则一致，名称比较不区分大小写
+    private static String normalizeName(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private Enterprise copyOf(Enterprise enterprise) {
+        return enterprise == null ? null : enterpriseConverter.copy(enterprise);
+    }
+
+    // 按名称查找未删除的企业，缓存就绪时不访问数据库
+    private Enterprise findActiveByName(String name) {
+        if (name == null) {
+            return null;
+        }
+        if (cacheReady) {
+            synchronized (enterpriseCacheLock) {
+                Long id = enterpriseIdByName.get(normalizeName(name));
+                return id == null ? null : copyOf(enterpriseById.get(id));
+            }
+        }
+        return enterpriseMapper.findByName(name);
+    }
+    // --- 结束企业缓存 ---
+
     @Override
     public boolean isNameUnique(String name) {
-        return enterpriseMapper.findByName(name) == null;
+        return findActiveByName(name) == null;
     }
 
     @Override
@@ -34,6 +168,8 @@ public class EnterpriseServiceImpl implements EnterpriseService {
     public Enterprise addEnterprise(Enterprise enterprise) throws IllegalArgumentException {
         validateEnterprise(enterprise, false);
         enterpriseMapper.insert(enterprise);
+        enterprise.setVersion(0); // 新记录的版本号 (数据库默认值)
+        afterEnterpriseChanged(enterprise.getId(), enterprise);
         return enterprise; // insert 后 enterprise 对象会包含 ID
     }
 
@@ -42,12 +178,46 @@ public class EnterpriseServiceImpl implements EnterpriseService {
         return enterpriseMapper.findAll();
     }
 
+    @Override
+    public void streamAllEnterprises(Consumer<Enterprise> consumer) {
+        // 导出直接读取数据库而不是缓存，保证与 getAllEnterprises 结果一致
+        enterpriseMapper.streamAll(context -> consumer.accept(context.getResultObject()));
+    }
+
     @Override
     public Enterprise getEnterpriseById(Long id) {
         if (id == null) return null;
+        if (cacheReady) {
+            synchronized (enterpriseCacheLock) {
+                return copyOf(enterpriseById.get(id));
+            }
+        }
         return enterpriseMapper.findById(id);
     }
 
+    @Override
+    public Map<Long, Enterprise> getEnterprisesByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, Enterprise> result = new HashMap<>();
+        if (cacheReady) {
+            synchronized (enterpriseCacheLock) {
+                for (Long id : ids) {
+                    Enterprise enterprise = enterpriseById.get(id);
+                    if (enterprise != null) {
+                        result.put(id, copyOf(enterprise));
+                    }
+                }
+            }
+            return result;
+        }
+        for (Enterprise enterprise : enterpriseMapper.findByIds(ids)) {
+            result.put(enterprise.getId(), enterprise);
+        }
+        return result;
+    }
+
     @Override
     @Transactional
     public Enterprise updateEnterprise(Enterprise enterprise) throws IllegalArgumentException {
@@ -59,6 +229,7 @@ public class EnterpriseServiceImpl implements EnterpriseService {
 
         validateEnterprise(enterprise, true); // 使用更新校验
 
+        // 不预先读取记录：直接按版本号条件更新，只在没有更新任何行时读取原始记录区分不存在、已删除和版本冲突
         int updatedRows = enterpriseMapper.update(enterprise);
         if (updatedRows == 0) {
             Enterprise rawExisting = enterpriseMapper.findRawById(enterprise.getId());
@@ -66,11 +237,18 @@ public class EnterpriseServiceImpl implements EnterpriseService {
                 throw new IllegalArgumentException("未找到要更新的企业信息，ID: " + enterprise.getId());
             } else if (rawExisting.getDeleted() == 1) {
                 throw new IllegalArgumentException("企业信息已被删除，无法更新，ID: " + enterprise.getId());
+            } else if (enterprise.getVersion() != null && !enterprise.getVersion().equals(rawExisting.getVersion())) {
+                throw new OptimisticLockConflictException("企业", enterprise.getId(), enterprise.getVersion(), rawExisting.getVersion());
             } else {
                  throw new IllegalStateException("更新企业信息时发生未知错误，ID: " + enterprise.getId());
             }
         }
-        return enterpriseMapper.findById(enterprise.getId()); // 返回更新后的信息
+        // 引用该企业的合作详情在事务提交后失效
+        List<Long> affectedCooperationIds = cooperationPersonnelMapper.findCooperationIdsByEnterpriseId(enterprise.getId());
+        TransactionUtils.afterCommit(() -> cooperationDetailCache.invalidateAll(affectedCooperationIds));
+        Enterprise updated = enterpriseMapper.findById(enterprise.getId()); // 在同一事务中读取一次更新后的信息 (行锁由 UPDATE 持有)
+        afterEnterpriseChanged(enterprise.getId(), updated);
+        return updated;
     }
 
     @Override
@@ -90,6 +268,7 @@ public class EnterpriseServiceImpl implements EnterpriseService {
                  throw new IllegalStateException("删除企业信息时发生未知错误，ID: " + id);
             }
         }
+        afterEnterpriseChanged(id, null);
     }
 
     // 辅助校验方法
@@ -111,8 +290,8 @@ public class EnterpriseServiceImpl implements EnterpriseService {
             throw new IllegalArgumentException("地区无效，只允许: " + String.join(", ", ALLOWED_REGIONS));
         }
 
-        // 名称唯一性校验 (仅在新增时或更新了名称时)
-        Enterprise existingByName = enterpriseMapper.findByName(enterprise.getName());
+        // 名称唯一性校验 (仅在新增时或更新了名称时)，缓存就绪时使用内存中的名称索引
+        Enterprise existingByName = findActiveByName(enterprise.getName());
         if (existingByName != null && existingByName.getDeleted() == 0) {
             if (!isUpdate || !Objects.equals(existingByName.getId(), enterprise.getId())) {
                 throw new IllegalArgumentException("企业名称已存在: " + enterprise.getName());
@@ -131,11 +310,14 @@ public class EnterpriseServiceImpl implements EnterpriseService {
              System.out.println("警告：提供的搜索地区无效，已忽略。");
         }
 
-        // 使用 PageHelper 启动分页
-        PageHelper.startPage(request.getPageNum(), request.getPageSize());
-        // 执行查询
-        List<Enterprise> list = enterpriseMapper.search(request);
-        // 用 PageInfo 包装查询结果
-        return new PageInfo<>(list);
+        // 搜索可以读取只读副本 (未开启读写分离时仍访问主库)
+        return ReadRouting.replica(() -> {
+            // 使用 PageHelper 启动分页
+            PageHelper.startPage(request.getPageNum(), request.getPageSize());
+            // 执行查询
+            List<Enterprise> list = enterpriseMapper.search(request);
+            // 用 PageInfo 包装查询结果
+            return new PageInfo<>(list);
+        });
     }
 }
\ No newline at end of file
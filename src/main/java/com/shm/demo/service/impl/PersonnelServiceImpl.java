@@ -2,26 +2,69 @@ package com.shm.demo.service.impl;
 
 import com.github.pagehelper.PageHelper; // 引入 PageHelper
 import com.github.pagehelper.PageInfo;   // 引入 PageInfo
+import com.shm.demo.cache.CooperationDetailCache;
+import com.shm.demo.convert.PersonnelConverter;
+import com.shm.demo.datasource.ReadRouting;
+import com.shm.demo.dto.CreatePersonnelRequest;
+import com.shm.demo.dto.ImportCommitMode;
+import com.shm.demo.dto.ImportRecordResult;
+import com.shm.demo.dto.ImportReport;
 import com.shm.demo.dto.SearchPersonnelRequest; // 引入请求 DTO
+import com.shm.demo.entity.Enterprise;
 import com.shm.demo.entity.Personnel;
+import com.shm.demo.exception.OptimisticLockConflictException;
+import com.shm.demo.importer.ChunkedImport;
+import com.shm.demo.importer.ImportRecord;
+import com.shm.demo.mapper.CooperationPersonnelMapper;
 import com.shm.demo.mapper.PersonnelMapper;
+import com.shm.demo.service.EnterpriseService;
 import com.shm.demo.service.PersonnelService;
+import com.shm.demo.util.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
+@Slf4j
 @Service
 public class PersonnelServiceImpl implements PersonnelService {
 
     @Autowired
     private PersonnelMapper personnelMapper;
 
+    @Autowired
+    private CooperationPersonnelMapper cooperationPersonnelMapper;
+
+    @Autowired
+    private CooperationDetailCache cooperationDetailCache; // 合作详情中展示人员姓名和任职企业，人员变更后需要失效
+
     // 校验逻辑 (可根据需要扩展)
     private void validatePersonnel(Personnel personnel, boolean isUpdate) throws IllegalArgumentException {
+        validatePersonnelFields(personnel);
+
+        // 手机号唯一性校验
+        Personnel existingByPhone = personnelMapper.findRawByPhone(personnel.getPhone());
+        if (existingByPhone != null && existingByPhone.getDeleted() == 0) { // 检查未删除的记录
+            if (!isUpdate || !Objects.equals(existingByPhone.getId(), personnel.getId())) {
+                throw new IllegalArgumentException("手机号已存在: " + personnel.getPhone());
+            }
+        }
+        // 可选：校验 enterprise_id 是否存在于 enterprise 表中
+        // if (enterpriseMapper.findRawById(personnel.getEnterpriseId()) == null) {
+        //     throw new IllegalArgumentException("指定的企业ID不存在: " + personnel.getEnterpriseId());
+        // }
+    }
+
+    // 字段校验 (纯内存，不访问数据库)
+    private void validatePersonnelFields(Personnel personnel) throws IllegalArgumentException {
         if (personnel == null) {
             throw new IllegalArgumentException("人员信息不能为空");
         }
@@ -46,18 +89,6 @@ public class PersonnelServiceImpl implements PersonnelService {
         if (personnel.getEnterpriseId() == null) {
             throw new IllegalArgumentException("任职企业ID不能为空");
         }
-
-        // 手机号唯一性校验
-        Personnel existingByPhone = personnelMapper.findRawByPhone(personnel.getPhone());
-        if (existingByPhone != null && existingByPhone.getDeleted() == 0) { // 检查未删除的记录
-            if (!isUpdate || !Objects.equals(existingByPhone.getId(), personnel.getId())) {
-                throw new IllegalArgumentException("手机号已存在: " + personnel.getPhone());
-            }
-        }
-        // 可选：校验 enterprise_id 是否存在于 enterprise 表中
-        // if (enterpriseMapper.findRawById(personnel.getEnterpriseId()) == null) {
-        //     throw new IllegalArgumentException("指定的企业ID不存在: " + personnel.getEnterpriseId());
-        // }
     }
 
     @Override
@@ -65,6 +96,7 @@ public class PersonnelServiceImpl implements PersonnelService {
     public Personnel addPersonnel(Personnel personnel) throws IllegalArgumentException {
         validatePersonnel(personnel, false); // 新增校验
         personnelMapper.insert(personnel);
+        personnel.setVersion(0); // 新记录的版本号 (数据库默认值)
         // insert 后 personnel 对象会包含 ID
         return personnel;
     }
@@ -80,6 +112,11 @@ public class PersonnelServiceImpl implements PersonnelService {
         return personnelMapper.findAll(); // findAll 内部已处理 deleted = 0
     }
 
+    @Override
+    public void streamAllPersonnel(Consumer<Personnel> consumer) {
+        personnelMapper.streamAll(context -> consumer.accept(context.getResultObject()));
+    }
+
     @Override
     @Transactional
     public Personnel updatePersonnel(Personnel personnel) throws IllegalArgumentException {
@@ -91,6 +128,7 @@ public class PersonnelServiceImpl implements PersonnelService {
 
         validatePersonnel(personnel, true); // 更新校验
 
+        // 不预先读取记录：直接按版本号条件更新，只在没有更新任何行时读取原始记录区分不存在、已删除和版本冲突
         int updatedRows = personnelMapper.update(personnel);
         if (updatedRows == 0) {
             // 检查记录是否真的不存在，或者只是已被逻辑删除
@@ -99,12 +137,18 @@ public class PersonnelServiceImpl implements PersonnelService {
                 throw new IllegalArgumentException("未找到要更新的人员信息，ID: " + personnel.getId());
             } else if (rawExisting.getDeleted() == 1) {
                 throw new IllegalArgumentException("人员信息已被删除，无法更新，ID: " + personnel.getId());
+            } else if (personnel.getVersion() != null && !personnel.getVersion().equals(rawExisting.getVersion())) {
+                // 携带的版本号已过期：读取之后记录已被他人修改
+                throw new OptimisticLockConflictException("人员", personnel.getId(), personnel.getVersion(), rawExisting.getVersion());
             } else {
                 // 可能并发或其他原因导致未更新
                 throw new IllegalStateException("更新人员信息时发生未知错误，ID: " + personnel.getId());
             }
         }
-        // 返回更新后的完整信息 (findById 会自动过滤 deleted=1 的)
+        // 引用该人员的合作详情在事务提交后失效
+        List<Long> affectedCooperationIds = cooperationPersonnelMapper.findCooperationIdsByPersonnelId(personnel.getId());
+        TransactionUtils.afterCommit(() -> cooperationDetailCache.invalidateAll(affectedCooperationIds));
+        // 在同一事务中读取一次更新后的完整信息 (行锁由 UPDATE 持有；findById 会自动过滤 deleted=1 的)
         return personnelMapper.findById(personnel.getId());
     }
 
@@ -132,14 +176,112 @@ public class PersonnelServiceImpl implements PersonnelService {
     // --- 实现搜索方法 ---
     @Override
     public PageInfo<Personnel> searchPersonnel(SearchPersonnelRequest request) {
-        // 使用 PageHelper 启动分页
-        // 参数1: pageNum, 第几页
-        // 参数2: pageSize, 每页显示条数
-        PageHelper.startPage(request.getPageNum(), request.getPageSize());
-        // 执行查询，PageHelper 会自动拦截这个查询并追加分页逻辑 (例如 LIMIT)
-        // 注意：search 方法需要返回 Page<T> 类型，PageHelper 才能正确处理分页信息
-        List<Personnel> list = personnelMapper.search(request); // 直接使用 List 接收也可以，PageInfo 会处理
-        // 用 PageInfo 包装查询结果，PageInfo 会包含总记录数、总页数、当前页数据等信息
-        return new PageInfo<>(list);
+        // 搜索可以读取只读副本 (未开启读写分离时仍访问主库)
+        return ReadRouting.replica(() -> {
+            // 使用 PageHelper 启动分页
+            // 参数1: pageNum, 第几页
+            // 参数2: pageSize, 每页显示条数
+            PageHelper.startPage(request.getPageNum(), request.getPageSize());
+            // 执行查询，PageHelper 会自动拦截这个查询并追加分页逻辑 (例如 LIMIT)
+            // 注意：search 方法需要返回 Page<T> 类型，PageHelper 才能正确处理分页信息
+            List<Personnel> list = personnelMapper.search(request); // 直接使用 List 接收也可以，PageInfo 会处理
+            // 用 PageInfo 包装查询结果，PageInfo 会包含总记录数、总页数、当前页数据等信息
+            return new PageInfo<>(list);
+        });
+    }
+
+    // --- 批量导入 ---
+
+    @Autowired
+    private EnterpriseService enterpriseService; // 批量校验任职企业 (读取企业缓存)
+
+    @Autowired
+    private PersonnelConverter personnelConverter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${personnel.import.chunk-size:1000}")
+    private int defaultImportChunkSize = 1000;
+
+    @Value("${personnel.import.max-chunk-size:5000}")
+    private int maxImportChunkSize = 5000;
+
+    @Override
+    public ImportReport importPersonnel(Iterator<ImportRecord<CreatePersonnelRequest>> records, Integer chunkSize, ImportCommitMode commitMode) {
+        int size = ChunkedImport.resolveChunkSize(chunkSize, defaultImportChunkSize, maxImportChunkSize);
+        ImportReport report = ChunkedImport.run(records, size, commitMode, new TransactionTemplate(transactionManager), this::importChunk);
+        log.info("批量导入人员：共 {} 条，成功 {} 条，失败 {} 条，回滚 {} 条，耗时 {} ms，{} 条/秒",
+                report.getTotal(), report.getImported(), report.getFailed(), report.getRolledBack(),
+                report.getElapsedMillis(), String.format("%.1f", report.getRowsPerSecond()));
+        return report;
+    }
+
+    /**
+     * 处理一批人员 (在导入事务内执行)：
+     * 1. 逐条做字段校验 (纯内存)；
+     * 2. 批内手机号去重，并用一次 IN 查询与数据库中的未删除人员比较；
+     * 3. 一次批量读取校验所有任职企业存在且未删除；
+     * 4. 校验通过的人员用一条多行 INSERT 写入。
+     */
+    private void importChunk(List<ImportRecord<CreatePersonnelRequest>> chunk, ImportReport report) {
+        List<PendingPersonnel> pending = new ArrayList<>();
+        for (ImportRecord<CreatePersonnelRequest> record : chunk) {
+            ImportRecordResult result = new ImportRecordResult(record.getIndex(), record.getLine());
+            report.getResults().add(result);
+            if (record.getParseError() != null) {
+                ChunkedImport.reject(result, record.getParseError());
+                continue;
+            }
+            Personnel personnel = personnelConverter.toEntity(record.getValue());
+            try {
+                validatePersonnelFields(personnel);
+                pending.add(new PendingPersonnel(personnel, result));
+            } catch (IllegalArgumentException e) {
+                ChunkedImport.reject(result, e.getMessage());
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // 手机号唯一性：与数据库 (包括本次导入已写入的批次) 及本批内其他人员比较
+        Set<String> phones = new HashSet<>();
+        pending.forEach(p -> phones.add(p.personnel().getPhone()));
+        Set<String> takenPhones = new HashSet<>(personnelMapper.findExistingPhones(phones));
+        pending.removeIf(p -> {
+            if (!takenPhones.add(p.personnel().getPhone())) {
+                ChunkedImport.reject(p.result(), "手机号已存在: " + p.personnel().getPhone());
+                return true;
+            }
+            return false;
+        });
+
+        // 任职企业：一次批量读取
+        Set<Long> enterpriseIds = new HashSet<>();
+        pending.forEach(p -> enterpriseIds.add(p.personnel().getEnterpriseId()));
+        Map<Long, Enterprise> enterprises = enterpriseService.getEnterprisesByIds(enterpriseIds);
+        pending.removeIf(p -> {
+            if (!enterprises.containsKey(p.personnel().getEnterpriseId())) {
+                ChunkedImport.reject(p.result(), "指定的企业ID不存在或已被删除: " + p.personnel().getEnterpriseId());
+                return true;
+            }
+            return false;
+        });
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Personnel> toInsert = pending.stream().map(PendingPersonnel::personnel).collect(Collectors.toList());
+        personnelMapper.batchInsert(toInsert);
+        for (PendingPersonnel p : pending) {
+            p.result().setStatus(ImportRecordResult.IMPORTED);
+            p.result().setId(p.personnel().getId());
+        }
+    }
+
+    // 校验中的人员及其导入结果
+    private record PendingPersonnel(Personnel personnel, ImportRecordResult result) {
     }
-}
\ No newline at end of file
+    // --- 结束批量导入 ---
+}
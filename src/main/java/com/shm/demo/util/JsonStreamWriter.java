@@ -0,0 +1,98 @@
+package com.shm.demo.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * 逐条写出 JSON 的导出工具，配合 StreamingResponseBody 使用，内存占用与数据量无关。
+ * <ul>
+ *     <li>ndjson：每行一个 JSON 对象 (application/x-ndjson)；</li>
+ *     <li>json：一个 JSON 数组 (application/json)。</li>
+ * </ul>
+ * 每写出 {@link #FLUSH_EVERY} 条刷新一次，让数据以分块方式尽早发送给客户端。
+ * 全部写出后调用 {@link #finish()}；导出中途失败 (未调用 finish) 时不补写数组结尾，客户端收到的是不完整的 JSON，
+ * 不会把截断的结果误认为完整导出。
+ */
+public class JsonStreamWriter implements AutoCloseable {
+
+    public static final String FORMAT_NDJSON = "ndjson";
+    public static final String FORMAT_JSON = "json";
+    public static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+
+    private static final int FLUSH_EVERY = 1000;
+
+    private final JsonGenerator generator;
+    private final boolean ndjson;
+    private long count;
+    private boolean completed;
+
+    public JsonStreamWriter(ObjectMapper objectMapper, OutputStream out, String format) throws IOException {
+        this.ndjson = FORMAT_NDJSON.equals(format);
+        this.generator = objectMapper.createGenerator(out);
+        // 输出流由 Servlet 容器负责关闭
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // 关闭时不自动补全未结束的数组，只有调用过 finish() 才写出数组结尾
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        if (!ndjson) {
+            generator.writeStartArray();
+        }
+    }
+
+    /**
+     * 校验导出格式
+     * @throws IllegalArgumentException 格式不是 ndjson 或 json
+     */
+    public static String resolveFormat(String format) {
+        if (format == null || format.isEmpty()) {
+            return FORMAT_NDJSON;
+        }
+        if (!FORMAT_NDJSON.equals(format) && !FORMAT_JSON.equals(format)) {
+            throw new IllegalArgumentException("导出格式无效，只允许: ndjson, json");
+        }
+        return format;
+    }
+
+    public static String contentType(String format) {
+        return FORMAT_NDJSON.equals(format) ? NDJSON_CONTENT_TYPE : "application/json";
+    }
+
+    /**
+     * 写出一条记录 (供 ResultHandler 回调中使用，IO 异常包装为 UncheckedIOException 以中止查询)
+     */
+    public void write(Object value) {
+        try {
+            generator.writeObject(value);
+            if (ndjson) {
+                generator.writeRaw('\n');
+            }
+            if (++count % FLUSH_EVERY == 0) {
+                generator.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * 标记全部记录已写出，close() 时才写出 json 数组结尾
+     */
+    public void finish() {
+        completed = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!ndjson && completed) {
+            generator.writeEndArray();
+        }
+        generator.close();
+    }
+}
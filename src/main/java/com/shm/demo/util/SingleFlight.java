@@ -0,0 +1,82 @@
+package com.shm.demo.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 合并相同 key 的并发调用：同一时刻只有第一个调用方 (leader) 执行 loader，
+ * 执行期间到达的其他调用方等待并共享同一个结果或异常，执行结束后 key 立即移除 (不缓存结果)。
+ * <p>
+ * 写操作提交后应调用 {@link #forget}，使之后到达的调用方重新执行，而不是加入提交前开始的读取。
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            collapsed.increment();
+            return await(existing);
+        }
+        executions.increment();
+        try {
+            V value = loader.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    // 等待 leader 的结果，leader 抛出的异常原样抛出
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 之后到达的相同 key 调用不再加入当前执行 (当前执行的调用方仍会拿到它的结果)
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    public void forgetAll() {
+        inFlight.clear();
+    }
+
+    /**
+     * 实际执行 loader 的次数
+     */
+    public long executions() {
+        return executions.sum();
+    }
+
+    /**
+     * 被合并 (等待并共享其他调用结果) 的调用次数
+     */
+    public long collapsed() {
+        return collapsed.sum();
+    }
+}
@@ -0,0 +1,52 @@
+-- 基线表结构 (MySQL 8)。
+-- 已有数据库通过 spring.flyway.baseline-on-migrate 标记为版本 1，不会执行本脚本；新建数据库从本脚本开始建表。
+
+CREATE TABLE IF NOT EXISTS enterprise (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(20) NOT NULL COMMENT '企业名称',
+    cooperation_type VARCHAR(20) NOT NULL COMMENT '合作类型 (SEND / RECEIVE)',
+    enterprise_type VARCHAR(20) NOT NULL COMMENT '企业类型',
+    region VARCHAR(10) COMMENT '地区',
+    deleted TINYINT NOT NULL DEFAULT 0 COMMENT '逻辑删除标记',
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE IF NOT EXISTS personnel (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(10) NOT NULL COMMENT '姓名',
+    gender TINYINT NOT NULL COMMENT '性别 (1=男, 2=女)',
+    age INT NOT NULL COMMENT '年龄',
+    phone VARCHAR(11) NOT NULL COMMENT '手机号',
+    education TINYINT NOT NULL COMMENT '学历',
+    start_work_date DATE NOT NULL COMMENT '参加工作时间',
+    enterprise_id BIGINT NOT NULL COMMENT '任职企业ID',
+    deleted TINYINT NOT NULL DEFAULT 0 COMMENT '逻辑删除标记',
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE IF NOT EXISTS cooperation (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    cooperation_theme VARCHAR(20) NOT NULL COMMENT '合作主题',
+    initiator_region VARCHAR(10) NOT NULL COMMENT '发起方地区',
+    receiver_region VARCHAR(10) NOT NULL COMMENT '接收方地区',
+    cooperation_start_date DATE NOT NULL,
+    cooperation_end_date DATE NOT NULL,
+    deleted TINYINT NOT NULL DEFAULT 0 COMMENT '逻辑删除标记',
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE IF NOT EXISTS cooperation_personnel (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    cooperation_id BIGINT NOT NULL,
+    sending_enterprise_id BIGINT NOT NULL,
+    personnel_id BIGINT NOT NULL,
+    cooperation_job_type VARCHAR(20) NOT NULL,
+    receiving_enterprise_id BIGINT NOT NULL,
+    personnel_start_date DATE NOT NULL,
+    personnel_end_date DATE NOT NULL,
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
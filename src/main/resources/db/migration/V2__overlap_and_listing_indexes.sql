@@ -0,0 +1,18 @@
+-- 重叠校验、列表/搜索分页和导入校验使用的索引
+
+-- 人员时段重叠：WHERE personnel_id IN (...) AND personnel_start_date <= ? AND personnel_end_date >= ?
+CREATE INDEX idx_cp_personnel_period ON cooperation_personnel (personnel_id, personnel_start_date, personnel_end_date);
+-- 按合作加载/差异更新/删除人员明细
+CREATE INDEX idx_cp_cooperation ON cooperation_personnel (cooperation_id);
+-- 企业变更时查找受影响的合作 (详情缓存失效)
+CREATE INDEX idx_cp_receiving_enterprise ON cooperation_personnel (receiving_enterprise_id);
+
+-- 列表分页与游标分页：WHERE deleted = 0 ORDER BY created_at DESC, id DESC
+CREATE INDEX idx_cooperation_deleted_created ON cooperation (deleted, created_at, id);
+-- 按发起方/接收方地区搜索，排序列放在最后以避免 filesort
+CREATE INDEX idx_cooperation_region_created ON cooperation (initiator_region, receiver_region, deleted, created_at, id);
+
+-- 人员手机号唯一性校验与批量导入查重
+CREATE INDEX idx_personnel_phone ON personnel (phone);
+-- 企业名称唯一性校验
+CREATE INDEX idx_enterprise_name ON enterprise (name);
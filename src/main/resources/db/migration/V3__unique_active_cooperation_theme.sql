@@ -0,0 +1,8 @@
+-- 未删除合作的主题唯一。
+-- 合作是逻辑删除的，已删除合作的主题允许重新使用，因此不能直接对 cooperation_theme 建唯一索引：
+-- 虚拟列 active_theme 仅在未删除时等于主题，已删除时为 NULL (唯一索引允许多个 NULL)。
+-- 执行前如有重复主题需要先处理：
+--   SELECT cooperation_theme, COUNT(*) FROM cooperation WHERE deleted = 0 GROUP BY cooperation_theme HAVING COUNT(*) > 1;
+ALTER TABLE cooperation
+    ADD COLUMN active_theme VARCHAR(20) GENERATED ALWAYS AS (IF(deleted = 0, cooperation_theme, NULL)) VIRTUAL,
+    ADD UNIQUE INDEX uk_cooperation_active_theme (active_theme);
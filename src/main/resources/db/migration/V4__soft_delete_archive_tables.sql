@@ -0,0 +1,68 @@
+-- 逻辑删除记录的归档表 (SoftDeleteArchiveJob 按保留期限分批迁入)。
+-- 列与主表一致 (不含 cooperation.active_theme 虚拟列)，保留原 ID，archived_at 记录归档时间。
+-- 逻辑删除时间取 updated_at：所有修改语句都带 deleted = 0 条件，删除后 updated_at 不再变化。
+
+CREATE TABLE cooperation_archive (
+    id BIGINT NOT NULL PRIMARY KEY,
+    cooperation_theme VARCHAR(20) NOT NULL,
+    initiator_region VARCHAR(10) NOT NULL,
+    receiver_region VARCHAR(10) NOT NULL,
+    cooperation_start_date DATE NOT NULL,
+    cooperation_end_date DATE NOT NULL,
+    personnel_count INT NOT NULL DEFAULT 0,
+    deleted TINYINT NOT NULL DEFAULT 1,
+    created_at DATETIME,
+    updated_at DATETIME,
+    archived_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_cooperation_archive_archived (archived_at)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE cooperation_personnel_archive (
+    id BIGINT NOT NULL PRIMARY KEY,
+    cooperation_id BIGINT NOT NULL,
+    sending_enterprise_id BIGINT NOT NULL,
+    personnel_id BIGINT NOT NULL,
+    cooperation_job_type VARCHAR(20) NOT NULL,
+    receiving_enterprise_id BIGINT NOT NULL,
+    personnel_start_date DATE NOT NULL,
+    personnel_end_date DATE NOT NULL,
+    created_at DATETIME,
+    updated_at DATETIME,
+    archived_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_cp_archive_cooperation (cooperation_id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE enterprise_archive (
+    id BIGINT NOT NULL PRIMARY KEY,
+    name VARCHAR(20) NOT NULL,
+    cooperation_type VARCHAR(20) NOT NULL,
+    enterprise_type VARCHAR(20) NOT NULL,
+    region VARCHAR(10),
+    deleted TINYINT NOT NULL DEFAULT 1,
+    created_at DATETIME,
+    updated_at DATETIME,
+    archived_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE personnel_archive (
+    id BIGINT NOT NULL PRIMARY KEY,
+    name VARCHAR(10) NOT NULL,
+    gender TINYINT NOT NULL,
+    age INT NOT NULL,
+    phone VARCHAR(11) NOT NULL,
+    education TINYINT NOT NULL,
+    start_work_date DATE NOT NULL,
+    enterprise_id BIGINT NOT NULL,
+    deleted TINYINT NOT NULL DEFAULT 1,
+    created_at DATETIME,
+    updated_at DATETIME,
+    archived_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+-- 查找超过保留期限的逻辑删除记录
+CREATE INDEX idx_cooperation_deleted_updated ON cooperation (deleted, updated_at);
+CREATE INDEX idx_enterprise_deleted_updated ON enterprise (deleted, updated_at);
+CREATE INDEX idx_personnel_deleted_updated ON personnel (deleted, updated_at);
+-- 归档企业/人员前检查是否仍被引用
+CREATE INDEX idx_cp_sending_enterprise ON cooperation_personnel (sending_enterprise_id);
+CREATE INDEX idx_personnel_enterprise ON personnel (enterprise_id);
@@ -0,0 +1,6 @@
+-- 乐观锁版本号：每次修改 version + 1，客户端携带读取时的 version 提交修改时按比较并交换 (CAS) 更新，
+-- 版本不一致 (记录已被他人修改) 时不更新并返回 409。已有记录从 0 开始。
+-- 归档表不需要版本号 (已删除记录不再修改)。
+ALTER TABLE cooperation ADD COLUMN version INT NOT NULL DEFAULT 0 COMMENT '乐观锁版本号';
+ALTER TABLE enterprise ADD COLUMN version INT NOT NULL DEFAULT 0 COMMENT '乐观锁版本号';
+ALTER TABLE personnel ADD COLUMN version INT NOT NULL DEFAULT 0 COMMENT '乐观锁版本号';
@@ -0,0 +1,41 @@
+-- 合作统计聚合表：按 (发起方地区, 接收方地区) 以及再按合作类型细分的计数，
+-- 由 CooperationServiceImpl 的写操作在同一事务中增量维护，CooperationStatsRebuildJob 定期全量重建。
+-- 统计口径 (只含未删除合作)：cooperation_count 合作数；personnel_count 人次 (人员明细条数)；person_days 人天 (明细起止日期含首尾的天数之和)。
+-- 按合作类型细分时，cooperation_count 为包含该类型人员的合作数。
+-- slot：同一分组拆成多行，每次写操作随机更新其中一行，避免并发写事务在同一热点行上排队；读取时按分组求和。
+
+CREATE TABLE cooperation_region_stats (
+    initiator_region VARCHAR(10) NOT NULL,
+    receiver_region VARCHAR(10) NOT NULL,
+    slot TINYINT NOT NULL,
+    cooperation_count BIGINT NOT NULL DEFAULT 0,
+    personnel_count BIGINT NOT NULL DEFAULT 0,
+    person_days BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (initiator_region, receiver_region, slot)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE cooperation_job_type_stats (
+    initiator_region VARCHAR(10) NOT NULL,
+    receiver_region VARCHAR(10) NOT NULL,
+    cooperation_job_type VARCHAR(20) NOT NULL,
+    slot TINYINT NOT NULL,
+    cooperation_count BIGINT NOT NULL DEFAULT 0,
+    personnel_count BIGINT NOT NULL DEFAULT 0,
+    person_days BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (initiator_region, receiver_region, cooperation_job_type, slot)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+-- 以现有数据初始化 (slot 0)
+INSERT INTO cooperation_region_stats (initiator_region, receiver_region, slot, cooperation_count, personnel_count, person_days)
+SELECT c.initiator_region, c.receiver_region, 0, COUNT(DISTINCT c.id), COUNT(cp.id),
+       COALESCE(SUM(TIMESTAMPDIFF(DAY, cp.personnel_start_date, cp.personnel_end_date) + 1), 0)
+FROM cooperation c LEFT JOIN cooperation_personnel cp ON cp.cooperation_id = c.id
+WHERE c.deleted = 0
+GROUP BY c.initiator_region, c.receiver_region;
+
+INSERT INTO cooperation_job_type_stats (initiator_region, receiver_region, cooperation_job_type, slot, cooperation_count, personnel_count, person_days)
+SELECT c.initiator_region, c.receiver_region, cp.cooperation_job_type, 0, COUNT(DISTINCT c.id), COUNT(*),
+       SUM(TIMESTAMPDIFF(DAY, cp.personnel_start_date, cp.personnel_end_date) + 1)
+FROM cooperation c JOIN cooperation_personnel cp ON cp.cooperation_id = c.id
+WHERE c.deleted = 0
+GROUP BY c.initiator_region, c.receiver_region, cp.cooperation_job_type;
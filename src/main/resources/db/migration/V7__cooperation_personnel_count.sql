@@ -0,0 +1,18 @@
+-- 合作人数冗余计数：列表和搜索直接读取 personnel_count，不再关联 cooperation_personnel 做 COUNT。
+-- 部分已有库曾按旧说明手动添加过该列，因此只在列不存在时添加。
+SET @personnel_count_exists = (SELECT COUNT(*) FROM information_schema.COLUMNS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'cooperation' AND COLUMN_NAME = 'personnel_count');
+SET @add_personnel_count = IF(@personnel_count_exists = 0,
+    'ALTER TABLE cooperation ADD COLUMN personnel_count INT NOT NULL DEFAULT 0 COMMENT ''合作人数 (冗余计数)'' AFTER cooperation_end_date',
+    'DO 0');
+PREPARE add_personnel_count FROM @add_personnel_count;
+EXECUTE add_personnel_count;
+DEALLOCATE PREPARE add_personnel_count;
+
+-- 回填已有合作的人数 (已删除合作保持 0)，保留 updated_at。
+-- 之后由新增/修改/删除维护，PersonnelCountRepairJob 定期修复偏差。
+UPDATE cooperation c
+    JOIN (SELECT cooperation_id, COUNT(*) AS cnt FROM cooperation_personnel GROUP BY cooperation_id) p
+    ON p.cooperation_id = c.id
+SET c.personnel_count = p.cnt, c.updated_at = c.updated_at
+WHERE c.deleted = 0 AND c.personnel_count <> p.cnt;
@@ -3,7 +3,7 @@ package com.shm.demo;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.flyway.enabled=false") // 测试环境没有数据库，不执行迁移
 class DemoApplicationTests {
 
     @Test
@@ -0,0 +1,132 @@
+package com.shm.demo.cache;
+
+import com.shm.demo.entity.Cooperation;
+import com.shm.demo.mapper.CooperationMapper;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class CooperationThemeIndexTest {
+
+    private CooperationMapper mapper;
+    private CooperationThemeIndex index;
+    private final Map<Long, String> stored = new LinkedHashMap<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mapper = mock(CooperationMapper.class);
+        index = new CooperationThemeIndex();
+        ReflectionTestUtils.setField(index, "cooperationMapper", mapper);
+        doAnswer(invocation -> {
+            scan(invocation.getArgument(0));
+            return null;
+        }).when(mapper).scanActiveThemes(any());
+    }
+
+    private void scan(ResultHandler<Cooperation> handler) {
+        DefaultResultContext<Cooperation> context = new DefaultResultContext<>();
+        stored.forEach((id, theme) -> {
+            Cooperation cooperation = new Cooperation();
+            cooperation.setId(id);
+            cooperation.setCooperationTheme(theme);
+            context.nextResultObject(cooperation);
+            handler.handleResult(context);
+        });
+    }
+
+    @Test
+    void notReadyBeforeFirstBuild() {
+        index.put(1L, "智能物流合作");
+
+        assertThat(index.search("智能物流")).isNull();
+    }
+
+    @Test
+    void searchesSubstringsCaseInsensitively() {
+        stored.put(1L, "智能物流合作");
+        stored.put(2L, "AI Logistics");
+        stored.put(3L, "智能制造");
+        index.warmUp();
+
+        assertThat(index.search("智能物流")).containsExactly(1L);
+        assertThat(index.search("logis")).containsExactly(2L);
+        assertThat(index.search("不存在的主题")).isEmpty();
+    }
+
+    @Test
+    void keywordsShorterThanTrigramUseLike() {
+        stored.put(1L, "智能物流合作");
+        index.warmUp();
+
+        assertThat(index.search("智能")).isNull();
+        assertThat(index.search("物")).isNull();
+    }
+
+    @Test
+    void rebuildPicksUpRowsWrittenElsewhere() {
+        stored.put(1L, "智能物流合作");
+        index.warmUp();
+        // 其他实例新增并修改了主题
+        stored.put(2L, "智能物流园区");
+        stored.put(1L, "智能制造合作");
+
+        index.warmUp();
+
+        assertThat(index.search("智能物流")).containsExactly(2L);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void writesDuringRebuildWinOverScannedRows() {
+        stored.put(1L, "智能物流合作");
+        stored.put(2L, "智能物流园区");
+        doAnswer(invocation -> {
+            // 扫描过程中本实例提交了修改和删除，扫描结果仍是修改前的版本
+            index.put(1L, "智能制造合作");
+            index.remove(2L);
+            index.put(3L, "智能物流港口");
+            scan(invocation.getArgument(0));
+            return null;
+        }).when(mapper).scanActiveThemes(any());
+
+        index.warmUp();
+
+        assertThat(index.search("智能物流")).containsExactly(3L);
+        assertThat(index.search("智能制造")).containsExactly(1L);
+    }
+
+    @Test
+    void searchesKeepUsingOldIndexWhileAndAfterFailedRebuild() {
+        stored.put(1L, "智能物流合作");
+        index.warmUp();
+        doThrow(new IllegalStateException("连接失败")).when(mapper).scanActiveThemes(any());
+
+        index.warmUp();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.search("智能物流")).containsExactly(1L);
+    }
+
+    @Test
+    void tooManyMatchesFallBackToLike() {
+        ReflectionTestUtils.setField(index, "maxMatches", 2);
+        stored.put(1L, "智能物流一");
+        stored.put(2L, "智能物流二");
+        stored.put(3L, "智能物流三");
+        index.warmUp();
+
+        assertThat(index.search("智能物流")).isNull();
+    }
+}
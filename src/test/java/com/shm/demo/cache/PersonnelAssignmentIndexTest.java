@@ -0,0 +1,270 @@
+package com.shm.demo.cache;
+
+import com.shm.demo.dto.CooperationPersonnelRequest;
+import com.shm.demo.entity.CooperationPersonnel;
+import com.shm.demo.mapper.CooperationPersonnelMapper;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 人员时段索引的重叠查询：语义与 SQL 一致 (现有结束 >= 新开始 且 现有开始 <= 新结束)，就绪后结果即检查结果。
+ */
+class PersonnelAssignmentIndexTest {
+
+    private CooperationPersonnelMapper mapper;
+    private PersonnelAssignmentIndex index;
+    private final List<CooperationPersonnel> stored = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mapper = mock(CooperationPersonnelMapper.class);
+        index = new PersonnelAssignmentIndex();
+        ReflectionTestUtils.setField(index, "cooperationPersonnelMapper", mapper);
+        ReflectionTestUtils.setField(index, "enabled", true);
+        doAnswer(invocation -> {
+            ResultHandler<CooperationPersonnel> handler = invocation.getArgument(0);
+            DefaultResultContext<CooperationPersonnel> context = new DefaultResultContext<>();
+            for (CooperationPersonnel row : stored) {
+                context.nextResultObject(row);
+                handler.handleResult(context);
+            }
+            return null;
+        }).when(mapper).scanActiveAssignments(any());
+    }
+
+    private static LocalDate day(int dayOfMay) {
+        return LocalDate.of(2025, 5, 1).plusDays(dayOfMay - 1);
+    }
+
+    private void store(long cooperationId, long personnelId, int start, int end) {
+        CooperationPersonnel row = new CooperationPersonnel();
+        row.setCooperationId(cooperationId);
+        row.setPersonnelId(personnelId);
+        row.setPersonnelStartDate(day(start));
+        row.setPersonnelEndDate(day(end));
+        stored.add(row);
+    }
+
+    private static CooperationPersonnelRequest item(long personnelId, int start, int end) {
+        CooperationPersonnelRequest item = new CooperationPersonnelRequest();
+        item.setPersonnelId(personnelId);
+        item.setPersonnelStartDate(day(start));
+        item.setPersonnelEndDate(day(end));
+        return item;
+    }
+
+    private List<Long> overlappingCooperations(Long excluded, CooperationPersonnelRequest... items) {
+        return index.findOverlapping(List.of(items), excluded).stream()
+                .map(CooperationPersonnel::getCooperationId)
+                .sorted()
+                .toList();
+    }
+
+    @Test
+    void notReadyBeforeWarmUp() {
+        assertThat(index.isReady()).isFalse();
+        assertThat(index.findOverlapping(List.of(item(1, 1, 10)), null)).isNull();
+    }
+
+    @Test
+    void disabledIndexNeitherAnswersNorStoresWrites() {
+        ReflectionTestUtils.setField(index, "enabled", false);
+        index.put(11L, List.of(item(1, 1, 10)));
+
+        assertThat(index.findOverlapping(List.of(item(1, 1, 10)), null)).isNull();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void uncommittedWriteInTransactionFallsBackToSql() {
+        store(10, 1, 1, 10);
+        index.warmUp();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThat(index.findOverlapping(List.of(item(1, 1, 10)), null)).isNotNull();
+            // 本事务已写入合作，索引要等提交后才更新，只有数据库能看到这次写入
+            index.markUncommittedWrite();
+            assertThat(index.findOverlapping(List.of(item(1, 1, 10)), null)).isNull();
+        } finally {
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(overlappingCooperations(null, item(1, 1, 10))).containsExactly(10L);
+    }
+
+    @Test
+    void failedWarmUpStaysNotReady() {
+        doThrow(new IllegalStateException("连接失败")).when(mapper).scanActiveAssignments(any());
+
+        index.warmUp();
+
+        assertThat(index.isReady()).isFalse();
+        assertThat(index.findOverlapping(List.of(item(1, 1, 10)), null)).isNull();
+    }
+
+    @Test
+    void sharedBoundaryDayOverlapsButAdjacentDayDoesNot() {
+        store(10, 1, 10, 20);
+        index.warmUp();
+
+        assertThat(overlappingCooperations(null, item(1, 20, 25))).containsExactly(10L);
+        assertThat(overlappingCooperations(null, item(1, 5, 10))).containsExactly(10L);
+        assertThat(overlappingCooperations(null, item(1, 21, 25))).isEmpty();
+        assertThat(overlappingCooperations(null, item(1, 1, 9))).isEmpty();
+    }
+
+    @Test
+    void containedAndContainingPeriodsOverlap() {
+        store(10, 1, 10, 20);
+        index.warmUp();
+
+        assertThat(overlappingCooperations(null, item(1, 12, 15))).containsExactly(10L);
+        assertThat(overlappingCooperations(null, item(1, 1, 30))).containsExactly(10L);
+    }
+
+    @Test
+    void longEarlierPeriodIsFoundPastShorterOnes() {
+        // 开始较早的长时段覆盖查询，中间的短时段都在查询之前结束：依赖前缀最大结束日期继续向前扫描
+        store(10, 1, 1, 60);
+        store(11, 1, 5, 6);
+        store(12, 1, 8, 9);
+        store(13, 1, 40, 45);
+        index.warmUp();
+
+        assertThat(overlappingCooperations(null, item(1, 20, 25))).containsExactly(10L);
+    }
+
+    @Test
+    void onlyRequestedPersonnelAreChecked() {
+        store(10, 1, 1, 10);
+        store(11, 2, 1, 10);
+        index.warmUp();
+
+        assertThat(index.findOverlapping(List.of(item(2, 5, 5)), null))
+                .extracting(CooperationPersonnel::getCooperationId, CooperationPersonnel::getPersonnelId,
+                        CooperationPersonnel::getPersonnelStartDate, CooperationPersonnel::getPersonnelEndDate)
+                .containsExactly(tuple(11L, 2L, day(1), day(10)));
+        assertThat(overlappingCooperations(null, item(3, 1, 10))).isEmpty();
+    }
+
+    @Test
+    void excludedCooperationIsIgnored() {
+        store(10, 1, 1, 10);
+        store(11, 1, 5, 15);
+        index.warmUp();
+
+        assertThat(overlappingCooperations(10L, item(1, 1, 20))).containsExactly(11L);
+    }
+
+    @Test
+    void existingPeriodHitByTwoItemsIsReportedOnce() {
+        store(10, 1, 1, 30);
+        index.warmUp();
+
+        assertThat(index.findOverlapping(List.of(item(1, 1, 5), item(1, 20, 25)), null)).hasSize(1);
+    }
+
+    @Test
+    void putReplacesAndRemoveDropsCooperation() {
+        store(10, 1, 1, 10);
+        store(10, 2, 1, 10);
+        index.warmUp();
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.personnelCount()).isEqualTo(2);
+
+        index.put(10L, List.of(item(1, 20, 25)));
+        assertThat(overlappingCooperations(null, item(1, 1, 10))).isEmpty();
+        assertThat(overlappingCooperations(null, item(2, 1, 10))).isEmpty();
+        assertThat(overlappingCooperations(null, item(1, 25, 30))).containsExactly(10L);
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.personnelCount()).isEqualTo(1);
+
+        index.remove(10L);
+        assertThat(overlappingCooperations(null, item(1, 1, 60))).isEmpty();
+        assertThat(index.size()).isZero();
+        assertThat(index.personnelCount()).isZero();
+    }
+
+    @Test
+    void cooperationWrittenDuringWarmUpKeepsItsNewPeriods() {
+        doAnswer(invocation -> {
+            ResultHandler<CooperationPersonnel> handler = invocation.getArgument(0);
+            // 构建扫描过程中合作 10 被修改，之后读到的旧明细应跳过
+            index.put(10L, List.of(item(1, 20, 25)));
+            CooperationPersonnel old = new CooperationPersonnel();
+            old.setCooperationId(10L);
+            old.setPersonnelId(1L);
+            old.setPersonnelStartDate(day(1));
+            old.setPersonnelEndDate(day(10));
+            DefaultResultContext<CooperationPersonnel> context = new DefaultResultContext<>();
+            context.nextResultObject(old);
+            handler.handleResult(context);
+            return null;
+        }).when(mapper).scanActiveAssignments(any());
+
+        index.warmUp();
+
+        assertThat(overlappingCooperations(null, item(1, 1, 10))).isEmpty();
+        assertThat(overlappingCooperations(null, item(1, 20, 20))).containsExactly(10L);
+    }
+
+    @Test
+    void intervalsMatchBruteForce() {
+        Random random = new Random(42);
+        int base = (int) day(1).toEpochDay(); // Intervals 以 epoch day 保存日期
+        PersonnelAssignmentIndex.Intervals intervals = new PersonnelAssignmentIndex.Intervals();
+        List<int[]> periods = new ArrayList<>(); // {start, end, cooperationId}
+        for (int i = 0; i < 300; i++) {
+            int start = random.nextInt(365);
+            int end = start + random.nextInt(random.nextBoolean() ? 10 : 120);
+            int cooperationId = random.nextInt(100);
+            intervals.add(base + start, base + end, cooperationId);
+            periods.add(new int[]{start, end, cooperationId});
+        }
+        for (int cooperationId = 0; cooperationId < 100; cooperationId += 7) {
+            int removedId = cooperationId;
+            int expectedRemoved = (int) periods.stream().filter(p -> p[2] == removedId).count();
+            assertThat(intervals.removeCooperation(removedId)).isEqualTo(expectedRemoved);
+            periods.removeIf(p -> p[2] == removedId);
+        }
+
+        for (int q = 0; q < 500; q++) {
+            int start = random.nextInt(400);
+            int end = start + random.nextInt(30);
+            long excluded = random.nextInt(120);
+            List<CooperationPersonnel> found = new ArrayList<>();
+            intervals.collectOverlapping(1L, List.of(item(1, start + 1, end + 1)), excluded, found);
+
+            List<String> expected = periods.stream()
+                    .filter(p -> p[1] >= start && p[0] <= end && p[2] != excluded)
+                    .sorted(Comparator.<int[]>comparingInt(p -> p[0]).thenComparingInt(p -> p[1]).thenComparingInt(p -> p[2]))
+                    .map(p -> p[2] + ":" + day(p[0] + 1) + "~" + day(p[1] + 1))
+                    .toList();
+            List<String> actual = found.stream()
+                    .map(c -> c.getCooperationId() + ":" + c.getPersonnelStartDate() + "~" + c.getPersonnelEndDate())
+                    .sorted()
+                    .toList();
+            assertThat(actual).as("查询 [%d, %d]", start, end).containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.shm.demo.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 读写分离路由：主库和副本分别是两个嵌入式 H2 数据库，各自的 marker 表记录自己的名字，
+ * 通过读取 marker 判断语句实际访问了哪个库。
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private HikariDataSource primary;
+    private ReadWriteRoutingDataSource routing;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        primary = h2("primary");
+        HikariDataSource replica = h2("replica");
+        routing = new ReadWriteRoutingDataSource(primary, List.of(replica), ReadWriteRoutingDataSource.Selection.ROUND_ROBIN,
+                Duration.ofSeconds(5), Duration.ZERO, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    private static HikariDataSource h2(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl("jdbc:h2:mem:routing_" + name + ";MODE=MySQL");
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        new JdbcTemplate(dataSource).execute("CREATE TABLE marker (name VARCHAR(20))");
+        new JdbcTemplate(dataSource).update("INSERT INTO marker (name) VALUES (?)", name);
+        return dataSource;
+    }
+
+    // 连接池关闭后内存库随最后一个连接关闭而销毁，每个测试都从两张只有一行的 marker 表开始
+    @AfterEach
+    void tearDown() {
+        routing.destroy();
+        primary.close();
+    }
+
+    private List<String> markers() {
+        return jdbc.queryForList("SELECT name FROM marker ORDER BY name", String.class);
+    }
+
+    @Test
+    void declaredReplicaReadGoesToReplica() {
+        assertThat(ReadRouting.replica(this::markers)).containsExactly("replica");
+    }
+
+    @Test
+    void readOnlyTransactionGoesToReplica() {
+        List<String> seen = readOnly.execute(status -> markers());
+        assertThat(seen).containsExactly("replica");
+    }
+
+    @Test
+    void undeclaredReadGoesToPrimary() {
+        assertThat(markers()).containsExactly("primary");
+    }
+
+    @Test
+    void writesAndReadsInsideTransactionGoToPrimary() {
+        List<String> seen = readWrite.execute(status -> {
+            jdbc.update("INSERT INTO marker (name) VALUES ('written')");
+            // 读写事务内即使声明了副本也读取主库，能看到本事务的写入
+            return ReadRouting.replica(this::markers);
+        });
+        assertThat(seen).containsExactly("primary", "written");
+        assertThat(ReadRouting.replica(this::markers)).containsExactly("replica");
+    }
+
+    @Test
+    void clientReadsPrimaryAfterItsOwnWrite() {
+        try (ReadRouting.Scope ignored = ReadRouting.bindClient("client-a")) {
+            readWrite.executeWithoutResult(status -> jdbc.update("INSERT INTO marker (name) VALUES ('written')"));
+            assertThat(ReadRouting.replica(this::markers)).containsExactly("primary", "written");
+        }
+        try (ReadRouting.Scope ignored = ReadRouting.bindClient("client-b")) {
+            assertThat(ReadRouting.replica(this::markers)).containsExactly("replica");
+        }
+    }
+
+    @Test
+    void primaryScopeOverridesReplica() {
+        assertThat(ReadRouting.primary(() -> ReadRouting.replica(this::markers))).containsExactly("primary");
+    }
+
+    @Test
+    void credentialsConnectionGoesToPrimary() throws Exception {
+        // Hikari 连接池本身不支持指定账号，这里用直连主库的数据源验证委托
+        DriverManagerDataSource directPrimary = new DriverManagerDataSource(primary.getJdbcUrl());
+        ReadWriteRoutingDataSource direct = new ReadWriteRoutingDataSource(directPrimary, List.of(h2("direct_replica")),
+                ReadWriteRoutingDataSource.Selection.ROUND_ROBIN, Duration.ofSeconds(5), Duration.ZERO,
+                Duration.ofMinutes(10), new SimpleMeterRegistry());
+        try (Connection connection = direct.getConnection("sa", "")) {
+            assertThat(connection.getMetaData().getURL()).contains("routing_primary");
+        } finally {
+            direct.destroy();
+        }
+    }
+}
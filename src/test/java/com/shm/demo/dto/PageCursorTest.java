@@ -0,0 +1,83 @@
+package com.shm.demo.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageCursorTest {
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void encodeDecodeRoundTrip() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 4, 1, 8, 30, 15);
+        PageCursor decoded = PageCursor.decode(new PageCursor(createdAt, 42L).encode());
+
+        assertThat(decoded.getCreatedAt()).isEqualTo(createdAt);
+        assertThat(decoded.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void roundTripKeepsFractionalSecondsAndMidnight() {
+        // LocalDateTime.toString 在秒或纳秒为 0 时省略对应部分，解析时需要还原为同一时刻
+        LocalDateTime midnight = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime fractional = LocalDateTime.of(2025, 1, 1, 12, 0, 0, 123_000_000);
+
+        assertThat(PageCursor.decode(new PageCursor(midnight, 1L).encode()).getCreatedAt()).isEqualTo(midnight);
+        assertThat(PageCursor.decode(new PageCursor(fractional, 1L).encode()).getCreatedAt()).isEqualTo(fractional);
+    }
+
+    @Test
+    void tokenIsUrlSafeWithoutPadding() {
+        String token = new PageCursor(LocalDateTime.of(2025, 4, 1, 8, 30), Long.MAX_VALUE).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void ofUsesCreatedAtAndIdOfItem() {
+        CooperationListItemDTO item = new CooperationListItemDTO();
+        item.setId(7L);
+        item.setCreatedAt(LocalDateTime.of(2025, 4, 1, 8, 30));
+
+        PageCursor cursor = PageCursor.of(item);
+
+        assertThat(cursor.getId()).isEqualTo(7L);
+        assertThat(cursor.getCreatedAt()).isEqualTo(item.getCreatedAt());
+    }
+
+    @Test
+    void blankTokenMeansFirstPage() {
+        assertThat(PageCursor.decode(null)).isNull();
+        assertThat(PageCursor.decode("")).isNull();
+        assertThat(PageCursor.decode("   ")).isNull();
+    }
+
+    @Test
+    void surroundingWhitespaceIsIgnored() {
+        String token = new PageCursor(LocalDateTime.of(2025, 4, 1, 8, 30), 3L).encode();
+
+        assertThat(PageCursor.decode(" " + token + " ").getId()).isEqualTo(3L);
+    }
+
+    @Test
+    void invalidTokensAreRejected() {
+        assertThatThrownBy(() -> PageCursor.decode("不是base64"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("无效的分页游标");
+        // 缺少分隔符、分隔符在开头、时间或 ID 无法解析
+        for (String raw : new String[]{"2025-04-01T08:30", "|42", "2025-04-01|42", "2025-04-01T08:30|abc", "2025-04-01T08:30|"}) {
+            assertThatThrownBy(() -> PageCursor.decode(token(raw)))
+                    .as(raw)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageStartingWith("无效的分页游标");
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.shm.demo.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shm.demo.dto.CooperationPersonnelRequest;
+import com.shm.demo.dto.CreateCooperationRequest;
+import com.shm.demo.entity.CooperationJobType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * CSV 中连续且主题相同的行组成一条合作记录，任一行解析失败则整条记录失败。
+ */
+class CooperationImportReaderTest {
+
+    private static final String HEADER = String.join(",", CooperationImportReader.CSV_COLUMNS);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private List<ImportRecord<CreateCooperationRequest>> readAll(String format, String body) {
+        CooperationImportReader reader = new CooperationImportReader(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format, objectMapper);
+        List<ImportRecord<CreateCooperationRequest>> records = new ArrayList<>();
+        reader.forEachRemaining(records::add);
+        return records;
+    }
+
+    private static String row(String theme, String personnelId, String jobType, String start) {
+        return theme + ",北京,上海,2025-05-01,2025-06-30,1," + personnelId + "," + jobType + ",51," + start + ",2025-05-31\n";
+    }
+
+    @Test
+    void consecutiveRowsWithSameThemeFormOneRecord() {
+        List<ImportRecord<CreateCooperationRequest>> records = readAll("csv", HEADER + "\n" +
+                row("主题A", "100", "TECHNOLOGY", "2025-05-01") +
+                row("主题A", "101", "MANAGEMENT", "2025-05-02") +
+                "\n" +
+                row("\"主题,B\"", "102", "TECHNOLOGY", "2025-05-03"));
+
+        assertThat(records).hasSize(2);
+        CreateCooperationRequest first = records.get(0).getValue();
+        assertThat(first.getCooperationTheme()).isEqualTo("主题A");
+        assertThat(first.getCooperationStartDate()).isEqualTo(LocalDate.of(2025, 5, 1));
+        assertThat(first.getCooperationPersonnelList())
+                .extracting(CooperationPersonnelRequest::getPersonnelId, CooperationPersonnelRequest::getCooperationJobType)
+                .containsExactly(
+                        tuple(100L, CooperationJobType.TECHNOLOGY),
+                        tuple(101L, CooperationJobType.MANAGEMENT));
+        assertThat(records.get(1).getValue().getCooperationTheme()).isEqualTo("主题,B");
+        assertThat(records.get(1).getValue().getCooperationPersonnelList()).hasSize(1);
+        assertThat(records).extracting(ImportRecord::getLine).containsExactly(2L, 5L);
+        assertThat(records).extracting(ImportRecord::getIndex).containsExactly(1, 2);
+    }
+
+    @Test
+    void badContinuationRowFailsWholeRecordAndKeepsFirstError() {
+        List<ImportRecord<CreateCooperationRequest>> records = readAll("csv", HEADER + "\n" +
+                row("主题A", "100", "TECHNOLOGY", "2025-05-01") +
+                row("主题A", "abc", "TECHNOLOGY", "2025-05-01") +
+                row("主题A", "101", "OTHER", "2025-05-01") +
+                row("主题B", "102", "TECHNOLOGY", "2025-05-01"));
+
+        assertThat(records).hasSize(2);
+        assertThat(records.get(0).getValue()).isNull();
+        assertThat(records.get(0).getLine()).isEqualTo(2L);
+        assertThat(records.get(0).getParseError()).isEqualTo("第 3 行: personnelId 不是有效的数字: abc");
+        // 失败的记录不影响下一条
+        assertThat(records.get(1).getParseError()).isNull();
+        assertThat(records.get(1).getValue().getCooperationTheme()).isEqualTo("主题B");
+    }
+
+    @Test
+    void badFirstRowFailsRecordButStillGroupsItsRows() {
+        List<ImportRecord<CreateCooperationRequest>> records = readAll("csv", HEADER + "\n" +
+                row("主题A", "100", "TECHNOLOGY", "2025-02-30") +
+                row("主题A", "101", "TECHNOLOGY", "2025-05-01") +
+                row("主题B", "102", "TECHNOLOGY", "2025-05-01"));
+
+        assertThat(records).hasSize(2);
+        assertThat(records.get(0).getParseError())
+                .isEqualTo("第 2 行: personnelStartDate 不是有效的日期 (yyyy-MM-dd): 2025-02-30");
+        assertThat(records.get(1).getValue().getCooperationTheme()).isEqualTo("主题B");
+    }
+
+    @Test
+    void unclosedQuoteFailsOnlyItsRecord() {
+        List<ImportRecord<CreateCooperationRequest>> records = readAll("csv", HEADER + "\n" +
+                "\"主题A,北京\n" +
+                row("主题B", "100", "TECHNOLOGY", "2025-05-01") +
+                "\"主题B,北京\n" +
+                row("主题C", "101", "TECHNOLOGY", "2025-05-01"));
+
+        assertThat(records).hasSize(3);
+        assertThat(records.get(0).getParseError()).isEqualTo("第 2 行: CSV 引号未闭合");
+        assertThat(records.get(1).getParseError()).isEqualTo("第 4 行: CSV 引号未闭合");
+        assertThat(records.get(1).getLine()).isEqualTo(3L);
+        assertThat(records.get(2).getParseError()).isNull();
+        assertThat(records).extracting(ImportRecord::getIndex).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void unknownJobTypeIsReported() {
+        List<ImportRecord<CreateCooperationRequest>> records = readAll("csv", HEADER + "\n" +
+                row("主题A", "100", "OTHER", "2025-05-01"));
+
+        assertThat(records).singleElement()
+                .satisfies(record -> assertThat(record.getParseError()).isEqualTo("第 2 行: cooperationJobType 无效: OTHER"));
+    }
+
+    @Test
+    void readsNdjsonRecords() {
+        List<ImportRecord<CreateCooperationRequest>> records = readAll("ndjson",
+                "{\"cooperationTheme\":\"主题A\",\"cooperationStartDate\":\"2025-05-01\"," +
+                "\"cooperationPersonnelList\":[{\"personnelId\":100,\"cooperationJobType\":\"TECHNOLOGY\"}]}\n" +
+                "[1,2]\n");
+
+        assertThat(records).hasSize(2);
+        assertThat(records.get(0).getValue().getCooperationPersonnelList()).singleElement()
+                .satisfies(item -> assertThat(item.getCooperationJobType()).isEqualTo(CooperationJobType.TECHNOLOGY));
+        assertThat(records.get(1).getParseError()).startsWith("JSON 解析失败");
+    }
+}
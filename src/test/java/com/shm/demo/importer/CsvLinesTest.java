@@ -0,0 +1,65 @@
+package com.shm.demo.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvLinesTest {
+
+    @Test
+    void splitsPlainFieldsAndTrimsWhitespace() {
+        assertThat(CsvLines.split("a, b ,c")).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void keepsEmptyFieldsIncludingTrailing() {
+        assertThat(CsvLines.split(",a,,")).containsExactly("", "a", "", "");
+        assertThat(CsvLines.split("")).containsExactly("");
+    }
+
+    @Test
+    void quotedFieldMayContainSeparatorAndEscapedQuote() {
+        assertThat(CsvLines.split("\"北京,朝阳\",\"他说\"\"好\"\"\",x"))
+                .containsExactly("北京,朝阳", "他说\"好\"", "x");
+    }
+
+    @Test
+    void emptyQuotedFieldIsEmpty() {
+        assertThat(CsvLines.split("\"\",a")).containsExactly("", "a");
+    }
+
+    @Test
+    void unclosedQuoteIsRejected() {
+        assertThatThrownBy(() -> CsvLines.split("a,\"b,c"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("CSV 引号未闭合");
+    }
+
+    @Test
+    void headerStripsBomAndMapsColumnIndexes() {
+        Map<String, Integer> columns = CsvLines.header("\uFEFFname,age,phone", List.of("name", "age"));
+
+        assertThat(columns).containsEntry("name", 0).containsEntry("age", 1).containsEntry("phone", 2);
+    }
+
+    @Test
+    void headerReportsAllMissingColumns() {
+        assertThatThrownBy(() -> CsvLines.header("name", List.of("name", "age", "phone")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("CSV 表头缺少列: age, phone");
+    }
+
+    @Test
+    void valueTreatsEmptyAndShortRowsAsNull() {
+        Map<String, Integer> columns = CsvLines.header("name,age,phone", List.of());
+
+        assertThat(CsvLines.value(List.of("张三", "", "138"), columns, "name")).isEqualTo("张三");
+        assertThat(CsvLines.value(List.of("张三", "", "138"), columns, "age")).isNull();
+        assertThat(CsvLines.value(List.of("张三"), columns, "phone")).isNull();
+        assertThat(CsvLines.value(List.of("张三"), columns, "unknown")).isNull();
+    }
+}
@@ -0,0 +1,128 @@
+package com.shm.demo.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shm.demo.dto.CreatePersonnelRequest;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PersonnelImportReaderTest {
+
+    private static final String HEADER = "name,gender,age,phone,education,startWorkDate,enterpriseId";
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private PersonnelImportReader reader(String format, String body) {
+        return new PersonnelImportReader(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format, objectMapper);
+    }
+
+    private static List<ImportRecord<CreatePersonnelRequest>> readAll(PersonnelImportReader reader) {
+        List<ImportRecord<CreatePersonnelRequest>> records = new ArrayList<>();
+        reader.forEachRemaining(records::add);
+        return records;
+    }
+
+    @Test
+    void readsCsvRowsWithQuotedFields() {
+        List<ImportRecord<CreatePersonnelRequest>> records = readAll(reader("csv",
+                HEADER + "\n" +
+                "张三,1,30,13800000000,2,2020-01-01,5\n" +
+                "\"李,四\",2,,,,,6\n"));
+
+        assertThat(records).hasSize(2);
+        CreatePersonnelRequest first = records.get(0).getValue();
+        assertThat(first.getName()).isEqualTo("张三");
+        assertThat(first.getGender()).isEqualTo((byte) 1);
+        assertThat(first.getAge()).isEqualTo(30);
+        assertThat(first.getStartWorkDate()).isEqualTo(LocalDate.of(2020, 1, 1));
+        assertThat(first.getEnterpriseId()).isEqualTo(5L);
+        CreatePersonnelRequest second = records.get(1).getValue();
+        assertThat(second.getName()).isEqualTo("李,四");
+        assertThat(second.getAge()).isNull();
+        assertThat(second.getPhone()).isNull();
+        assertThat(records).extracting(ImportRecord::getIndex).containsExactly(1, 2);
+        assertThat(records).extracting(ImportRecord::getLine).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void badCsvRowsFailIndividuallyWithLineNumbers() {
+        List<ImportRecord<CreatePersonnelRequest>> records = readAll(reader("csv",
+                HEADER + "\n" +
+                "张三,x,30,,,,5\n" +
+                "\n" +
+                "李四,1,30,,,2020-13-01,5\n" +
+                "\"王五,1,30,,,,5\n" +
+                "赵六,1,99999999999,,,,5\n" +
+                "钱七,1,30,,,,5\n"));
+
+        assertThat(records).hasSize(5);
+        assertThat(records.get(0).getParseError()).isEqualTo("第 2 行: gender 不是有效的数字: x");
+        assertThat(records.get(1).getParseError()).isEqualTo("第 4 行: startWorkDate 不是有效的日期 (yyyy-MM-dd): 2020-13-01");
+        assertThat(records.get(2).getParseError()).isEqualTo("第 5 行: CSV 引号未闭合");
+        assertThat(records.get(3).getParseError()).startsWith("第 6 行: ");
+        assertThat(records.get(3).getValue()).isNull();
+        // 解析失败不影响后续记录
+        assertThat(records.get(4).getParseError()).isNull();
+        assertThat(records.get(4).getValue().getName()).isEqualTo("钱七");
+        assertThat(records.get(4).getLine()).isEqualTo(7L);
+    }
+
+    @Test
+    void missingCsvColumnsRejectWholeBody() {
+        PersonnelImportReader reader = reader("csv", "name,age\n张三,30\n");
+
+        assertThatThrownBy(reader::hasNext)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("CSV 表头缺少列: gender");
+    }
+
+    @Test
+    void emptyBodyHasNoRecords() {
+        assertThat(readAll(reader("csv", ""))).isEmpty();
+        assertThat(readAll(reader("ndjson", "\n\n"))).isEmpty();
+    }
+
+    @Test
+    void readsNdjsonAndSkipsBlankLines() {
+        List<ImportRecord<CreatePersonnelRequest>> records = readAll(reader("ndjson",
+                "{\"name\":\"张三\",\"age\":30,\"startWorkDate\":\"2020-01-01\"}\n" +
+                "\n" +
+                "{\"name\":\"李四\"\n" +
+                "{\"name\":\"王五\"}\n"));
+
+        assertThat(records).hasSize(3);
+        assertThat(records.get(0).getValue().getStartWorkDate()).isEqualTo(LocalDate.of(2020, 1, 1));
+        assertThat(records.get(1).getValue()).isNull();
+        assertThat(records.get(1).getParseError()).startsWith("JSON 解析失败");
+        assertThat(records.get(1).getLine()).isEqualTo(3L);
+        assertThat(records.get(2).getValue().getName()).isEqualTo("王五");
+        assertThat(records).extracting(ImportRecord::getIndex).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void nextAfterEndThrows() {
+        PersonnelImportReader reader = reader("ndjson", "{\"name\":\"张三\"}");
+        reader.next();
+
+        assertThat(reader.hasNext()).isFalse();
+        assertThatThrownBy(reader::next).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void resolvesFormatFromParameterOrContentType() {
+        assertThat(AbstractImportReader.resolveFormat(null, "text/csv; charset=UTF-8")).isEqualTo("csv");
+        assertThat(AbstractImportReader.resolveFormat("", "application/x-ndjson")).isEqualTo("ndjson");
+        assertThat(AbstractImportReader.resolveFormat(null, null)).isEqualTo("ndjson");
+        assertThat(AbstractImportReader.resolveFormat("csv", "application/x-ndjson")).isEqualTo("csv");
+        assertThatThrownBy(() -> AbstractImportReader.resolveFormat("xml", null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
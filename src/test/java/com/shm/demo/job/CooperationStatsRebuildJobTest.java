@@ -0,0 +1,78 @@
+package com.shm.demo.job;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 重建按明细表修正统计表的偏差，并把各 slot 合并回 slot 0
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stats-rebuild;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.flyway.enabled=false",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:schema-h2.sql"
+})
+class CooperationStatsRebuildJobTest {
+
+    @Autowired
+    private CooperationStatsRebuildJob rebuildJob;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int themes;
+
+    @Test
+    void rebuildCorrectsDriftAndMergesSlots() {
+        long withPersonnel = insertCooperation("北京", "上海", 0);
+        insertPersonnel(withPersonnel, "MANAGEMENT", "2024-01-01", "2024-01-10");
+        insertPersonnel(withPersonnel, "TECHNOLOGY", "2024-02-01", "2024-02-05");
+        insertCooperation("北京", "上海", 0);
+        long deleted = insertCooperation("广州", "北京", 1);
+        insertPersonnel(deleted, "MANAGEMENT", "2024-01-01", "2024-01-31");
+
+        // 部分计入 (slot 3)、已不存在的分组 (slot 5)、正确但分散在其他 slot 的分组 (slot 2)
+        jdbcTemplate.update("INSERT INTO cooperation_region_stats VALUES ('北京', '上海', 3, 1, 1, 3)");
+        jdbcTemplate.update("INSERT INTO cooperation_region_stats VALUES ('上海', '广州', 5, 2, 0, 0)");
+        jdbcTemplate.update("INSERT INTO cooperation_job_type_stats VALUES ('北京', '上海', 'MANAGEMENT', 2, 1, 1, 10)");
+
+        int groups = rebuildJob.rebuild();
+
+        assertThat(groups).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForList("SELECT CONCAT_WS(',', initiator_region, receiver_region, slot, " +
+                "cooperation_count, personnel_count, person_days) FROM cooperation_region_stats", String.class))
+                .containsExactly("北京,上海,0,2,2,15");
+        assertThat(jdbcTemplate.queryForList("SELECT CONCAT_WS(',', initiator_region, receiver_region, cooperation_job_type, " +
+                "slot, cooperation_count, personnel_count, person_days) FROM cooperation_job_type_stats " +
+                "ORDER BY cooperation_job_type", String.class))
+                .containsExactly("北京,上海,MANAGEMENT,0,1,1,10", "北京,上海,TECHNOLOGY,0,1,1,5");
+
+        // 统计已一致时再次重建不改变结果
+        assertThat(rebuildJob.rebuild()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForList("SELECT CONCAT_WS(',', initiator_region, receiver_region, slot, " +
+                "cooperation_count, personnel_count, person_days) FROM cooperation_region_stats", String.class))
+                .containsExactly("北京,上海,0,2,2,15");
+    }
+
+    private long insertCooperation(String initiatorRegion, String receiverRegion, int deleted) {
+        String sql = "INSERT INTO cooperation (cooperation_theme, initiator_region, receiver_region, cooperation_start_date, " +
+                "cooperation_end_date, deleted) VALUES ('主题" + (++themes) + "', '" + initiatorRegion + "', '" + receiverRegion + "', " +
+                "DATE '2024-01-01', DATE '2024-12-31', " + deleted + ")";
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> connection.prepareStatement(sql, new String[] {"id"}), keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    private void insertPersonnel(long cooperationId, String jobType, String startDate, String endDate) {
+        jdbcTemplate.update("INSERT INTO cooperation_personnel (cooperation_id, sending_enterprise_id, personnel_id, " +
+                "cooperation_job_type, receiving_enterprise_id, personnel_start_date, personnel_end_date) " +
+                "VALUES (?, 1, 1, ?, 2, CAST(? AS DATE), CAST(? AS DATE))", cooperationId, jobType, startDate, endDate);
+    }
+}
@@ -0,0 +1,103 @@
+package com.shm.demo.job;
+
+import com.shm.demo.service.CooperationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 逻辑删除的合作保留人员明细，超过保留期后由归档任务连同明细一起移入归档表
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:soft-delete-archive;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.flyway.enabled=false",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:schema-h2.sql",
+        "archive.retention=90d",
+        "archive.batch-pause=0ms"
+})
+class SoftDeleteArchiveJobTest {
+
+    @Autowired
+    private CooperationService cooperationService;
+
+    @Autowired
+    private SoftDeleteArchiveJob archiveJob;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void softDeletedCooperationsAreArchivedWithTheirPersonnel() {
+        long enterpriseId = insert("INSERT INTO enterprise (name, cooperation_type, enterprise_type, region) " +
+                "VALUES ('企业A', '长期', '国有', '北京')");
+        long personnelA = insertPersonnel(enterpriseId, "13800000001");
+        long personnelB = insertPersonnel(enterpriseId, "13800000002");
+        long single = insertCooperation("单条删除", personnelA, personnelB);
+        long batched = insertCooperation("批量删除", personnelA);
+        long kept = insertCooperation("未删除", personnelB);
+
+        cooperationService.deleteCooperation(single);
+        cooperationService.deleteCooperationsBatch(List.of(batched));
+
+        // 逻辑删除不再删除人员明细
+        assertThat(countPersonnelOf("cooperation_personnel", single)).isEqualTo(2);
+        assertThat(countPersonnelOf("cooperation_personnel", batched)).isEqualTo(1);
+
+        // 模拟删除时间已超过保留期
+        jdbcTemplate.update("UPDATE cooperation SET updated_at = TIMESTAMPADD(DAY, -91, NOW()) WHERE deleted = 1");
+
+        int archived = archiveJob.archiveAll();
+
+        assertThat(archived).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM cooperation_archive ORDER BY id", Long.class))
+                .containsExactly(single, batched);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT personnel_id FROM cooperation_personnel_archive WHERE cooperation_id = ? ORDER BY personnel_id",
+                Long.class, single)).containsExactly(personnelA, personnelB);
+        assertThat(countPersonnelOf("cooperation_personnel_archive", batched)).isEqualTo(1);
+
+        assertThat(countPersonnelOf("cooperation_personnel", single)).isZero();
+        assertThat(countPersonnelOf("cooperation_personnel", batched)).isZero();
+        assertThat(countPersonnelOf("cooperation_personnel", kept)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM cooperation", Long.class)).containsExactly(kept);
+    }
+
+    private long insertPersonnel(long enterpriseId, String phone) {
+        return insert("INSERT INTO personnel (name, gender, age, phone, education, start_work_date, enterprise_id) " +
+                "VALUES ('张三', 1, 30, '" + phone + "', 1, DATE '2020-01-01', " + enterpriseId + ")");
+    }
+
+    private long insertCooperation(String theme, long... personnelIds) {
+        long cooperationId = insert("INSERT INTO cooperation (cooperation_theme, initiator_region, receiver_region, " +
+                "cooperation_start_date, cooperation_end_date, personnel_count) VALUES ('" + theme + "', '北京', '上海', " +
+                "DATE '2024-01-01', DATE '2024-12-31', " + personnelIds.length + ")");
+        for (long personnelId : personnelIds) {
+            jdbcTemplate.update("INSERT INTO cooperation_personnel (cooperation_id, sending_enterprise_id, personnel_id, " +
+                    "cooperation_job_type, receiving_enterprise_id, personnel_start_date, personnel_end_date) " +
+                    "SELECT ?, enterprise_id, id, '技术', enterprise_id, DATE '2024-01-01', DATE '2024-12-31' " +
+                    "FROM personnel WHERE id = ?", cooperationId, personnelId);
+        }
+        return cooperationId;
+    }
+
+    private int countPersonnelOf(String table, long cooperationId) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + table + " WHERE cooperation_id = ?", Integer.class, cooperationId);
+        return count == null ? 0 : count;
+    }
+
+    private long insert(String sql) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> connection.prepareStatement(sql, new String[] {"id"}), keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+}
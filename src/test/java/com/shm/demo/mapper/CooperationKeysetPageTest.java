@@ -0,0 +1,133 @@
+package com.shm.demo.mapper;
+
+import com.shm.demo.dto.CooperationListItemDTO;
+import com.shm.demo.dto.PageCursor;
+import com.shm.demo.dto.SearchCooperationRequest;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 游标 (keyset) 分页的边界：在嵌入式 H2 上执行 CooperationMapper 的实际 SQL，
+ * 重点覆盖 created_at 相同的记录跨页、已删除记录和最后一页。
+ */
+class CooperationKeysetPageTest {
+
+    private static final LocalDateTime T1 = LocalDateTime.of(2025, 4, 1, 9, 0);
+    private static final LocalDateTime T2 = LocalDateTime.of(2025, 4, 2, 9, 0);
+    private static final LocalDateTime T3 = LocalDateTime.of(2025, 4, 3, 9, 0);
+
+    private SingleConnectionDataSource dataSource;
+    private SqlSession session;
+    private CooperationMapper mapper;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:keyset;MODE=MySQL;DATABASE_TO_LOWER=TRUE", "sa", "", true);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE cooperation (id BIGINT PRIMARY KEY, cooperation_theme VARCHAR(20), " +
+                "initiator_region VARCHAR(10), receiver_region VARCHAR(10), cooperation_start_date DATE, " +
+                "cooperation_end_date DATE, personnel_count INT DEFAULT 0, deleted TINYINT DEFAULT 0, created_at DATETIME)");
+        // 排序为 created_at DESC, id DESC：期望顺序 7, 6, 5, 4, 3, 2, 1 (id 4 已删除)
+        insert(jdbc, 1, T1, "北京", 0);
+        insert(jdbc, 2, T2, "上海", 0);
+        insert(jdbc, 3, T2, "北京", 0);
+        insert(jdbc, 4, T2, "北京", 1);
+        insert(jdbc, 5, T2, "上海", 0);
+        insert(jdbc, 6, T3, "北京", 0);
+        insert(jdbc, 7, T3, "北京", 0);
+
+        Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.addMapper(CooperationMapper.class);
+        SqlSessionFactory factory = new SqlSessionFactoryBuilder().build(configuration);
+        session = factory.openSession();
+        mapper = session.getMapper(CooperationMapper.class);
+    }
+
+    private static void insert(JdbcTemplate jdbc, long id, LocalDateTime createdAt, String region, int deleted) {
+        jdbc.update("INSERT INTO cooperation (id, cooperation_theme, initiator_region, receiver_region, " +
+                        "cooperation_start_date, cooperation_end_date, deleted, created_at) " +
+                        "VALUES (?, ?, ?, '上海', DATE '2025-05-01', DATE '2025-05-31', ?, ?)",
+                id, "合作" + id, region, deleted, createdAt);
+    }
+
+    @AfterEach
+    void tearDown() {
+        session.close();
+        dataSource.destroy();
+    }
+
+    private static List<Long> ids(List<CooperationListItemDTO> rows) {
+        return rows.stream().map(CooperationListItemDTO::getId).toList();
+    }
+
+    // 按服务层的方式逐页读取：多取一条判断是否有下一页，以本页最后一条编码游标
+    private List<List<Long>> walk(int size, SearchCooperationRequest search) {
+        List<List<Long>> pages = new ArrayList<>();
+        String token = null;
+        do {
+            PageCursor cursor = PageCursor.decode(token);
+            LocalDateTime createdAt = cursor == null ? null : cursor.getCreatedAt();
+            Long id = cursor == null ? null : cursor.getId();
+            List<CooperationListItemDTO> rows = search == null
+                    ? mapper.findPageAfterCursor(createdAt, id, size + 1)
+                    : mapper.searchPageAfterCursor(search, null, createdAt, id, size + 1);
+            boolean hasNext = rows.size() > size;
+            List<CooperationListItemDTO> content = hasNext ? rows.subList(0, size) : rows;
+            pages.add(ids(content));
+            token = hasNext ? PageCursor.of(content.get(content.size() - 1)).encode() : null;
+        } while (token != null);
+        return pages;
+    }
+
+    @Test
+    void firstPageStartsAtNewest() {
+        assertThat(ids(mapper.findPageAfterCursor(null, null, 3))).containsExactly(7L, 6L, 5L);
+    }
+
+    @Test
+    void cursorInsideTiedCreatedAtContinuesWithSmallerIds() {
+        // 游标落在 T2 的中间：同一时刻 id 更小的记录和更早的记录都在之后
+        assertThat(ids(mapper.findPageAfterCursor(T2, 5L, 10))).containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    void cursorAtLastTiedRowSkipsToEarlierCreatedAt() {
+        assertThat(ids(mapper.findPageAfterCursor(T2, 2L, 10))).containsExactly(1L);
+    }
+
+    @Test
+    void cursorAtOldestRowReturnsEmptyPage() {
+        assertThat(mapper.findPageAfterCursor(T1, 1L, 10)).isEmpty();
+    }
+
+    @Test
+    void walkingAllPagesVisitsEveryActiveRowOnce() {
+        assertThat(walk(2, null)).containsExactly(List.of(7L, 6L), List.of(5L, 3L), List.of(2L, 1L));
+        assertThat(walk(3, null)).containsExactly(List.of(7L, 6L, 5L), List.of(3L, 2L, 1L));
+        assertThat(walk(10, null)).containsExactly(List.of(7L, 6L, 5L, 3L, 2L, 1L));
+    }
+
+    @Test
+    void searchPagesApplyFiltersTogetherWithCursor() {
+        SearchCooperationRequest search = new SearchCooperationRequest();
+        search.setInitiatorRegion("北京");
+
+        assertThat(walk(2, search)).containsExactly(List.of(7L, 6L), List.of(3L, 1L));
+    }
+}
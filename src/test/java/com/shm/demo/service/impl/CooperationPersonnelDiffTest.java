@@ -0,0 +1,175 @@
+package com.shm.demo.service.impl;
+
+import com.shm.demo.convert.CooperationConverterImpl;
+import com.shm.demo.dto.CooperationPersonnelRequest;
+import com.shm.demo.entity.CooperationJobType;
+import com.shm.demo.entity.CooperationPersonnel;
+import com.shm.demo.mapper.CooperationPersonnelMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 更新合作时人员明细的差异计算和执行：内容不变的记录不动，同一人员的记录原地更新，其余新增或删除。
+ */
+class CooperationPersonnelDiffTest {
+
+    private static final Long COOPERATION_ID = 10L;
+    private static final LocalDate MAY_1 = LocalDate.of(2025, 5, 1);
+    private static final LocalDate MAY_31 = LocalDate.of(2025, 5, 31);
+    private static final LocalDate JUNE_1 = LocalDate.of(2025, 6, 1);
+    private static final LocalDate JUNE_30 = LocalDate.of(2025, 6, 30);
+
+    private CooperationServiceImpl service;
+    private CooperationPersonnelMapper mapper;
+
+    @BeforeEach
+    void setUp() {
+        service = new CooperationServiceImpl();
+        mapper = mock(CooperationPersonnelMapper.class);
+        ReflectionTestUtils.setField(service, "cooperationConverter", new CooperationConverterImpl());
+        ReflectionTestUtils.setField(service, "cooperationPersonnelMapper", mapper);
+    }
+
+    private static CooperationPersonnel existing(long id, long personnelId, LocalDate start, LocalDate end) {
+        CooperationPersonnel row = new CooperationPersonnel();
+        row.setId(id);
+        row.setCooperationId(COOPERATION_ID);
+        row.setPersonnelId(personnelId);
+        row.setSendingEnterpriseId(1L);
+        row.setReceivingEnterpriseId(2L);
+        row.setCooperationJobType(CooperationJobType.TECHNOLOGY);
+        row.setPersonnelStartDate(start);
+        row.setPersonnelEndDate(end);
+        return row;
+    }
+
+    private static CooperationPersonnelRequest requested(long personnelId, LocalDate start, LocalDate end) {
+        CooperationPersonnelRequest request = new CooperationPersonnelRequest();
+        request.setPersonnelId(personnelId);
+        request.setSendingEnterpriseId(1L);
+        request.setReceivingEnterpriseId(2L);
+        request.setCooperationJobType(CooperationJobType.TECHNOLOGY);
+        request.setPersonnelStartDate(start);
+        request.setPersonnelEndDate(end);
+        return request;
+    }
+
+    @Test
+    void unchangedRowsProduceEmptyDiff() {
+        CooperationServiceImpl.PersonnelDiff diff = service.diffPersonnel(COOPERATION_ID,
+                List.of(existing(1, 100, MAY_1, MAY_31), existing(2, 200, MAY_1, MAY_31)),
+                // 请求中的顺序与已存储记录不同也视为不变
+                List.of(requested(200, MAY_1, MAY_31), requested(100, MAY_1, MAY_31)));
+
+        assertThat(diff.toInsert).isEmpty();
+        assertThat(diff.toUpdate).isEmpty();
+        assertThat(diff.toDelete).isEmpty();
+    }
+
+    @Test
+    void changedRowOfSamePersonnelIsUpdatedInPlace() {
+        CooperationServiceImpl.PersonnelDiff diff = service.diffPersonnel(COOPERATION_ID,
+                List.of(existing(1, 100, MAY_1, MAY_31)),
+                List.of(requested(100, JUNE_1, JUNE_30)));
+
+        assertThat(diff.toInsert).isEmpty();
+        assertThat(diff.toDelete).isEmpty();
+        assertThat(diff.toUpdate).singleElement().satisfies(row -> {
+            assertThat(row.getId()).isEqualTo(1L);
+            assertThat(row.getCooperationId()).isEqualTo(COOPERATION_ID);
+            assertThat(row.getPersonnelStartDate()).isEqualTo(JUNE_1);
+        });
+    }
+
+    @Test
+    void jobTypeChangeIsAnUpdate() {
+        CooperationPersonnelRequest request = requested(100, MAY_1, MAY_31);
+        request.setCooperationJobType(CooperationJobType.MANAGEMENT);
+
+        CooperationServiceImpl.PersonnelDiff diff = service.diffPersonnel(COOPERATION_ID,
+                List.of(existing(1, 100, MAY_1, MAY_31)), List.of(request));
+
+        assertThat(diff.toUpdate).singleElement()
+                .satisfies(row -> assertThat(row.getCooperationJobType()).isEqualTo(CooperationJobType.MANAGEMENT));
+    }
+
+    @Test
+    void replacedPersonnelIsDeletedAndNewOneInserted() {
+        CooperationServiceImpl.PersonnelDiff diff = service.diffPersonnel(COOPERATION_ID,
+                List.of(existing(1, 100, MAY_1, MAY_31), existing(2, 200, MAY_1, MAY_31)),
+                List.of(requested(100, MAY_1, MAY_31), requested(300, MAY_1, MAY_31)));
+
+        assertThat(diff.toUpdate).isEmpty();
+        assertThat(diff.toDelete).containsExactly(2L);
+        assertThat(diff.toInsert).singleElement().satisfies(row -> {
+            assertThat(row.getId()).isNull();
+            assertThat(row.getPersonnelId()).isEqualTo(300L);
+            assertThat(row.getCooperationId()).isEqualTo(COOPERATION_ID);
+        });
+    }
+
+    @Test
+    void samePersonnelSegmentsArePairedByStartDate() {
+        // 同一人员两段时间，第二段改期、再新增一段：较早的已存储记录与较早的请求记录配对
+        CooperationServiceImpl.PersonnelDiff diff = service.diffPersonnel(COOPERATION_ID,
+                List.of(existing(2, 100, JUNE_1, JUNE_30), existing(1, 100, MAY_1, MAY_31)),
+                List.of(requested(100, JUNE_1, JUNE_30),
+                        requested(100, LocalDate.of(2025, 8, 1), LocalDate.of(2025, 8, 31)),
+                        requested(100, LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 31))));
+
+        assertThat(diff.toDelete).isEmpty();
+        assertThat(diff.toUpdate).singleElement().satisfies(row -> {
+            assertThat(row.getId()).isEqualTo(1L);
+            assertThat(row.getPersonnelStartDate()).isEqualTo(LocalDate.of(2025, 7, 1));
+        });
+        assertThat(diff.toInsert).singleElement()
+                .satisfies(row -> assertThat(row.getPersonnelStartDate()).isEqualTo(LocalDate.of(2025, 8, 1)));
+    }
+
+    @Test
+    void emptyRequestDeletesAllRows() {
+        CooperationServiceImpl.PersonnelDiff diff = service.diffPersonnel(COOPERATION_ID,
+                List.of(existing(1, 100, MAY_1, MAY_31), existing(2, 200, MAY_1, MAY_31)), List.of());
+
+        assertThat(diff.toDelete).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(diff.toInsert).isEmpty();
+        assertThat(diff.toUpdate).isEmpty();
+    }
+
+    @Test
+    void applyDiffDeletesUpdatesAndInsertsAndSumsRows() {
+        CooperationServiceImpl.PersonnelDiff diff = service.diffPersonnel(COOPERATION_ID,
+                List.of(existing(1, 100, MAY_1, MAY_31), existing(2, 200, MAY_1, MAY_31)),
+                List.of(requested(100, JUNE_1, JUNE_30), requested(300, MAY_1, MAY_31)));
+        when(mapper.deleteByIds(diff.toDelete)).thenReturn(1);
+        when(mapper.batchUpdate(diff.toUpdate)).thenReturn(1);
+        when(mapper.batchInsert(diff.toInsert)).thenReturn(1);
+
+        assertThat(service.applyPersonnelDiff(diff)).isEqualTo(3);
+        verify(mapper).deleteByIds(List.of(2L));
+        verify(mapper).batchUpdate(diff.toUpdate);
+        verify(mapper).batchInsert(diff.toInsert);
+    }
+
+    @Test
+    void applyEmptyDiffTouchesNothing() {
+        CooperationServiceImpl.PersonnelDiff diff = service.diffPersonnel(COOPERATION_ID,
+                List.of(existing(1, 100, MAY_1, MAY_31)), List.of(requested(100, MAY_1, MAY_31)));
+
+        assertThat(service.applyPersonnelDiff(diff)).isZero();
+        verify(mapper, never()).deleteByIds(anyList());
+        verify(mapper, never()).batchUpdate(anyList());
+        verify(mapper, never()).batchInsert(anyList());
+    }
+}
@@ -0,0 +1,122 @@
+package com.shm.demo.service.impl;
+
+import com.shm.demo.dto.CooperationPersonnelRequest;
+import com.shm.demo.dto.UpdateCooperationRequest;
+import com.shm.demo.entity.Cooperation;
+import com.shm.demo.entity.CooperationJobType;
+import com.shm.demo.entity.CooperationType;
+import com.shm.demo.entity.Enterprise;
+import com.shm.demo.entity.EnterpriseType;
+import com.shm.demo.exception.OptimisticLockConflictException;
+import com.shm.demo.service.CooperationService;
+import com.shm.demo.service.EnterpriseService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 修改合作返回同一事务中读取的更新后主记录，而不是在内存中拼出的对象
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cooperation-update;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.flyway.enabled=false",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:schema-h2.sql"
+})
+class CooperationUpdateTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 1, 1, 9, 0);
+    private static final LocalDate START = LocalDate.of(2024, 3, 1);
+    private static final LocalDate END = LocalDate.of(2024, 3, 31);
+
+    @Autowired
+    private CooperationService cooperationService;
+
+    @Autowired
+    private EnterpriseService enterpriseService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void updateReturnsTheStoredRowAndRejectsStaleVersions() {
+        // 企业通过 Service 新增，同时写入企业缓存
+        long sending = addEnterprise("送出企业", CooperationType.SEND, "北京");
+        long receiving = addEnterprise("接收企业", CooperationType.RECEIVE, "上海");
+        long personnelId = insert("INSERT INTO personnel (name, gender, age, phone, education, start_work_date, enterprise_id) " +
+                "VALUES ('张三', 1, 30, '13800000001', 1, DATE '2020-01-01', " + sending + ")");
+        long cooperationId = insert("INSERT INTO cooperation (cooperation_theme, initiator_region, receiver_region, " +
+                "cooperation_start_date, cooperation_end_date, personnel_count) VALUES ('原主题', '北京', '上海', " +
+                "DATE '2024-01-01', DATE '2024-12-31', 1)");
+        jdbcTemplate.update("UPDATE cooperation SET created_at = ?, updated_at = ? WHERE id = ?",
+                Timestamp.valueOf(CREATED_AT), Timestamp.valueOf(CREATED_AT), cooperationId);
+        jdbcTemplate.update("INSERT INTO cooperation_personnel (cooperation_id, sending_enterprise_id, personnel_id, " +
+                "cooperation_job_type, receiving_enterprise_id, personnel_start_date, personnel_end_date) " +
+                "VALUES (?, ?, ?, 'MANAGEMENT', ?, DATE '2024-01-01', DATE '2024-12-31')",
+                cooperationId, sending, personnelId, receiving);
+
+        UpdateCooperationRequest request = request(cooperationId, sending, personnelId, receiving, 0);
+        Cooperation updated = cooperationService.updateCooperation(request);
+
+        LocalDateTime storedUpdatedAt = jdbcTemplate.queryForObject(
+                "SELECT updated_at FROM cooperation WHERE id = ?", LocalDateTime.class, cooperationId);
+        assertThat(updated.getId()).isEqualTo(cooperationId);
+        assertThat(updated.getCooperationTheme()).isEqualTo("新主题");
+        assertThat(updated.getCooperationStartDate()).isEqualTo(START);
+        assertThat(updated.getVersion()).isEqualTo(1);
+        assertThat(updated.getCreatedAt()).isEqualTo(CREATED_AT);
+        assertThat(updated.getUpdatedAt()).isEqualTo(storedUpdatedAt).isAfter(CREATED_AT);
+
+        assertThatThrownBy(() -> cooperationService.updateCooperation(request(cooperationId, sending, personnelId, receiving, 0)))
+                .isInstanceOf(OptimisticLockConflictException.class);
+    }
+
+    private static UpdateCooperationRequest request(long cooperationId, long sending, long personnelId, long receiving,
+                                                    Integer version) {
+        CooperationPersonnelRequest personnel = new CooperationPersonnelRequest();
+        personnel.setSendingEnterpriseId(sending);
+        personnel.setPersonnelId(personnelId);
+        personnel.setCooperationJobType(CooperationJobType.TECHNOLOGY);
+        personnel.setReceivingEnterpriseId(receiving);
+        personnel.setPersonnelStartDate(START);
+        personnel.setPersonnelEndDate(END);
+
+        UpdateCooperationRequest request = new UpdateCooperationRequest();
+        request.setId(cooperationId);
+        request.setCooperationTheme("新主题");
+        request.setInitiatorRegion("北京");
+        request.setReceiverRegion("上海");
+        request.setCooperationStartDate(START);
+        request.setCooperationEndDate(END);
+        request.setCooperationPersonnelList(List.of(personnel));
+        request.setVersion(version);
+        return request;
+    }
+
+    private long addEnterprise(String name, CooperationType cooperationType, String region) {
+        Enterprise enterprise = new Enterprise();
+        enterprise.setName(name);
+        enterprise.setCooperationType(cooperationType);
+        enterprise.setEnterpriseType(EnterpriseType.SERVICE);
+        enterprise.setRegion(region);
+        return enterpriseService.addEnterprise(enterprise).getId();
+    }
+
+    private long insert(String sql) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> connection.prepareStatement(sql, new String[] {"id"}), keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+}
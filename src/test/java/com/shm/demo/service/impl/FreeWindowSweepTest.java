@@ -0,0 +1,168 @@
+package com.shm.demo.service.impl;
+
+import com.shm.demo.dto.DateWindowDTO;
+import com.shm.demo.dto.PersonnelAvailabilityDTO;
+import com.shm.demo.entity.CooperationPersonnel;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 空闲时段扫描的边界：首尾日期都计入占用，相邻、包含、超出查询区间的占用时段都应正确合并。
+ * 查询区间固定为 2025-05-01 ~ 2025-05-31。
+ */
+class FreeWindowSweepTest {
+
+    private static final LocalDate RANGE_START = LocalDate.of(2025, 5, 1);
+    private static final LocalDate RANGE_END = LocalDate.of(2025, 5, 31);
+
+    private static LocalDate may(int day) {
+        return LocalDate.of(2025, 5, day);
+    }
+
+    private static CooperationPersonnel period(long personnelId, LocalDate start, LocalDate end) {
+        CooperationPersonnel period = new CooperationPersonnel();
+        period.setPersonnelId(personnelId);
+        period.setPersonnelStartDate(start);
+        period.setPersonnelEndDate(end);
+        return period;
+    }
+
+    private static Map<Long, PersonnelAvailabilityDTO> personnel(long... ids) {
+        Map<Long, PersonnelAvailabilityDTO> result = new LinkedHashMap<>();
+        for (long id : ids) {
+            PersonnelAvailabilityDTO dto = new PersonnelAvailabilityDTO();
+            dto.setPersonnelId(id);
+            result.put(id, dto);
+        }
+        return result;
+    }
+
+    // 单个人员按给定占用时段扫描，返回其空闲结果
+    private static PersonnelAvailabilityDTO sweep(int minDays, CooperationPersonnel... periods) {
+        Map<Long, PersonnelAvailabilityDTO> result = personnel(1L);
+        CooperationServiceImpl.FreeWindowSweep sweep = new CooperationServiceImpl.FreeWindowSweep(RANGE_START, RANGE_END, minDays, result);
+        for (CooperationPersonnel period : periods) {
+            sweep.accept(period);
+        }
+        sweep.finish();
+        return result.get(1L);
+    }
+
+    private static DateWindowDTO window(LocalDate start, LocalDate end) {
+        return new DateWindowDTO(start, end, end.toEpochDay() - start.toEpochDay() + 1);
+    }
+
+    @Test
+    void noPeriodsMeansWholeRangeFree() {
+        PersonnelAvailabilityDTO dto = sweep(1);
+
+        assertThat(dto.getFreeWindows()).containsExactly(window(RANGE_START, RANGE_END));
+        assertThat(dto.getFreeDays()).isEqualTo(31);
+    }
+
+    @Test
+    void bothEndDatesOfPeriodAreOccupied() {
+        PersonnelAvailabilityDTO dto = sweep(1, period(1, may(10), may(20)));
+
+        assertThat(dto.getFreeWindows()).containsExactly(window(may(1), may(9)), window(may(21), may(31)));
+        assertThat(dto.getFreeDays()).isEqualTo(20);
+    }
+
+    @Test
+    void touchingPeriodsLeaveNoGap() {
+        // 5/10 结束、5/11 开始：中间没有空闲日
+        PersonnelAvailabilityDTO dto = sweep(1, period(1, may(5), may(10)), period(1, may(11), may(15)));
+
+        assertThat(dto.getFreeWindows()).containsExactly(window(may(1), may(4)), window(may(16), may(31)));
+    }
+
+    @Test
+    void oneDayGapBetweenPeriodsIsFree() {
+        PersonnelAvailabilityDTO dto = sweep(1, period(1, may(5), may(10)), period(1, may(12), may(15)));
+
+        assertThat(dto.getFreeWindows()).contains(window(may(11), may(11)));
+    }
+
+    @Test
+    void periodContainedInEarlierPeriodDoesNotMoveCursorBack() {
+        PersonnelAvailabilityDTO dto = sweep(1,
+                period(1, may(5), may(20)),
+                period(1, may(8), may(12)),
+                period(1, may(20), may(20)));
+
+        assertThat(dto.getFreeWindows()).containsExactly(window(may(1), may(4)), window(may(21), may(31)));
+        assertThat(dto.getFreeDays()).isEqualTo(15);
+    }
+
+    @Test
+    void overlappingPeriodsMerge() {
+        PersonnelAvailabilityDTO dto = sweep(1, period(1, may(5), may(15)), period(1, may(10), may(25)));
+
+        assertThat(dto.getFreeWindows()).containsExactly(window(may(1), may(4)), window(may(26), may(31)));
+    }
+
+    @Test
+    void periodsExtendingBeyondRangeAreClipped() {
+        // 查询会返回与区间相交的时段，其首尾可能在区间之外
+        PersonnelAvailabilityDTO dto = sweep(1,
+                period(1, LocalDate.of(2025, 4, 1), may(3)),
+                period(1, may(28), LocalDate.of(2025, 12, 31)));
+
+        assertThat(dto.getFreeWindows()).containsExactly(window(may(4), may(27)));
+        assertThat(dto.getFreeDays()).isEqualTo(24);
+    }
+
+    @Test
+    void periodCoveringWholeRangeLeavesNothingFree() {
+        PersonnelAvailabilityDTO dto = sweep(1, period(1, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31)));
+
+        assertThat(dto.getFreeWindows()).isEmpty();
+        assertThat(dto.getFreeDays()).isZero();
+    }
+
+    @Test
+    void periodsTouchingRangeBoundariesLeaveInnerWindow() {
+        PersonnelAvailabilityDTO dto = sweep(1, period(1, RANGE_START, RANGE_START), period(1, RANGE_END, RANGE_END));
+
+        assertThat(dto.getFreeWindows()).containsExactly(window(may(2), may(30)));
+    }
+
+    @Test
+    void minDaysFiltersWindowsButNotFreeDays() {
+        PersonnelAvailabilityDTO dto = sweep(5, period(1, may(3), may(10)), period(1, may(14), may(25)));
+
+        // 5/1~5/2 (2 天)、5/11~5/13 (3 天) 被过滤，5/26~5/31 (6 天) 保留
+        assertThat(dto.getFreeWindows()).containsExactly(window(may(26), may(31)));
+        assertThat(dto.getFreeDays()).isEqualTo(11);
+    }
+
+    @Test
+    void personnelWithoutPeriodsBetweenOthersAreWhollyFree() {
+        Map<Long, PersonnelAvailabilityDTO> result = personnel(1L, 2L, 3L, 4L);
+        CooperationServiceImpl.FreeWindowSweep sweep = new CooperationServiceImpl.FreeWindowSweep(RANGE_START, RANGE_END, 1, result);
+        sweep.accept(period(1, may(1), may(10)));
+        sweep.accept(period(3, may(20), may(31)));
+        sweep.finish();
+
+        assertThat(result.get(1L).getFreeWindows()).containsExactly(window(may(11), may(31)));
+        assertThat(result.get(2L).getFreeWindows()).containsExactly(window(RANGE_START, RANGE_END));
+        assertThat(result.get(3L).getFreeWindows()).containsExactly(window(may(1), may(19)));
+        assertThat(result.get(4L).getFreeWindows()).containsExactly(window(RANGE_START, RANGE_END));
+    }
+
+    @Test
+    void unsortedOrUnknownPersonnelIsRejected() {
+        Map<Long, PersonnelAvailabilityDTO> result = personnel(1L, 2L);
+        CooperationServiceImpl.FreeWindowSweep sweep = new CooperationServiceImpl.FreeWindowSweep(RANGE_START, RANGE_END, 1, result);
+        sweep.accept(period(2, may(1), may(10)));
+
+        assertThatThrownBy(() -> sweep.accept(period(1, may(1), may(10))))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,169 @@
+package com.shm.demo.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> flight = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("等待超时");
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    // leader 在 loader 中阻塞，直到 followers 个调用方都已加入等待
+    private List<Future<String>> callConcurrently(String key, int followers, CountDownLatch release, AtomicInteger loads,
+                                                  RuntimeException failure) throws InterruptedException {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        results.add(executor.submit(() -> flight.execute(key, () -> {
+            loads.incrementAndGet();
+            leaderStarted.countDown();
+            await(release);
+            if (failure != null) {
+                throw failure;
+            }
+            return "value-" + key;
+        })));
+        assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        long collapsedBefore = flight.collapsed();
+        for (int i = 0; i < followers; i++) {
+            results.add(executor.submit(() -> flight.execute(key, () -> {
+                loads.incrementAndGet();
+                return "follower-loaded";
+            })));
+        }
+        waitUntil(() -> flight.collapsed() - collapsedBefore == followers);
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void concurrentCallsShareOneExecution() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        List<Future<String>> results = callConcurrently("a", 4, release, loads, null);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value-a");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(flight.executions()).isEqualTo(1);
+        assertThat(flight.collapsed()).isEqualTo(4);
+    }
+
+    @Test
+    void leaderExceptionIsRethrownToEveryCaller() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("加载失败");
+        List<Future<String>> results = callConcurrently("a", 3, release, new AtomicInteger(), failure);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            // 等待方拿到的是 leader 抛出的同一个异常，而不是包装后的 CompletionException
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseReference(failure);
+        }
+    }
+
+    @Test
+    void errorsArePropagatedToWaitingCallers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        StackOverflowError error = new StackOverflowError();
+        Future<String> leader = executor.submit(() -> flight.execute("a", () -> {
+            leaderStarted.countDown();
+            await(release);
+            throw error;
+        }));
+        assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<String> follower = executor.submit(() -> flight.execute("a", () -> "follower-loaded"));
+        waitUntil(() -> flight.collapsed() == 1);
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseReference(error);
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasCauseReference(error);
+    }
+
+    @Test
+    void failureIsNotRememberedForLaterCalls() {
+        assertThatThrownBy(() -> flight.execute("a", () -> {
+            throw new IllegalArgumentException("第一次失败");
+        })).isInstanceOf(IllegalArgumentException.class).hasMessage("第一次失败");
+
+        assertThat(flight.execute("a", () -> "ok")).isEqualTo("ok");
+        assertThat(flight.executions()).isEqualTo(2);
+    }
+
+    @Test
+    void resultIsNotCachedAfterCompletion() {
+        AtomicInteger loads = new AtomicInteger();
+
+        flight.execute("a", () -> "v" + loads.incrementAndGet());
+        String second = flight.execute("a", () -> "v" + loads.incrementAndGet());
+
+        assertThat(second).isEqualTo("v2");
+        assertThat(flight.collapsed()).isZero();
+    }
+
+    @Test
+    void differentKeysDoNotWaitForEachOther() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> blocked = callConcurrently("a", 0, release, new AtomicInteger(), null);
+
+        assertThat(flight.execute("b", () -> "value-b")).isEqualTo("value-b");
+        release.countDown();
+        assertThat(blocked.get(0).get(5, TimeUnit.SECONDS)).isEqualTo("value-a");
+    }
+
+    @Test
+    void forgetMakesLaterCallersExecuteAgain() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        List<Future<String>> before = callConcurrently("a", 1, release, loads, null);
+
+        flight.forget("a");
+        // forget 之后到达的调用不加入进行中的执行
+        assertThat(flight.execute("a", () -> "after-forget")).isEqualTo("after-forget");
+        release.countDown();
+
+        assertThat(before.get(0).get(5, TimeUnit.SECONDS)).isEqualTo("value-a");
+        assertThat(before.get(1).get(5, TimeUnit.SECONDS)).isEqualTo("value-a");
+        assertThat(flight.executions()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,133 @@
+-- 集成测试使用的 H2 (MySQL 兼容模式) 表结构，列与 db/migration 中的 MySQL 迁移脚本保持一致
+CREATE TABLE enterprise (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(20) NOT NULL,
+    cooperation_type VARCHAR(20) NOT NULL,
+    enterprise_type VARCHAR(20) NOT NULL,
+    region VARCHAR(10),
+    deleted TINYINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version INT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE personnel (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(10) NOT NULL,
+    gender TINYINT NOT NULL,
+    age INT NOT NULL,
+    phone VARCHAR(11) NOT NULL,
+    education TINYINT NOT NULL,
+    start_work_date DATE NOT NULL,
+    enterprise_id BIGINT NOT NULL,
+    deleted TINYINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version INT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE cooperation (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    cooperation_theme VARCHAR(20) NOT NULL,
+    initiator_region VARCHAR(10) NOT NULL,
+    receiver_region VARCHAR(10) NOT NULL,
+    cooperation_start_date DATE NOT NULL,
+    cooperation_end_date DATE NOT NULL,
+    personnel_count INT NOT NULL DEFAULT 0,
+    deleted TINYINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version INT NOT NULL DEFAULT 0,
+    active_theme VARCHAR(20) GENERATED ALWAYS AS (CASE WHEN deleted = 0 THEN cooperation_theme END)
+);
+CREATE UNIQUE INDEX uk_cooperation_active_theme ON cooperation (active_theme);
+
+CREATE TABLE cooperation_personnel (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    cooperation_id BIGINT NOT NULL,
+    sending_enterprise_id BIGINT NOT NULL,
+    personnel_id BIGINT NOT NULL,
+    cooperation_job_type VARCHAR(20) NOT NULL,
+    receiving_enterprise_id BIGINT NOT NULL,
+    personnel_start_date DATE NOT NULL,
+    personnel_end_date DATE NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX idx_cp_cooperation ON cooperation_personnel (cooperation_id);
+
+CREATE TABLE cooperation_archive (
+    id BIGINT NOT NULL PRIMARY KEY,
+    cooperation_theme VARCHAR(20) NOT NULL,
+    initiator_region VARCHAR(10) NOT NULL,
+    receiver_region VARCHAR(10) NOT NULL,
+    cooperation_start_date DATE NOT NULL,
+    cooperation_end_date DATE NOT NULL,
+    personnel_count INT NOT NULL DEFAULT 0,
+    deleted TINYINT NOT NULL DEFAULT 1,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE cooperation_personnel_archive (
+    id BIGINT NOT NULL PRIMARY KEY,
+    cooperation_id BIGINT NOT NULL,
+    sending_enterprise_id BIGINT NOT NULL,
+    personnel_id BIGINT NOT NULL,
+    cooperation_job_type VARCHAR(20) NOT NULL,
+    receiving_enterprise_id BIGINT NOT NULL,
+    personnel_start_date DATE NOT NULL,
+    personnel_end_date DATE NOT NULL,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE enterprise_archive (
+    id BIGINT NOT NULL PRIMARY KEY,
+    name VARCHAR(20) NOT NULL,
+    cooperation_type VARCHAR(20) NOT NULL,
+    enterprise_type VARCHAR(20) NOT NULL,
+    region VARCHAR(10),
+    deleted TINYINT NOT NULL DEFAULT 1,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE personnel_archive (
+    id BIGINT NOT NULL PRIMARY KEY,
+    name VARCHAR(10) NOT NULL,
+    gender TINYINT NOT NULL,
+    age INT NOT NULL,
+    phone VARCHAR(11) NOT NULL,
+    education TINYINT NOT NULL,
+    start_work_date DATE NOT NULL,
+    enterprise_id BIGINT NOT NULL,
+    deleted TINYINT NOT NULL DEFAULT 1,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE cooperation_region_stats (
+    initiator_region VARCHAR(10) NOT NULL,
+    receiver_region VARCHAR(10) NOT NULL,
+    slot TINYINT NOT NULL,
+    cooperation_count BIGINT NOT NULL DEFAULT 0,
+    personnel_count BIGINT NOT NULL DEFAULT 0,
+    person_days BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (initiator_region, receiver_region, slot)
+);
+
+CREATE TABLE cooperation_job_type_stats (
+    initiator_region VARCHAR(10) NOT NULL,
+    receiver_region VARCHAR(10) NOT NULL,
+    cooperation_job_type VARCHAR(20) NOT NULL,
+    slot TINYINT NOT NULL,
+    cooperation_count BIGINT NOT NULL DEFAULT 0,
+    personnel_count BIGINT NOT NULL DEFAULT 0,
+    person_days BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (initiator_region, receiver_region, cooperation_job_type, slot)
+);